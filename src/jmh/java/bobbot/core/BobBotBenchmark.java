@@ -0,0 +1,99 @@
+package bobbot.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bobbot.storage.Storage;
+import bobbot.task.TaskFixtures;
+
+/**
+ * Measures the find and list commands from input to response, as the GUI and the server run
+ * them, on lists of several sizes, kinds of tasks and description lengths loaded the way
+ * BobBot loads its file. The first find builds the word index during warmup, so the
+ * measurements are of searches with the index in place.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BobBotBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    private int taskCount;
+
+    @Param({TaskFixtures.TODOS, TaskFixtures.MIXED, TaskFixtures.DEADLINES})
+    private String mix;
+
+    @Param({"3", "12"})
+    private int descriptionWords;
+
+    private Path directory;
+    private BobBot bobBot;
+    private String lastPageCommand;
+    private String rareKeywordCommand;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bobbot-benchmark");
+        String filePath = directory.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        storage.saveTasks(TaskFixtures.build(taskCount, mix, descriptionWords));
+        storage.close();
+        bobBot = new BobBot(filePath);
+        lastPageCommand = "list " + ((taskCount + 99) / 100);
+        rareKeywordCommand = "find item" + taskCount / 2;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        bobBot.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public String findCommonWord() {
+        return bobBot.getResponse("find rent");
+    }
+
+    @Benchmark
+    public String findRareWord() {
+        return bobBot.getResponse(rareKeywordCommand);
+    }
+
+    @Benchmark
+    public String findPhrase() {
+        return bobBot.getResponse("find pay rent");
+    }
+
+    @Benchmark
+    public String listFirstPage() {
+        return bobBot.getResponse("list");
+    }
+
+    @Benchmark
+    public String listLastPage() {
+        return bobBot.getResponse(lastPageCommand);
+    }
+}
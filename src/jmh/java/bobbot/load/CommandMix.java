@@ -0,0 +1,134 @@
+package bobbot.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Synthesizes BobBot commands in given proportions, such as "add=40,find=20,delete=10".
+ *
+ * <p>The kinds of commands are add (a todo, deadline or event), mark, unmark, find, delete,
+ * undo and list. Task numbers are picked from the number of tasks the list is expected to
+ * have, which the generator keeps track of from the adds and deletes it hands out, starting
+ * from an empty list, so most commands refer to a task that exists.
+ */
+class CommandMix {
+    /** The mix used when none is given, loosely that of someone keeping a busy to-do list. */
+    static final String DEFAULT_MIX = "add=35,mark=15,unmark=5,find=20,delete=10,undo=5,list=10";
+
+    private static final String[] WORDS = {
+        "read", "book", "return", "pay", "rent", "project", "meeting", "buy", "groceries", "call",
+        "mom", "submit", "report", "clean", "room", "water", "plants", "review", "notes", "gym",
+        "email", "team", "fix", "bike", "plan", "trip", "cook", "dinner", "study", "exam",
+        "write", "essay",
+    };
+    private static final String[] KINDS = {"add", "mark", "unmark", "find", "delete", "undo", "list"};
+    private static final int LIST_PAGE_SIZE = 100;
+
+    private final String[] kinds;
+    private final int[] cumulativeWeights;
+    private final AtomicInteger expectedSize = new AtomicInteger();
+    private final AtomicInteger nextTaskNumber = new AtomicInteger();
+
+    /**
+     * Creates a generator for the given mix.
+     *
+     * @param mix comma separated kind=weight pairs, with weights of at least 0
+     * @throws IllegalArgumentException if the mix names an unknown kind, has a weight that is not
+     *     a number, or has no positive weight
+     */
+    CommandMix(String mix) {
+        Map<String, Integer> weights = parseWeights(mix);
+        kinds = weights.keySet().toArray(new String[0]);
+        cumulativeWeights = new int[kinds.length];
+        int total = 0;
+        for (int i = 0; i < kinds.length; i++) {
+            total += weights.get(kinds[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The mix must have a positive weight: " + mix);
+        }
+    }
+
+    /**
+     * Builds a command that adds a task, to fill the list before the run.
+     *
+     * @param random the source of randomness of the calling thread
+     * @return the command
+     */
+    String nextAdd(SplittableRandom random) {
+        expectedSize.incrementAndGet();
+        int number = nextTaskNumber.getAndIncrement();
+        String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                + " " + number;
+        switch (number % 4) {
+        case 0:
+            return String.format("deadline %s /by 2026-%02d-%02d", description, 1 + number % 12, 1 + number % 28);
+        case 1:
+            return String.format("event %s /from 2026-%02d-%02d 0900 /to 1700", description, 1 + number % 12,
+                    1 + number % 28);
+        default:
+            return "todo " + description;
+        }
+    }
+
+    /**
+     * Builds the next command of the mix.
+     *
+     * @param random the source of randomness of the calling thread
+     * @return the command
+     */
+    String next(SplittableRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int k = 0;
+        while (cumulativeWeights[k] <= pick) {
+            k++;
+        }
+        int size = Math.max(1, expectedSize.get());
+        switch (kinds[k]) {
+        case "add":
+            return nextAdd(random);
+        case "mark":
+            return "mark " + (1 + random.nextInt(size));
+        case "unmark":
+            return "unmark " + (1 + random.nextInt(size));
+        case "find":
+            return "find " + WORDS[random.nextInt(WORDS.length)];
+        case "delete":
+            expectedSize.decrementAndGet();
+            return "delete " + (1 + random.nextInt(size));
+        case "undo":
+            return "undo";
+        default:
+            return "list " + (1 + random.nextInt((size + LIST_PAGE_SIZE - 1) / LIST_PAGE_SIZE));
+        }
+    }
+
+    private static Map<String, Integer> parseWeights(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String pair : mix.split(",")) {
+            String[] parts = pair.trim().split("=");
+            if (parts.length != 2 || !isKind(parts[0].trim())) {
+                throw new IllegalArgumentException("Unknown part of the mix: " + pair
+                        + ", expected kind=weight with a kind out of " + String.join(", ", KINDS));
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights cannot be negative: " + pair);
+            }
+            weights.put(parts[0].trim(), weight);
+        }
+        return weights;
+    }
+
+    private static boolean isKind(String name) {
+        for (String kind : KINDS) {
+            if (kind.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,366 @@
+package bobbot.load;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import bobbot.core.BobBot;
+import bobbot.metrics.LatencyHistogram;
+
+/**
+ * Sends a stream of commands to a BobBot through {@link BobBot#getResponse(String)} and reports,
+ * for each kind of command, the latency percentiles, the throughput and the bytes allocated
+ * per command.
+ *
+ * <p>The commands are synthesized in the proportions of a {@link CommandMix}, or replayed from
+ * a file of commands, one per line, which is gone through again from the start as often as
+ * needed. The list is first filled with tasks, and a number of warmup commands are run before
+ * anything is measured.
+ *
+ * <p>Without a rate, every thread sends its next command as soon as the last one is answered,
+ * and latency is the time BobBot took to answer. With a rate, command i is due i / rate seconds
+ * after the start, and its latency counts from when it was due, so a slow command also shows
+ * in the latency of the commands that had to wait for it.
+ *
+ * <p>Allocation is measured on the thread that sends the command, so work that BobBot hands to
+ * other threads, such as journal writes and parallel scans of long lists, is not counted.
+ *
+ * <p>Options, which can also be given as {@code ./gradlew loadTest -PloadArgs="--threads 4 ..."}:
+ * <pre>
+ *   --commands N   number of commands to measure (100000)
+ *   --warmup N     number of commands to run first without measuring them (10000)
+ *   --tasks N      number of tasks to add before the warmup (10000)
+ *   --threads N    number of threads sending commands at once (1)
+ *   --rate N       commands per second over all threads, or 0 for as fast as possible (0)
+ *   --mix M        proportions of the synthesized commands (add=35,mark=15,unmark=5,find=20,...)
+ *   --replay FILE  file of commands to send instead of synthesized ones
+ *   --seed N       seed of the synthesized commands (42)
+ *   --csv FILE     file to write the latencies of every second of the run to, for comparing builds
+ *   --data FILE    task file to use, which is kept afterwards (a new file in a temporary directory)
+ * </pre>
+ */
+public final class LoadGenerator {
+    private static final String ERROR_PREFIX = "BOBZ!!!";
+    private static final String TOTAL_ROW = "all";
+    private static final String CSV_HEADER = "second,type,count,p50_us,p99_us,p999_us,max_us,errors,alloc_bytes_per_op";
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    /**
+     * Latencies, errors and allocations of one kind of command, over the whole run and over
+     * the current second.
+     */
+    private static final class CommandStats {
+        private final LatencyHistogram total = new LatencyHistogram();
+        private final LatencyHistogram interval = new LatencyHistogram();
+        private long errors;
+        private long intervalErrors;
+        private long allocatedBytes;
+        private long intervalAllocatedBytes;
+
+        private synchronized void record(long nanos, long allocated, boolean isError) {
+            total.record(nanos);
+            interval.record(nanos);
+            allocatedBytes += allocated;
+            intervalAllocatedBytes += allocated;
+            if (isError) {
+                errors++;
+                intervalErrors++;
+            }
+        }
+
+        /**
+         * Writes the latencies of the second that just ended, if there were any, and starts the next one.
+         */
+        private synchronized void endInterval(long second, String type, PrintWriter csv) {
+            if (interval.getCount() > 0 && csv != null) {
+                csv.println(second + "," + type + "," + interval.getCount() + "," + micros(interval.percentileNanos(50))
+                        + "," + micros(interval.percentileNanos(99)) + "," + micros(interval.percentileNanos(99.9))
+                        + "," + micros(interval.getMaxNanos()) + "," + intervalErrors + ","
+                        + perCommand(intervalAllocatedBytes, interval.getCount()));
+            }
+            interval.clear();
+            intervalErrors = 0;
+            intervalAllocatedBytes = 0;
+        }
+    }
+
+    private final Map<String, String> options;
+    private final Map<String, CommandStats> statsByType = new ConcurrentHashMap<>();
+    private List<String> replayedCommands;
+    private CommandMix mix;
+
+    private LoadGenerator(Map<String, String> options) {
+        this.options = options;
+    }
+
+    /**
+     * Runs the load generator with the given options and prints the report.
+     *
+     * @param args the options, see the class description
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) {
+                System.err.println("Options are given as --name value, see LoadGenerator for the list bobz.");
+                System.exit(2);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        new LoadGenerator(options).run();
+    }
+
+    private void run() throws Exception {
+        int commandCount = intOption("commands", 100_000);
+        int warmupCount = intOption("warmup", 10_000);
+        int taskCount = intOption("tasks", 10_000);
+        int threadCount = Math.max(1, intOption("threads", 1));
+        long rate = intOption("rate", 0);
+        long seed = intOption("seed", 42);
+        if (options.containsKey("replay")) {
+            replayedCommands = readCommands(Path.of(options.get("replay")));
+        }
+        mix = new CommandMix(options.getOrDefault("mix", CommandMix.DEFAULT_MIX));
+
+        Path temporaryDirectory = options.containsKey("data") ? null : Files.createTempDirectory("bobbot-load");
+        Path dataFile = temporaryDirectory != null ? temporaryDirectory.resolve("tasks.txt") : Path.of(options.get("data"));
+        BobBot bobBot = new BobBot(dataFile.toString());
+        try (PrintWriter csv = options.containsKey("csv")
+                ? new PrintWriter(Files.newBufferedWriter(Path.of(options.get("csv")), StandardCharsets.UTF_8))
+                : null) {
+            fill(bobBot, taskCount, new SplittableRandom(seed));
+            sendAll(bobBot, 0, warmupCount, threadCount, 0, seed + 1, false);
+
+            if (csv != null) {
+                csv.println(CSV_HEADER);
+            }
+            long elapsedNanos = measure(bobBot, warmupCount, commandCount, threadCount, rate, seed + 2, csv);
+            printReport(commandCount, threadCount, rate, elapsedNanos);
+        } finally {
+            bobBot.close();
+            if (temporaryDirectory != null) {
+                deleteRecursively(temporaryDirectory);
+            }
+        }
+    }
+
+    /**
+     * Adds tasks to the list in one batch, so that the run starts from a list of the given size.
+     */
+    private void fill(BobBot bobBot, int taskCount, SplittableRandom random) {
+        List<String> adds = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            adds.add(mix.nextAdd(random));
+        }
+        bobBot.runBatch(adds, BobBot.BatchPolicy.CONTINUE_ON_ERROR, response -> { });
+    }
+
+    /**
+     * Sends the measured commands while the calling thread ends an interval every second.
+     *
+     * @return the time the commands took, in nanoseconds
+     */
+    private long measure(BobBot bobBot, long first, int count, int threadCount, long rate, long seed,
+            PrintWriter csv) throws InterruptedException {
+        Thread sender = new Thread(() -> sendAll(bobBot, first, count, threadCount, rate, seed, true), "bobbot-load");
+        long start = System.nanoTime();
+        sender.start();
+        long second = 0;
+        long nextReport = start + REPORT_INTERVAL_NANOS;
+        while (sender.isAlive()) {
+            long wait = nextReport - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.timedJoin(sender, wait);
+            }
+            if (System.nanoTime() - nextReport >= 0 || !sender.isAlive()) {
+                endInterval(second++, csv);
+                nextReport += REPORT_INTERVAL_NANOS;
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Sends commands first to first + count - 1 of the stream from the given number of threads,
+     * and waits for all of them to be answered.
+     */
+    private void sendAll(BobBot bobBot, long first, int count, int threadCount, long rate, long seed,
+            boolean isMeasured) {
+        AtomicLong next = new AtomicLong();
+        long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            SplittableRandom random = new SplittableRandom(seed + t);
+            Thread thread = new Thread(() -> {
+                for (long i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                    String command = commandAt(first + i, random);
+                    if (rate > 0) {
+                        long due = start + i * TimeUnit.SECONDS.toNanos(1) / rate;
+                        waitUntil(due);
+                        send(bobBot, command, due, isMeasured);
+                    } else {
+                        send(bobBot, command, System.nanoTime(), isMeasured);
+                    }
+                }
+            }, "bobbot-load-" + t);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sends one command and records its latency.
+     *
+     * @param sent the time the latency counts from, which is when the command was due if it had to wait
+     */
+    private void send(BobBot bobBot, String command, long sent, boolean isMeasured) {
+        long allocatedBefore = allocatedBytes();
+        String response = bobBot.getResponse(command);
+        long latency = System.nanoTime() - sent;
+        long allocated = allocatedBytes() - allocatedBefore;
+        if (isMeasured) {
+            statsByType.computeIfAbsent(typeOf(command), type -> new CommandStats())
+                    .record(latency, allocated, response.startsWith(ERROR_PREFIX));
+        }
+    }
+
+    private static void waitUntil(long due) {
+        for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private String commandAt(long i, SplittableRandom random) {
+        if (replayedCommands != null) {
+            return replayedCommands.get((int) (i % replayedCommands.size()));
+        }
+        return mix.next(random);
+    }
+
+    private void endInterval(long second, PrintWriter csv) {
+        for (Map.Entry<String, CommandStats> entry : new TreeMap<>(statsByType).entrySet()) {
+            entry.getValue().endInterval(second, entry.getKey(), csv);
+        }
+        if (csv != null) {
+            csv.flush();
+        }
+    }
+
+    private void printReport(int commandCount, int threadCount, long rate, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%d commands from %d thread(s) in %.2f s, %s%n", commandCount, threadCount, seconds,
+                rate > 0 ? "at most " + rate + " per second" : "as fast as possible");
+        System.out.printf("%-10s %9s %10s %10s %10s %10s %10s %7s %12s%n",
+                "type", "count", "ops/s", "p50 us", "p99 us", "p999 us", "max us", "errors", "alloc B/op");
+
+        LatencyHistogram all = new LatencyHistogram();
+        long allErrors = 0;
+        long allAllocated = 0;
+        for (Map.Entry<String, CommandStats> entry : new TreeMap<>(statsByType).entrySet()) {
+            CommandStats stats = entry.getValue();
+            synchronized (stats) {
+                printRow(entry.getKey(), stats.total, stats.errors, stats.allocatedBytes, seconds);
+                all.add(stats.total);
+                allErrors += stats.errors;
+                allAllocated += stats.allocatedBytes;
+            }
+        }
+        printRow(TOTAL_ROW, all, allErrors, allAllocated, seconds);
+        if (THREADS != null) {
+            System.out.printf("Allocation rate of the sending threads: %.1f MB/s%n", allAllocated / seconds / (1 << 20));
+        }
+    }
+
+    private static void printRow(String type, LatencyHistogram latencies, long errors, long allocated, double seconds) {
+        System.out.printf("%-10s %9d %10.0f %10s %10s %10s %10s %7d %12s%n", type, latencies.getCount(),
+                latencies.getCount() / seconds, micros(latencies.percentileNanos(50)),
+                micros(latencies.percentileNanos(99)), micros(latencies.percentileNanos(99.9)),
+                micros(latencies.getMaxNanos()), errors, perCommand(allocated, latencies.getCount()));
+    }
+
+    /**
+     * Names the kind of a command by its first word, such as "todo" or "find".
+     */
+    private static String typeOf(String command) {
+        String trimmed = command.trim();
+        int end = trimmed.indexOf(' ');
+        return (end < 0 ? trimmed : trimmed.substring(0, end)).toLowerCase();
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1f", nanos / 1000.0);
+    }
+
+    private static String perCommand(long allocated, long count) {
+        return THREADS == null || count == 0 ? "-" : Long.toString(allocated / count);
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Returns the JVM's counter of the bytes each thread allocated, or null if it has none.
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    private static List<String> readCommands(Path file) throws IOException {
+        List<String> commands = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String command = line.trim();
+            if (!command.isEmpty() && !command.startsWith("#")) {
+                commands.add(command);
+            }
+        }
+        if (commands.isEmpty()) {
+            throw new IOException("No commands to replay in " + file);
+        }
+        return commands;
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package bobbot.parser;
+
+/**
+ * Copy of the prefix-chain {@link Parser} from before it was rebuilt around a keyword table,
+ * kept only as the baseline of {@link ParserBenchmark}. It produces {@link Parser.Command}s
+ * so that both parsers can be compared on the same input.
+ */
+class LegacyParser {
+    private static final int LIST_COMMAND_PREFIX_LENGTH = 5;
+    private static final int MARK_COMMAND_PREFIX_LENGTH = 5;
+    private static final int UNMARK_COMMAND_PREFIX_LENGTH = 7;
+    private static final int TODO_COMMAND_PREFIX_LENGTH = 5;
+    private static final int DEADLINE_COMMAND_PREFIX_LENGTH = 9;
+    private static final int EVENT_COMMAND_PREFIX_LENGTH = 6;
+    private static final int DELETE_COMMAND_PREFIX_LENGTH = 7;
+    private static final int FIND_COMMAND_PREFIX_LENGTH = 5;
+    private static final String FUZZY_FIND_COMMAND_PREFIX = "find~";
+    private static final int DUE_COMMAND_PREFIX_LENGTH = 4;
+    private static final String DEADLINE_DELIMITER = " /by ";
+    private static final String EVENT_FROM_DELIMITER = " /from ";
+    private static final String EVENT_TO_DELIMITER = " /to ";
+    /**
+     * Parses a user input string and returns the corresponding Parser.Command object.
+     * Analyzes the input to determine command type and extracts relevant arguments.
+     * 
+     * <p>Supported command formats:
+     * <ul>
+     *   <li>bye - exit the application</li>
+     *   <li>list [page | next | --from &lt;number&gt; --limit &lt;count&gt;] - show a page of tasks</li>
+     *   <li>mark &lt;index&gt; - mark task as done</li>
+     *   <li>unmark &lt;index&gt; - mark task as not done</li>
+     *   <li>todo &lt;description&gt; - create todo task</li>
+     *   <li>deadline &lt;description&gt; /by &lt;time&gt; - create deadline task</li>
+     *   <li>event &lt;description&gt; /from &lt;start&gt; /to &lt;end&gt; - create event task</li>
+     *   <li>delete &lt;index&gt; - delete task</li>
+     *   <li>find &lt;keyword&gt; - find tasks containing the keyword</li>
+     *   <li>find~[distance] &lt;keyword&gt; - find tasks with a word close to the keyword</li>
+     *   <li>due today | week | &lt;date&gt; | &lt;from&gt; &lt;to&gt; - list deadlines due in a range of days</li>
+     *   <li>overdue - list deadlines that are past due and not done</li>
+     * </ul>
+     *
+     * @param input the user input string to parse
+     * @return a Parser.Command object representing the parsed command and its arguments
+     */
+    static Parser.Command parseCommand(String input) {
+        assert input != null;
+
+        String trimmed = input.trim();
+        assert !trimmed.isEmpty();
+        
+        Parser.Command result;
+        
+        if (trimmed.equals("bye")) {
+            result = new Parser.Command(Parser.CommandType.BYE, new String[0]);
+        } else if (trimmed.equals("list")) {
+            result = new Parser.Command(Parser.CommandType.LIST, new String[0]);
+        } else if (trimmed.startsWith("list ")) {
+            String page = trimmed.substring(LIST_COMMAND_PREFIX_LENGTH).trim();
+            result = new Parser.Command(Parser.CommandType.LIST, new String[]{page});
+        } else if (trimmed.equals("undo")) {
+            result = new Parser.Command(Parser.CommandType.UNDO, new String[0]);
+        } else if (trimmed.equals("overdue")) {
+            result = new Parser.Command(Parser.CommandType.OVERDUE, new String[0]);
+        } else if (trimmed.startsWith("due ")) {
+            String range = trimmed.substring(DUE_COMMAND_PREFIX_LENGTH).trim();
+            result = new Parser.Command(Parser.CommandType.DUE, new String[]{range});
+        } else if (trimmed.startsWith("mark ")) {
+            result = parseMarkCommand(trimmed);
+        } else if (trimmed.startsWith("unmark ")) {
+            result = parseUnmarkCommand(trimmed);
+        } else if (trimmed.startsWith("todo ")) {
+            result = parseTodoCommand(trimmed);
+        } else if (trimmed.startsWith("deadline ")) {
+            result = parseDeadlineCommand(trimmed);
+        } else if (trimmed.startsWith("event ")) {
+            result = parseEventCommand(trimmed);
+        } else if (trimmed.startsWith(FUZZY_FIND_COMMAND_PREFIX)) {
+            result = parseFuzzyFindCommand(trimmed);
+        } else if (trimmed.startsWith("find ")) {
+            String keyword = trimmed.substring(FIND_COMMAND_PREFIX_LENGTH).trim();
+            return new Parser.Command(Parser.CommandType.FIND, new String[]{keyword});
+        }
+        else if (trimmed.startsWith("delete ")) {
+            result = parseDeleteCommand(trimmed);
+        } else {
+            result = new Parser.Command(Parser.CommandType.INVALID, new String[0]);
+        }
+        
+        return result;
+    }
+
+    private static Parser.Command parseMarkCommand(String trimmed) {
+        String indexStr = trimmed.substring(MARK_COMMAND_PREFIX_LENGTH).trim();
+        return new Parser.Command(Parser.CommandType.MARK, new String[]{indexStr});
+    }
+
+    private static Parser.Command parseUnmarkCommand(String trimmed) {
+        String indexStr = trimmed.substring(UNMARK_COMMAND_PREFIX_LENGTH).trim();
+        return new Parser.Command(Parser.CommandType.UNMARK, new String[]{indexStr});
+    }
+
+    private static Parser.Command parseTodoCommand(String trimmed) {
+        String desc = trimmed.substring(TODO_COMMAND_PREFIX_LENGTH).trim();
+        return new Parser.Command(Parser.CommandType.TODO, new String[]{desc});
+    }
+
+    private static Parser.Command parseDeadlineCommand(String trimmed) {
+        String[] parts = trimmed.substring(DEADLINE_COMMAND_PREFIX_LENGTH).split(" /by ", 2);
+        return new Parser.Command(Parser.CommandType.DEADLINE, parts);
+    }
+
+    private static Parser.Command parseEventCommand(String trimmed) {
+        String remaining = trimmed.substring(EVENT_COMMAND_PREFIX_LENGTH);
+        String[] parts = remaining.split(" /from | /to ");
+        return new Parser.Command(Parser.CommandType.EVENT, parts);
+    }
+
+    private static Parser.Command parseFuzzyFindCommand(String trimmed) {
+        String remaining = trimmed.substring(FUZZY_FIND_COMMAND_PREFIX.length());
+        if (remaining.isEmpty() || remaining.startsWith(" ")) {
+            return new Parser.Command(Parser.CommandType.FUZZY_FIND, new String[]{remaining.trim()});
+        }
+        String[] parts = remaining.split(" ", 2);
+        String keyword = parts.length > 1 ? parts[1].trim() : "";
+        return new Parser.Command(Parser.CommandType.FUZZY_FIND, new String[]{keyword, parts[0]});
+    }
+
+    private static Parser.Command parseDeleteCommand(String trimmed) {
+        String indexStr = trimmed.substring(DELETE_COMMAND_PREFIX_LENGTH).trim();
+        return new Parser.Command(Parser.CommandType.DELETE, new String[]{indexStr});
+    }
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package bobbot.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the keyword-table {@link Parser} with the prefix-chain {@link LegacyParser} on
+ * mixes of commands: one that mostly adds tasks, one that mostly reads the list, and one
+ * that only adds events, whose flags the legacy parser split with a regular expression.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    private static final String[] ADDING = {
+        "todo read book", "deadline return book /by 2026-03-20", "event project meeting /from 2026-03-20 1400 /to 4pm",
+        "todo buy groceries", "deadline submit essay /by Mon", "mark 3", "delete 2", "undo",
+    };
+    private static final String[] READING = {
+        "list", "find book", "list next", "find~ concrt", "due week", "overdue", "mark 1", "unmark 1", "list 2", "bye",
+    };
+    private static final String[] EVENTS = {
+        "event project meeting /from 2026-03-20 1400 /to 2026-03-20 1600", "event concert /from Sat 7pm /to 11pm",
+        "event career fair /to Fri /from Thu", "event hackathon /from 2026-04-01 0900 /to 2026-04-02 1800",
+    };
+
+    @Param({"adding", "reading", "events"})
+    private String mix;
+
+    private String[] commands;
+
+    @Setup
+    public void setUp() {
+        switch (mix) {
+        case "adding":
+            commands = ADDING;
+            break;
+        case "reading":
+            commands = READING;
+            break;
+        default:
+            commands = EVENTS;
+            break;
+        }
+    }
+
+    @Benchmark
+    public void parseLegacy(Blackhole blackhole) {
+        for (String command : commands) {
+            blackhole.consume(LegacyParser.parseCommand(command));
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String command : commands) {
+            blackhole.consume(Parser.parseCommand(command));
+        }
+    }
+}
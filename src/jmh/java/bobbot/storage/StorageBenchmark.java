@@ -0,0 +1,90 @@
+package bobbot.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bobbot.task.Task;
+import bobbot.task.TaskFixtures;
+import bobbot.tasklist.TaskList;
+
+/**
+ * Measures saving a whole task list and loading it back, for lists of several sizes, kinds
+ * of tasks and description lengths. Loading as a TaskList opens lists of at least 200,000
+ * tasks lazily, so for those it only reads the manifest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    private int taskCount;
+
+    @Param({TaskFixtures.TODOS, TaskFixtures.MIXED, TaskFixtures.DEADLINES})
+    private String mix;
+
+    @Param({"3", "12"})
+    private int descriptionWords;
+
+    private Path directory;
+    private ArrayList<Task> tasks;
+    private String savedFilePath;
+    private Storage savingStorage;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bobbot-storage-benchmark");
+        tasks = TaskFixtures.build(taskCount, mix, descriptionWords);
+        savedFilePath = directory.resolve("saved.txt").toString();
+        Storage saved = new Storage(savedFilePath);
+        saved.saveTasks(tasks);
+        saved.close();
+        savingStorage = new Storage(directory.resolve("saving.txt").toString());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        savingStorage.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Storage saveTasks() throws IOException {
+        savingStorage.saveTasks(tasks);
+        return savingStorage;
+    }
+
+    @Benchmark
+    public ArrayList<Task> loadTasks() {
+        return new Storage(savedFilePath).loadTasks();
+    }
+
+    @Benchmark
+    public TaskList loadTaskList() {
+        return new Storage(savedFilePath).loadTaskList();
+    }
+}
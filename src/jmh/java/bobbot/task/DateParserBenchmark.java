@@ -0,0 +1,140 @@
+package bobbot.task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link DateParser} with the formatter-and-exception parsing that deadlines and
+ * events used before, for each kind of date a task file holds. The load benchmarks build
+ * deadlines and events the way loading a task file in the display format does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateParserBenchmark {
+    private static final int INPUT_COUNT = 1024;
+    private static final DateTimeFormatter DATE_INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DATE_DISPLAY_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    private static final DateTimeFormatter DATE_TIME_INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    private static final DateTimeFormatter DATE_TIME_DISPLAY_FORMAT =
+            DateTimeFormatter.ofPattern("dd MMM yyyy HHmm");
+    private static final String[] FREE_TEXT = {"Mon", "tomorrow", "next week", "Fri 5pm", "end of sem"};
+
+    @Param({"input", "display", "freeText"})
+    private String dateKind;
+
+    private String[] dates;
+    private String[] dateTimes;
+
+    @Setup
+    public void setUp() {
+        dates = new String[INPUT_COUNT];
+        dateTimes = new String[INPUT_COUNT];
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            LocalDateTime dateTime = start.plusDays(i).plusMinutes(i * 7L);
+            switch (dateKind) {
+            case "input":
+                dates[i] = dateTime.toLocalDate().format(DATE_INPUT_FORMAT);
+                dateTimes[i] = dateTime.format(DATE_TIME_INPUT_FORMAT);
+                break;
+            case "display":
+                dates[i] = dateTime.toLocalDate().format(DATE_DISPLAY_FORMAT);
+                dateTimes[i] = dateTime.format(DATE_TIME_DISPLAY_FORMAT);
+                break;
+            default:
+                dates[i] = FREE_TEXT[i % FREE_TEXT.length];
+                dateTimes[i] = FREE_TEXT[(i + 1) % FREE_TEXT.length];
+                break;
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseDateLegacy(Blackhole blackhole) {
+        for (String date : dates) {
+            blackhole.consume(legacyParseDate(date));
+        }
+    }
+
+    @Benchmark
+    public void parseDate(Blackhole blackhole) {
+        for (String date : dates) {
+            blackhole.consume(DateParser.parseDate(date));
+        }
+    }
+
+    @Benchmark
+    public void parseDateTimeLegacy(Blackhole blackhole) {
+        for (String dateTime : dateTimes) {
+            blackhole.consume(legacyParseDateTime(dateTime));
+        }
+    }
+
+    @Benchmark
+    public void parseDateTime(Blackhole blackhole) {
+        for (String dateTime : dateTimes) {
+            blackhole.consume(DateParser.parseDateTime(dateTime));
+        }
+    }
+
+    @Benchmark
+    public void loadTasksLegacy(Blackhole blackhole) {
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            blackhole.consume(new Deadline("submit report", legacyParseDate(dates[i]), dates[i]));
+            blackhole.consume(new Event("project meeting", legacyParseDateTime(dateTimes[i]), dateTimes[i],
+                    legacyParseDateTime(dateTimes[i]), dateTimes[i]));
+        }
+    }
+
+    @Benchmark
+    public void loadTasks(Blackhole blackhole) {
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            blackhole.consume(new Deadline("submit report", dates[i]));
+            blackhole.consume(new Event("project meeting", dateTimes[i], dateTimes[i]));
+        }
+    }
+
+    private static LocalDate legacyParseDate(String date) {
+        try {
+            return LocalDate.parse(date, DATE_INPUT_FORMAT);
+        } catch (DateTimeParseException e1) {
+            try {
+                return LocalDate.parse(date, DATE_DISPLAY_FORMAT);
+            } catch (DateTimeParseException e2) {
+                return null;
+            }
+        }
+    }
+
+    private static LocalDateTime legacyParseDateTime(String dateTime) {
+        try {
+            return LocalDateTime.parse(dateTime, DATE_TIME_INPUT_FORMAT);
+        } catch (DateTimeParseException e1) {
+            try {
+                return LocalDateTime.parse(dateTime, DATE_TIME_DISPLAY_FORMAT);
+            } catch (DateTimeParseException e2) {
+                return null;
+            }
+        }
+    }
+}
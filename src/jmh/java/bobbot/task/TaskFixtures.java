@@ -0,0 +1,72 @@
+package bobbot.task;
+
+import java.util.ArrayList;
+
+/**
+ * Builds task lists for the benchmarks, the same for every run of the same parameters.
+ *
+ * <p>Descriptions are made of words from a small vocabulary, so that keywords match a share
+ * of the tasks that does not depend on the list size, and end with a word of their own, so
+ * that no two descriptions are equal. Deadlines and events have dates in the input format.
+ */
+public final class TaskFixtures {
+    /** Every task is a todo. */
+    public static final String TODOS = "todos";
+    /** Todos, deadlines and events in turn. */
+    public static final String MIXED = "mixed";
+    /** Every task is a deadline. */
+    public static final String DEADLINES = "deadlines";
+
+    private static final String[] WORDS = {
+        "read", "book", "return", "pay", "rent", "project", "meeting", "buy", "groceries", "call",
+        "mom", "submit", "report", "clean", "room", "water", "plants", "review", "notes", "gym",
+        "email", "team", "fix", "bike", "plan", "trip", "cook", "dinner", "study", "exam",
+        "write", "essay",
+    };
+
+    private TaskFixtures() {
+    }
+
+    /**
+     * Builds a list of tasks.
+     *
+     * @param count the number of tasks
+     * @param mix which kinds of tasks to build: {@link #TODOS}, {@link #MIXED} or {@link #DEADLINES}
+     * @param descriptionWords the number of vocabulary words in each description
+     * @return the new tasks, every tenth of which is done
+     */
+    public static ArrayList<Task> build(int count, String mix, int descriptionWords) {
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Task task = build(i, mix, descriptionOf(i, descriptionWords));
+            if (i % 10 == 0) {
+                task.markAsDone();
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static Task build(int i, String mix, String description) {
+        String day = String.format("2026-%02d-%02d", 1 + i % 12, 1 + i % 28);
+        int kind = mix.equals(TODOS) ? 0 : mix.equals(DEADLINES) ? 1 : i % 3;
+        switch (kind) {
+        case 0:
+            return new Todo(description);
+        case 1:
+            return new Deadline(description, day);
+        default:
+            return new Event(description, day + " 0900", day + " 1700");
+        }
+    }
+
+    private static String descriptionOf(int i, int wordCount) {
+        StringBuilder description = new StringBuilder();
+        int seed = i;
+        for (int w = 0; w < wordCount; w++) {
+            description.append(WORDS[Math.floorMod(seed, WORDS.length)]).append(' ');
+            seed = seed * 31 + 7;
+        }
+        return description.append("item").append(i).toString();
+    }
+}
@@ -0,0 +1,70 @@
+package bobbot.tasklist;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bobbot.task.Deadline;
+import bobbot.task.Task;
+import bobbot.task.Todo;
+
+/**
+ * Measures scans over a whole TaskList for several parallel scan thresholds, to pick the
+ * default of {@link ParallelScan#THRESHOLD_PROPERTY}. A threshold above the list size keeps
+ * the scan on one thread, which is the baseline for the others.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelScanBenchmark {
+    private static final String[] WORDS = {"read", "book", "return", "pay", "rent", "project", "meeting", "buy"};
+
+    @Param({"100000", "1000000"})
+    private int taskCount;
+
+    @Param({"2147483647", "200000", "50000", "10000"})
+    private int threshold;
+
+    private TaskList tasks;
+
+    @Setup
+    public void setUp() {
+        System.setProperty(ParallelScan.THRESHOLD_PROPERTY, Integer.toString(threshold));
+        ArrayList<Task> list = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            String description = WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i;
+            list.add(i % 3 == 0 ? new Deadline(description, "2026-03-" + (10 + i % 19)) : new Todo(description));
+        }
+        tasks = new TaskList(list);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.clearProperty(ParallelScan.THRESHOLD_PROPERTY);
+    }
+
+    @Benchmark
+    public int[] scanDescriptions() {
+        return tasks.filterTasks(i -> tasks.descriptionContains(i, "rent meeting"));
+    }
+
+    @Benchmark
+    public String formatList() {
+        return tasks.joinTasks(tasks.size(), i -> String.format("%d. %s\n", i + 1, tasks.get(i)));
+    }
+}
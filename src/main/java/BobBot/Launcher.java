@@ -1,13 +1,24 @@
 package bobbot;
 
+import java.util.Arrays;
+
 import bobbot.gui.Main;
+import bobbot.server.BobBotServer;
 import javafx.application.Application;
 
 /**
  * A launcher class to workaround classpath issues.
+ * Starts the GUI, or a headless {@link BobBotServer} when the first argument is --server,
+ * optionally followed by the port to listen on.
  */
 public class Launcher {
+    private static final String SERVER_FLAG = "--server";
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(SERVER_FLAG)) {
+            BobBotServer.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         Application.launch(Main.class, args);
     }
 }
@@ -0,0 +1,54 @@
+package bobbot.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of running a batch of commands with {@link BobBot#runBatch}.
+ */
+public class BatchResult {
+    private final List<String> failures = new ArrayList<>();
+    private int succeededCount;
+    private boolean isRolledBack;
+
+    /**
+     * Gets the number of commands that ran without an error.
+     * If the batch was rolled back, their changes were undone.
+     *
+     * @return the number of successful commands
+     */
+    public int getSucceededCount() {
+        return succeededCount;
+    }
+
+    /**
+     * Gets the commands that failed, each as its line number followed by the error message.
+     *
+     * @return the failures, in the order they happened
+     */
+    public List<String> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * Checks whether every change made by the batch was undone because a command failed.
+     *
+     * @return true if the batch left the task list as it was
+     */
+    public boolean isRolledBack() {
+        return isRolledBack;
+    }
+
+    void addSuccess() {
+        succeededCount++;
+    }
+
+    void addFailure(int lineNumber, String message) {
+        failures.add("line " + lineNumber + ": " + message);
+    }
+
+    void markRolledBack() {
+        isRolledBack = true;
+    }
+}
@@ -1,12 +1,28 @@
 package bobbot.core;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 import bobbot.command.CommandHandler;
 import bobbot.exception.BobException;
+import bobbot.metrics.BobBotMetrics;
 import bobbot.parser.Parser;
 import bobbot.storage.Storage;
+import bobbot.task.DateParser;
 import bobbot.task.Deadline;
 import bobbot.task.Event;
 import bobbot.task.Task;
@@ -14,11 +30,33 @@ import bobbot.task.Todo;
 import bobbot.tasklist.TaskList;
 import bobbot.ui.Ui;
 import bobbot.undo.Undo;
+import bobbot.undo.UndoHistory;
 /**
  * Main controller class for BobBot that handles both CLI and GUI interactions.
  * Coordinates between the parser, storage, task list, and user interface components.
+ *
+ * <p>A BobBot may be used from several threads at once. Commands that only read the task list,
+ * such as list and find, run side by side under the read half of a read-write lock, while
+ * commands that change it take the write half and so run one at a time, never alongside a read.
+ * Each change is followed by {@link TaskList#prepareForConcurrentReads()}, so the readers share
+ * the task list and its indexes as they are rather than copies. {@link #getVersion()} counts
+ * the changes, so callers can tell whether what they read earlier is still current. Where
+ * 'list next' continues is kept per caller, in the {@link Session} it passes in.
+ *
+ * <p>Every command is timed, and together with what its storage does, recorded in the
+ * {@link BobBotMetrics} returned by {@link #getMetrics()}, which can be watched over JMX.
  */
 public class BobBot {
+    /**
+     * What a batch of commands does when one of its commands fails.
+     */
+    public enum BatchPolicy {
+        /** Stop at the failed command and undo every change the batch made. */
+        ALL_OR_NOTHING,
+        /** Skip the failed command and keep going, keeping the changes of the others. */
+        CONTINUE_ON_ERROR
+    }
+
     private static final String WELCOME_MESSAGE = "Hello! I'm BobBot\nWhat can I do for you bobz?";
     private static final String GOODBYE_MESSAGE = "Bye bobz. Hope to see you again soon bobz!";
     private static final String INVALID_COMMAND_MESSAGE = 
@@ -26,27 +64,87 @@ public class BobBot {
     private static final String GENERIC_ERROR_MESSAGE = 
         "BOBZ!!!Something went wrong, please check your command format bobz.";
     private static final String NO_UNDO_MESSAGE = "BOBZ!!! There's nothing to undo bobz.";
+    private static final String NO_REDO_MESSAGE = "BOBZ!!! There's nothing to redo bobz.";
+    private static final String UNDO_DEPTH_PROPERTY = "bobbot.undoDepth";
+    private static final String UNDO_MEMORY_PROPERTY = "bobbot.undoMemoryBytes";
+    private static final int DEFAULT_UNDO_DEPTH = 1000;
+    private static final long DEFAULT_UNDO_MEMORY_BYTES = 16L << 20;
+    private static final int SHORT_KEYWORD_LENGTH = 4;
+    private static final int MAX_FUZZY_DISTANCE = 3;
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int LIST_PAGE_SIZE = 100;
+    private static final int MAX_LIST_LIMIT = 1000;
+    private static final String LIST_USAGE_MESSAGE = "BOBZ!!! Use 'list', 'list <page>', 'list next' "
+            + "or 'list --from <number> --limit <count>' bobz.";
+    private static final String DUE_USAGE_MESSAGE = "BOBZ!!! Use 'due today', 'due week', 'due <date>' "
+            + "or 'due <from> <to>' with dates like 2026-03-20 bobz.";
+    private static final String RUN_USAGE_MESSAGE = "BOBZ!!! Use 'run <file>' or 'run --continue <file>' bobz.";
+    private static final String CONTINUE_OPTION = "--continue";
+    private static final String SCRIPT_COMMENT_PREFIX = "#";
+    private static final int MAX_REPORTED_FAILURES = 10;
+    private static final int MAX_SHOWN_CHANGED_TASKS = 10;
+    private static final String DONE_TASKS = "done";
+    private static final String INDEX_LIST_SEPARATOR = ",";
+    private static final String INDEX_RANGE_SEPARATOR = "-";
+    private static final Set<Parser.CommandType> READ_ONLY_COMMANDS = EnumSet.of(Parser.CommandType.LIST,
+            Parser.CommandType.FIND, Parser.CommandType.FUZZY_FIND, Parser.CommandType.DUE,
+            Parser.CommandType.OVERDUE);
 
     private final Storage storage;
     private final TaskList tasks;
     private final Ui ui;
-    private Undo lastAction;
+    private final ReentrantReadWriteLock changeLock = new ReentrantReadWriteLock();
+    private final BobBotMetrics metrics;
+    private final boolean isPublishingMetrics;
+    private UndoHistory history;
+    private List<Undo> batchChanges;
+    private final Session defaultSession = new Session();
+    private volatile long version; // Only written with the write lock held
+    private volatile long structureVersion; // Counts deletes and inserts, only written with the write lock held
+    private int reportedTaskCount; // The task count last added to the metrics
+    private boolean isFlushPending; // Whether a change waits for the disk, only used with the write lock held
 
     private final Map<Parser.CommandType, CommandHandler> commandHandlers;
 
     /**
      * Constructs a new BobBot instance with the specified file path for data persistence.
      *
+     * Its metrics are published over JMX under the file path until it is closed.
+     *
      * @param filePath the file path where task data will be stored and loaded from
      */
     public BobBot(String filePath) {
+        this(filePath, new BobBotMetrics(), true);
+    }
+
+    /**
+     * Constructs a new BobBot instance that records what it does in the given metrics, which
+     * may be shared with other BobBots, and leaves publishing them to the caller.
+     *
+     * @param filePath the file path where task data will be stored and loaded from
+     * @param metrics the metrics to record the commands and their storage in
+     */
+    public BobBot(String filePath, BobBotMetrics metrics) {
+        this(filePath, metrics, false);
+    }
+
+    private BobBot(String filePath, BobBotMetrics metrics, boolean isPublishingMetrics) {
         assert filePath != null : "File path cannot be null bobz";
+        assert metrics != null;
 
         ui = new Ui();
-        storage = new Storage(filePath);
-        tasks = new TaskList(storage.loadTasks());
-        lastAction = null;
+        this.metrics = metrics;
+        this.isPublishingMetrics = isPublishingMetrics;
+        storage = new Storage(filePath, metrics);
+        tasks = storage.loadTaskList();
+        history = new UndoHistory(Math.max(1, Integer.getInteger(UNDO_DEPTH_PROPERTY, DEFAULT_UNDO_DEPTH)),
+                Long.getLong(UNDO_MEMORY_PROPERTY, DEFAULT_UNDO_MEMORY_BYTES));
         commandHandlers = initializeCommandHandlers();
+        tasks.prepareForConcurrentReads();
+        reportTaskCount();
+        if (isPublishingMetrics) {
+            metrics.publish("BobBot", filePath);
+        }
     }
 
     /**
@@ -57,7 +155,6 @@ public class BobBot {
     private Map<Parser.CommandType, CommandHandler> initializeCommandHandlers() {
         Map<Parser.CommandType, CommandHandler> handlers = new HashMap<>();
         
-        handlers.put(Parser.CommandType.LIST, args -> formatTaskList());
         handlers.put(Parser.CommandType.MARK, this::handleMarkCommand);
         handlers.put(Parser.CommandType.UNMARK, this::handleUnmarkCommand);
         handlers.put(Parser.CommandType.TODO, this::handleTodoCommand);
@@ -65,35 +162,160 @@ public class BobBot {
         handlers.put(Parser.CommandType.EVENT, this::handleEventCommand);
         handlers.put(Parser.CommandType.DELETE, this::handleDeleteCommand);
         handlers.put(Parser.CommandType.FIND, this::handleFindCommand);
+        handlers.put(Parser.CommandType.FUZZY_FIND, this::handleFuzzyFindCommand);
+        handlers.put(Parser.CommandType.DUE, this::handleDueCommand);
+        handlers.put(Parser.CommandType.OVERDUE, this::handleOverdueCommand);
         handlers.put(Parser.CommandType.UNDO, this::handleUndoCommand);
+        handlers.put(Parser.CommandType.REDO, this::handleRedoCommand);
+        handlers.put(Parser.CommandType.RUN, this::handleRunCommand);
         
         return handlers;
     }
 
     /**
-     * Generates a response for the given user input (used by GUI).
+     * Generates a response for the given user input (used by GUI), in a session shared by every
+     * caller of this method. May be called from several threads at once, but callers that page
+     * through the list at the same time should use {@link #getResponse(String, Session)}.
      *
      * @param userInput the user input string to process
      * @return the bot's response as a string
      */
     public String getResponse(String userInput) {
+        return getResponse(userInput, defaultSession);
+    }
+
+    /**
+     * Generates a response for the given user input of a caller with its own session, such as
+     * a connection to the server. May be called from several threads at once.
+     *
+     * @param userInput the user input string to process
+     * @param session where the caller is in the list, used and updated by 'list' and 'list next'
+     * @return the bot's response as a string
+     */
+    public String getResponse(String userInput, Session session) {
+        assert session != null;
+
         try {
             Parser.Command command = Parser.parseCommand(userInput);
             assert command != null : "Parser should never return null command bobz";
 
-            String response = handleCommand(command);
-            assert response != null : "Response should never be null bobz";
+            if (READ_ONLY_COMMANDS.contains(command.getType())) {
+                return read(command, session);
+            }
+            return change(command, session);
+        } catch (Exception exception) {
+            return errorMessageOf(exception);
+        }
+    }
 
-            return response;
+    /**
+     * Gets the version of the task list, which goes up with every change to it, including
+     * undos, redos and batches that were rolled back.
+     *
+     * @return the number of changes made to the task list since this BobBot was created
+     */
+    public long getVersion() {
+        return version;
+    }
 
-        } catch (BobException exception) {
-            return exception.getMessage();
-            
-        } catch (Exception exception) {
-            return GENERIC_ERROR_MESSAGE;
+    /**
+     * Gets the metrics this BobBot records its commands and storage in.
+     *
+     * @return the metrics
+     */
+    public BobBotMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Estimates how many bytes of heap this BobBot keeps alive, for callers that budget memory
+     * across many BobBots, such as {@link BobBotRegistry}.
+     *
+     * @return the estimated size of the task list and the undo history in bytes
+     */
+    public long estimateBytes() {
+        Lock readLock = changeLock.readLock();
+        readLock.lock();
+        try {
+            return tasks.estimateBytes() + history.estimateBytes();
+        } finally {
+            readLock.unlock();
         }
     }
 
+    /**
+     * Runs a sequence of commands as one unit, as if each was given to {@link #getResponse(String)}.
+     * Blank lines and lines starting with '#' are skipped. The changes made by the commands are
+     * written to storage once, after the last command. If a command fails, the policy decides
+     * whether the batch stops and undoes all its changes, so that nothing is written, or skips
+     * the command and keeps going.
+     *
+     * @param commands the commands to run, one per line
+     * @param policy what to do when a command fails
+     * @param responses receives the response to each command as soon as it has run
+     * @return the number of successful commands and the failures
+     */
+    public BatchResult runBatch(List<String> commands, BatchPolicy policy, Consumer<String> responses) {
+        Lock writeLock = changeLock.writeLock();
+        writeLock.lock();
+        boolean isFlushNeeded = false;
+        try {
+            return runBatchLocked(commands, policy, responses, new Session());
+        } finally {
+            tasks.prepareForConcurrentReads();
+            reportTaskCount();
+            isFlushNeeded = takePendingFlush();
+            writeLock.unlock();
+            if (isFlushNeeded) {
+                flushStorage();
+            }
+        }
+    }
+
+    /**
+     * Runs a batch of commands with the write lock held, see {@link #runBatch(List, BatchPolicy, Consumer)}.
+     * The commands page through the list in a session of their own.
+     */
+    private BatchResult runBatchLocked(List<String> commands, BatchPolicy policy, Consumer<String> responses,
+            Session session) {
+        assert batchChanges == null : "Batches cannot be nested bobz";
+
+        UndoHistory historyBefore = new UndoHistory(history);
+        BatchResult result = new BatchResult();
+        batchChanges = new ArrayList<>();
+        storage.beginBatch();
+        boolean isFinished = false;
+        try {
+            for (int i = 0; i < commands.size(); i++) {
+                String command = commands.get(i).trim();
+                if (command.isEmpty() || command.startsWith(SCRIPT_COMMENT_PREFIX)) {
+                    continue;
+                }
+                String response;
+                try {
+                    response = execute(command, session);
+                    result.addSuccess();
+                } catch (Exception exception) {
+                    response = errorMessageOf(exception);
+                    result.addFailure(i + 1, response);
+                }
+                responses.accept(response);
+                if (!result.getFailures().isEmpty() && policy == BatchPolicy.ALL_OR_NOTHING) {
+                    break;
+                }
+            }
+            isFinished = true;
+        } finally {
+            if (isFinished && (result.getFailures().isEmpty() || policy == BatchPolicy.CONTINUE_ON_ERROR)) {
+                commitBatch();
+            } else {
+                rollBackBatch(historyBefore);
+                result.markRolledBack();
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns the welcome message for new users.
      *
@@ -104,89 +326,283 @@ public class BobBot {
     }
 
     /**
-     * Processes a parsed command and returns the appropriate response.
+     * Returns the message given for input that is not a command.
+     *
+     * @return the invalid command message string
+     */
+    public String getInvalidCommandMessage() {
+        return INVALID_COMMAND_MESSAGE;
+    }
+
+    /**
+     * Runs a command that only reads the task list, alongside any other such commands.
+     *
+     * @param command the parsed command, one of {@link #READ_ONLY_COMMANDS}
+     * @param session the session of the caller
+     * @return the response string for the command
+     * @throws Exception if the command is invalid or fails
+     */
+    private String read(Parser.Command command, Session session) throws Exception {
+        Lock readLock = changeLock.readLock();
+        readLock.lock();
+        try {
+            return handleCommand(command, session);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a command that may change the task list, after every other command has finished
+     * and before any new one starts. Leaves the task list ready to be read concurrently again.
+     *
+     * @param command the parsed command
+     * @param session the session of the caller
+     * @return the response string for the command
+     * @throws Exception if the command is invalid or fails
+     */
+    private String change(Parser.Command command, Session session) throws Exception {
+        Lock writeLock = changeLock.writeLock();
+        writeLock.lock();
+        boolean isFlushNeeded = false;
+        try {
+            return handleCommand(command, session);
+        } finally {
+            tasks.prepareForConcurrentReads();
+            reportTaskCount();
+            isFlushNeeded = takePendingFlush();
+            writeLock.unlock();
+            if (isFlushNeeded) {
+                flushStorage();
+            }
+        }
+    }
+
+    /**
+     * Parses and processes one line of user input, with the write lock already held.
+     *
+     * @param userInput the user input string to process
+     * @param session the session of the batch
+     * @return the response string for the command
+     * @throws Exception if the command is invalid or fails
+     */
+    private String execute(String userInput, Session session) throws Exception {
+        Parser.Command command = Parser.parseCommand(userInput);
+        assert command != null : "Parser should never return null command bobz";
+
+        return handleCommand(command, session);
+    }
+
+    /**
+     * Returns the message to show for a command that failed with the given exception.
+     */
+    private static String errorMessageOf(Exception exception) {
+        return exception instanceof BobException ? exception.getMessage() : GENERIC_ERROR_MESSAGE;
+    }
+
+    /**
+     * Processes a parsed command and returns the appropriate response, recording how long it
+     * took and whether it failed in the metrics. The time spent waiting for the lock is not
+     * included.
      *
      * @param command the parsed command to process
+     * @param session the session of the caller
      * @return the response string for the command
      * @throws Exception if there's an error processing the command
      */
-    private String handleCommand(Parser.Command command) throws Exception {
+    private String handleCommand(Parser.Command command, Session session) throws Exception {
+        long start = System.nanoTime();
+        boolean isFailed = true;
+        try {
+            String response = dispatchCommand(command, session);
+            isFailed = false;
+            return response;
+        } finally {
+            metrics.recordCommand(command.getType(), System.nanoTime() - start, isFailed);
+        }
+    }
+
+    /**
+     * Runs the handler of a parsed command, see {@link #handleCommand(Parser.Command, Session)}.
+     */
+    private String dispatchCommand(Parser.Command command, Session session) throws Exception {
         switch (command.getType()) {
+        case LIST:
+            return handleListCommand(command.getArguments(), session);
         case BYE:
+            isFlushPending = true;
             return GOODBYE_MESSAGE;
         case INVALID:
-            return INVALID_COMMAND_MESSAGE;
+            throw new BobException(INVALID_COMMAND_MESSAGE);
         default:
             CommandHandler handler = commandHandlers.get(command.getType());
-            if (handler != null) {
-                return handler.handle(command.getArguments());
+            if (handler == null) {
+                throw new BobException(GENERIC_ERROR_MESSAGE);
+            }
+            String response = handler.handle(command.getArguments());
+            assert response != null : "Response should never be null bobz";
+
+            return response;
+        }
+    }
+
+    /**
+     * Processes the list command to show one page of the task list.
+     * Only the tasks on the page are formatted, so the cost does not depend on the list size.
+     *
+     * @param arguments command arguments, either empty, a page number, "next" for the page
+     *     after the last one shown to the caller, or "--from" and "--limit" options
+     * @param session the session of the caller, which remembers where the next page starts
+     * @return formatted page of tasks
+     * @throws BobException if the page is not understood or past the end of the list
+     */
+    private String handleListCommand(String[] arguments, Session session) throws BobException {
+        String page = arguments.length == 0 ? "" : arguments[0];
+        if (page.isEmpty()) {
+            return formatTaskList(0, LIST_PAGE_SIZE, session);
+        }
+        if (page.equals("next")) {
+            int from = session.getNextListIndex(this, structureVersion);
+            if (from <= 0 || from >= tasks.size()) {
+                return "There are no more items to list bobz.";
+            }
+            return formatTaskList(from, LIST_PAGE_SIZE, session);
+        }
+        if (page.startsWith("--")) {
+            return handleListRange(page.split("\\s+"), session);
+        }
+
+        try {
+            int pageNumber = Integer.parseInt(page);
+            if (pageNumber < 1) {
+                throw new BobException(LIST_USAGE_MESSAGE);
+            }
+            return formatTaskList((int) Math.min(Integer.MAX_VALUE, (pageNumber - 1L) * LIST_PAGE_SIZE), LIST_PAGE_SIZE,
+                    session);
+        } catch (NumberFormatException e) {
+            throw new BobException(LIST_USAGE_MESSAGE);
+        }
+    }
+
+    private String handleListRange(String[] options, Session session) throws BobException {
+        int from = 0;
+        int limit = LIST_PAGE_SIZE;
+        if (options.length % 2 != 0) {
+            throw new BobException(LIST_USAGE_MESSAGE);
+        }
+        try {
+            for (int i = 0; i < options.length; i += 2) {
+                int value = Integer.parseInt(options[i + 1]);
+                if (options[i].equals("--from") && value >= 1) {
+                    from = value - 1;
+                } else if (options[i].equals("--limit") && value >= 1) {
+                    limit = Math.min(value, MAX_LIST_LIMIT);
+                } else {
+                    throw new BobException(LIST_USAGE_MESSAGE);
+                }
             }
-            return GENERIC_ERROR_MESSAGE;
+        } catch (NumberFormatException e) {
+            throw new BobException(LIST_USAGE_MESSAGE);
         }
+        return formatTaskList(from, limit, session);
     }
 
     /**
-     * Formats the task list for display.
+     * Formats a page of the task list for display, numbering tasks by their place in the whole list.
+     * If the page does not show the whole list, says which part it shows. Remembers where the
+     * next page starts in the caller's session.
      *
-     * @return formatted string representation of all tasks
+     * @param from the 0-based index of the first task on the page
+     * @param limit the most tasks to show
+     * @param session the session of the caller
+     * @return formatted string representation of the page
+     * @throws BobException if the page starts past the end of the list
      */
-    private String formatTaskList() {
+    private String formatTaskList(int from, int limit, Session session) throws BobException {
         assert tasks != null;
         if (tasks.isEmpty()) {
             return "No items in the list bobz.";
         }
-        
-        StringBuilder taskListBuilder = new StringBuilder("Here are the items in your list bobz:\n");
-        for (int i = 0; i < tasks.size(); i++) {
-            taskListBuilder.append(String.format("%d. %s\n", i + 1, tasks.get(i)));
+        if (from >= tasks.size()) {
+            throw new BobException("BOBZ!!! There are only " + tasks.size() + " items in the list bobz.");
+        }
+
+        int to = (int) Math.min(tasks.size(), (long) from + limit);
+        String taskLines = tasks.joinTasks(to - from,
+                i -> String.format("%d. %s\n", from + i + 1, tasks.get(from + i)));
+        StringBuilder pageBuilder = new StringBuilder("Here are the items in your list bobz:\n").append(taskLines);
+        if (from > 0 || to < tasks.size()) {
+            pageBuilder.append(String.format("Showing items %d to %d of %d bobz.", from + 1, to, tasks.size()));
+        }
+        if (to < tasks.size()) {
+            pageBuilder.append(" Type 'list next' for more bobz.");
         }
-        return taskListBuilder.toString().trim();
+        session.setNextListIndex(this, structureVersion, to);
+        return pageBuilder.toString().trim();
     }
 
     /**
-     * Processes the mark command to mark a task as completed.
+     * Processes the mark command to mark a task, or several tasks at once, as completed.
      *
-     * @param arguments command arguments containing the task index
+     * @param arguments command arguments containing the task index, a range such as 10-20,
+     *     a list such as 1,4,7, or "done"
      * @return confirmation message
-     * @throws Exception if the task index is invalid
+     * @throws Exception if a task index is invalid
      */
     private String handleMarkCommand(String[] arguments) throws Exception {
         assert arguments.length > 0;
 
+        if (isTaskSelection(arguments[0])) {
+            int[] indices = parseTaskSelection(arguments[0]);
+            recordIfChanged(markTasks(indices, true));
+            return String.format("Nice bobz! I've marked these %d tasks as done bobz:\n%s",
+                    indices.length, formatChangedTasks(tasksAt(indices), indices.length));
+        }
+
         int taskIndex = parseTaskIndex(arguments[0]);
         assert taskIndex >= 0;
 
-        Task task = tasks.getTask(taskIndex);
-        assert task != null;
-
-        lastAction = new Undo(Undo.ActionType.MARK_TASK, task);
-
-        task.markAsDone();
-        saveTasksToStorage();
+        recordIfChanged(markTasks(new int[] {taskIndex}, true));
+        Task task = tasks.get(taskIndex);
         return String.format("Nice bobz! I've marked this task as done bobz:\n  %s", task);
     }
 
     /**
-     * Processes the unmark command to mark a task as not completed.
+     * Processes the unmark command to mark a task, or several tasks at once, as not completed.
      *
-     * @param arguments command arguments containing the task index
+     * @param arguments command arguments containing the task index, a range such as 10-20,
+     *     a list such as 1,4,7, or "done"
      * @return confirmation message
-     * @throws Exception if the task index is invalid
+     * @throws Exception if a task index is invalid
      */
     private String handleUnmarkCommand(String[] arguments) throws Exception {
         assert arguments.length > 0;
 
-        int taskIndex = parseTaskIndex(arguments[0]);
-        Task task = tasks.getTask(taskIndex);
-        assert task != null;
-
-        lastAction = new Undo(Undo.ActionType.UNMARK_TASK, task);
+        if (isTaskSelection(arguments[0])) {
+            int[] indices = parseTaskSelection(arguments[0]);
+            recordIfChanged(markTasks(indices, false));
+            return String.format("OK bobz, I've marked these %d tasks as not done yet bobz:\n%s",
+                    indices.length, formatChangedTasks(tasksAt(indices), indices.length));
+        }
 
-        task.markAsNotDone();
-        saveTasksToStorage();
+        int taskIndex = parseTaskIndex(arguments[0]);
+        recordIfChanged(markTasks(new int[] {taskIndex}, false));
+        Task task = tasks.get(taskIndex);
         return String.format("OK bobz, I've marked this task as not done yet bobz:\n  %s", task);
     }
 
+    /**
+     * Remembers a change so that it can be undone, unless it changed nothing, so that 'undo'
+     * never seems to do nothing.
+     *
+     * @param change how to undo the change
+     */
+    private void recordIfChanged(Undo change) {
+        if (change.size() > 0) {
+            history.record(change);
+        }
+    }
+
     /**
      * Processes the todo command to create a new todo task.
      *
@@ -203,13 +619,9 @@ public class BobBot {
         }
         
         Task newTask = new Todo(description);
-        tasks.addTask(newTask);
+        history.record(addTask(newTask));
         assert tasks.size() > 0;
 
-        lastAction = new Undo(Undo.ActionType.ADD_TASK, newTask);
-
-        saveTasksToStorage();
-        
         return String.format("Got it bobz. I've added this task:\n  %s\nNow you have %d tasks in the list bobz.",
                 newTask, tasks.size());
     }
@@ -218,22 +630,19 @@ public class BobBot {
      * Processes the deadline command to create a new deadline task.
      *
      * @param arguments command arguments containing description and deadline
-     * @return confirmation message or error message
+     * @return confirmation message
+     * @throws BobException if the deadline is missing
      */
-    private String handleDeadlineCommand(String[] arguments) {
+    private String handleDeadlineCommand(String[] arguments) throws BobException {
         assert arguments.length > 0;
 
         if (arguments.length != 2) {
-            return "BOBZ!!! Invalid format for deadline bobz. Try: deadline <desc> /by <time>";
+            throw new BobException("BOBZ!!! Invalid format for deadline bobz. Try: deadline <desc> /by <time>");
         }
         
         Task newTask = new Deadline(arguments[0].trim(), arguments[1].trim());
-        tasks.addTask(newTask);
-
-        lastAction = new Undo(Undo.ActionType.ADD_TASK, newTask);
+        history.record(addTask(newTask));
 
-        saveTasksToStorage();
-        
         return String.format("Got it bobz. I've added this task:\n  %s\nNow you have %d tasks in the list bobz.",
                 newTask, tasks.size());
     }
@@ -242,47 +651,49 @@ public class BobBot {
      * Processes the event command to create a new event task.
      *
      * @param arguments command arguments containing description, start time, and end time
-     * @return confirmation message or error message
+     * @return confirmation message
+     * @throws BobException if the start or end time is missing
      */
-    private String handleEventCommand(String[] arguments) {
+    private String handleEventCommand(String[] arguments) throws BobException {
         assert arguments.length > 0;
 
         if (arguments.length != 3) {
-            return "BOBZ!!! Invalid format for event bobz. Try: event <desc> /from <start> /to <end>";
+            throw new BobException("BOBZ!!! Invalid format for event bobz. Try: event <desc> /from <start> /to <end>");
         }
         
         Task newTask = new Event(arguments[0].trim(), arguments[1].trim(), arguments[2].trim());
-        tasks.addTask(newTask);
-
-        lastAction = new Undo(Undo.ActionType.ADD_TASK, newTask);
+        history.record(addTask(newTask));
 
-        saveTasksToStorage();
-        
         return String.format("Got it bobz. I've added this task:\n  %s\nNow you have %d tasks in the list bobz.",
                 newTask, tasks.size());
     }
 
     /**
-     * Processes the delete command to remove a task.
+     * Processes the delete command to remove a task, or several tasks at once.
+     * Several tasks are removed in one pass over the list and undone together.
      *
-     * @param arguments command arguments containing the task index
+     * @param arguments command arguments containing the task index, a range such as 3-900,
+     *     a list such as 1,4,7, or "done"
      * @return confirmation message
-     * @throws Exception if the task index is invalid
+     * @throws Exception if a task index is invalid
      */
     private String handleDeleteCommand(String[] arguments) throws Exception {
         assert arguments.length > 0;
 
-        int taskIndex = parseTaskIndex(arguments[0]);
-        Task taskToDelete = tasks.getTask(taskIndex);
-        assert taskToDelete != null;
-
-        lastAction = new Undo(Undo.ActionType.DELETE_TASK, taskToDelete, taskIndex);
+        if (isTaskSelection(arguments[0])) {
+            int[] indices = parseTaskSelection(arguments[0]);
+            Undo change = deleteTasks(indices);
+            history.record(change);
+            return String.format("Noted bobz. I've removed these %d tasks bobz:\n%s\nNow you have %d tasks in the list bobz.",
+                    indices.length, formatChangedTasks(change.getTasks(), indices.length), tasks.size());
+        }
 
-        Task removedTask = tasks.deleteTask(taskIndex);
+        int taskIndex = parseTaskIndex(arguments[0]);
+        Undo change = deleteTasks(new int[] {taskIndex});
+        history.record(change);
+        Task removedTask = change.getTasks().get(0);
         assert removedTask != null;
 
-        saveTasksToStorage();
-        
         return String.format("Noted bobz. I've removed this task bobz:\n  %s\nNow you have %d tasks in the list bobz.",
                 removedTask, tasks.size());
     }
@@ -304,100 +715,407 @@ public class BobBot {
         String keyword = arguments[0].toLowerCase();
         assert !keyword.isEmpty();
 
-        TaskList matchingTasks = findTasksContainingKeyword(keyword);
-        assert matchingTasks != null;
+        int[] matchingIndices = findTasksContainingKeyword(keyword);
+        assert matchingIndices != null;
 
-        if (matchingTasks.isEmpty()) {
+        if (matchingIndices.length == 0) {
             return "No matching tasks found bobz.";
         }
-        
-        StringBuilder resultBuilder = new StringBuilder("Here are the matching tasks in your list bobz:\n");
-        for (int i = 0; i < matchingTasks.size(); i++) {
-            resultBuilder.append(String.format("%d. %s\n", i + 1, matchingTasks.get(i)));
+        return formatTasksAt("Here are the matching tasks in your list bobz:", matchingIndices);
+    }
+
+    /**
+     * Processes the find~ command to search for tasks with a word close to a keyword.
+     * Up to one typo is allowed in keywords of at most four characters and up to two in
+     * longer ones, unless a distance is given. The closest matches are listed first.
+     *
+     * @param arguments command arguments containing the search keyword and optionally the distance
+     * @return formatted list of matching tasks
+     * @throws BobException if no keyword is provided or the distance is invalid
+     */
+    private String handleFuzzyFindCommand(String[] arguments) throws BobException {
+        if (arguments.length == 0 || arguments[0].isEmpty()) {
+            throw new BobException("BOBZ!!! The search keyword cannot be empty bobz.");
+        }
+
+        String keyword = arguments[0].toLowerCase();
+        if (keyword.chars().anyMatch(Character::isWhitespace)) {
+            throw new BobException("BOBZ!!! find~ only looks for one word at a time bobz.");
+        }
+        int maxDistance = keyword.length() <= SHORT_KEYWORD_LENGTH ? 1 : 2;
+        if (arguments.length > 1) {
+            maxDistance = parseFuzzyDistance(arguments[1]);
+        }
+
+        int[] indices = tasks.findSimilarTasks(keyword, maxDistance);
+        if (indices.length == 0) {
+            return "No matching tasks found bobz.";
+        }
+        return formatTasksAt("Here are the closest matching tasks in your list bobz:", indices);
+    }
+
+    private int parseFuzzyDistance(String distanceString) throws BobException {
+        try {
+            int distance = Integer.parseInt(distanceString);
+            if (distance >= 0 && distance <= MAX_FUZZY_DISTANCE) {
+                return distance;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below together with out of range distances
+        }
+        throw new BobException("BOBZ!!! The typo distance after find~ must be from 0 to "
+                + MAX_FUZZY_DISTANCE + " bobz.");
+    }
+
+    /**
+     * Processes the due command to list the deadlines due in a range of days.
+     * The range is today, the week starting today, a single date, or two dates.
+     *
+     * @param arguments command arguments containing the range
+     * @return formatted list of the deadlines due, earliest first
+     * @throws BobException if the range is not understood
+     */
+    private String handleDueCommand(String[] arguments) throws BobException {
+        String range = arguments.length == 0 ? "" : arguments[0];
+        LocalDate today = LocalDate.now();
+        LocalDate from;
+        LocalDate to;
+        if (range.equals("today")) {
+            from = today;
+            to = today;
+        } else if (range.equals("week")) {
+            from = today;
+            to = today.plusDays(DAYS_PER_WEEK - 1);
+        } else {
+            LocalDate[] days = parseDayRange(range);
+            from = days[0];
+            to = days[1];
+        }
+
+        int[] indices = tasks.findTasksDueBetween(from, to);
+        if (indices.length == 0) {
+            return "Nothing is due then bobz.";
+        }
+        return formatTasksAt("Here are the deadlines due then bobz:", indices);
+    }
+
+    /**
+     * Processes the overdue command to list the deadlines before today that are not done.
+     *
+     * @param arguments command arguments (not used for overdue)
+     * @return formatted list of the overdue deadlines, earliest first
+     */
+    private String handleOverdueCommand(String[] arguments) {
+        int[] dueIndices = tasks.findTasksDueBetween(LocalDate.MIN, LocalDate.now().minusDays(1));
+        int[] indices = new int[dueIndices.length];
+        int count = 0;
+        for (int index : dueIndices) {
+            if (!tasks.get(index).isDone()) {
+                indices[count++] = index;
+            }
+        }
+
+        if (count == 0) {
+            return "Nothing is overdue bobz. Nice one bobz!";
+        }
+        return formatTasksAt("These deadlines are overdue bobz:", Arrays.copyOf(indices, count));
+    }
+
+    /**
+     * Parses a single date, or two dates separated by a space, in any format deadlines accept.
+     *
+     * @return the first and last day of the range
+     */
+    private LocalDate[] parseDayRange(String range) throws BobException {
+        LocalDate day = DateParser.parseDate(range);
+        if (day != null) {
+            return new LocalDate[] {day, day};
+        }
+        for (int i = range.indexOf(' '); i >= 0; i = range.indexOf(' ', i + 1)) {
+            LocalDate from = DateParser.parseDate(range.substring(0, i));
+            LocalDate to = DateParser.parseDate(range.substring(i + 1).trim());
+            if (from != null && to != null) {
+                return new LocalDate[] {from, to};
+            }
+        }
+        throw new BobException(DUE_USAGE_MESSAGE);
+    }
+
+    /**
+     * Formats the tasks at the given indices as a numbered list under a header.
+     * At most {@value #MAX_LIST_LIMIT} tasks are shown, so that one response stays small.
+     */
+    private String formatTasksAt(String header, int[] indices) {
+        int count = Math.min(indices.length, MAX_LIST_LIMIT);
+        String taskLines = tasks.joinTasks(count,
+                i -> String.format("%d. %s\n", i + 1, tasks.get(indices[i])));
+        String result = header + "\n" + taskLines;
+        if (count < indices.length) {
+            result += String.format("Showing the first %d of %d bobz.", count, indices.length);
         }
-        return resultBuilder.toString().trim();
+        return result.trim();
     }
 
     /**
-     * Processes the undo command to reverse the last action.
+     * Processes the undo command to reverse the last action, or the last few actions.
      *
-     * @param arguments command arguments (not used for undo)
+     * @param arguments command arguments, either empty or the number of actions to undo
      * @return confirmation message or error message if nothing to undo
      * @throws Exception if there's an error during undo
      */
     private String handleUndoCommand(String[] arguments) throws Exception {
-        if (lastAction == null) {
-            return NO_UNDO_MESSAGE;
+        int count = parseStepCount(arguments, "undo");
+        String result = NO_UNDO_MESSAGE;
+        for (int i = 0; i < count; i++) {
+            Undo action = history.takeUndoable();
+            if (action == null) {
+                break;
+            }
+            Undo reversal = reverse(action);
+            history.undone(reversal);
+            result = i == 0
+                    ? "Undone bobz! " + describeReversal(action, reversal)
+                    : String.format("Undone bobz! Reversed the last %d commands.", i + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Processes the redo command to apply again the last undone action, or the last few.
+     *
+     * @param arguments command arguments, either empty or the number of actions to redo
+     * @return confirmation message or error message if nothing to redo
+     * @throws Exception if there's an error during redo
+     */
+    private String handleRedoCommand(String[] arguments) throws Exception {
+        int count = parseStepCount(arguments, "redo");
+        String result = NO_REDO_MESSAGE;
+        for (int i = 0; i < count; i++) {
+            Undo reversal = history.takeRedoable();
+            if (reversal == null) {
+                break;
+            }
+            Undo action = reverse(reversal);
+            history.redone(action);
+            result = i == 0
+                    ? "Redone bobz! " + describeReversal(reversal, action)
+                    : String.format("Redone bobz! Applied the last %d undone commands again.", i + 1);
         }
+        return result;
+    }
 
-        String result;
-        switch (lastAction.getActionType()) {
-        case ADD_TASK:
-            // Undo add by removing the task
-            Task taskToRemove = lastAction.getTask();
-            // Find and remove the task from the list
-            for (int i = 0; i < tasks.size(); i++) {
-                if (tasks.get(i) == taskToRemove) {
-                    tasks.deleteTask(i);
-                    break;
-                }
+    private static int parseStepCount(String[] arguments, String command) throws BobException {
+        if (arguments.length == 0) {
+            return 1;
+        }
+        try {
+            int count = Integer.parseInt(arguments[0]);
+            if (count >= 1) {
+                return count;
             }
-            result = String.format("Undone bobz! Removed task:\n  %s", taskToRemove);
+        } catch (NumberFormatException e) {
+            // Reported below together with counts below one
+        }
+        throw new BobException("BOBZ!!! Use '" + command + "' or '" + command + " <number of commands>' bobz.");
+    }
+
+    /**
+     * Reverses an action, which is persisted like any other change.
+     *
+     * @param action the action to reverse
+     * @return how to reverse the reversal, which applies the action again
+     * @throws BobException if the tasks are no longer where the action left them
+     */
+    private Undo reverse(Undo action) throws BobException {
+        switch (action.getActionType()) {
+        case ADD_TASK:
+            return deleteTasks(action.getIndices());
+        case DELETE_TASK:
+            return insertTasks(action.getIndices(), action.getTasks());
+        case MARK_TASK:
+            return markTasks(action.getIndices(), false);
+        case UNMARK_TASK:
+            return markTasks(action.getIndices(), true);
+        default:
+            throw new BobException(GENERIC_ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Describes what reversing an action did, showing the task if the action changed only one.
+     *
+     * @param action the action that was reversed
+     * @param reversal how to reverse the reversal
+     * @return the description, without the leading "Undone" or "Redone"
+     */
+    private String describeReversal(Undo action, Undo reversal) {
+        if (action.size() == 0) {
+            return "That command had not changed anything bobz.";
+        }
+        String verb;
+        Task task;
+        switch (action.getActionType()) {
+        case ADD_TASK:
+            verb = "Removed";
+            task = reversal.getTasks().get(0);
             break;
-            
         case DELETE_TASK:
-            // Undo delete by adding the task back at its original position
-            Task taskToRestore = lastAction.getTask();
-            int originalIndex = lastAction.getIndex();
-            // Add task back at the correct position
-            tasks.getTasks().add(originalIndex, taskToRestore);
-            result = String.format("Undone bobz! Restored task:\n  %s", taskToRestore);
+            verb = "Restored";
+            task = action.getTasks().get(0);
             break;
-            
         case MARK_TASK:
-            // Undo mark by unmarking the task
-            lastAction.getTask().markAsNotDone();
-            result = String.format("Undone bobz! Unmarked task:\n  %s", lastAction.getTask());
-            break;
-            
-        case UNMARK_TASK:
-            // Undo unmark by marking the task
-            lastAction.getTask().markAsDone();
-            result = String.format("Undone bobz! Marked task:\n  %s", lastAction.getTask());
+            verb = "Unmarked";
+            task = tasks.get(action.getIndex());
             break;
-            
         default:
-            return GENERIC_ERROR_MESSAGE;
+            verb = "Marked";
+            task = tasks.get(action.getIndex());
+            break;
+        }
+        if (action.size() == 1) {
+            return String.format("%s task:\n  %s", verb, task);
         }
+        return String.format("%s %d tasks.", verb, action.size());
+    }
 
-        // Clear the last action after undo (can't undo an undo)
-        lastAction = null;
-        saveTasksToStorage();
-        
-        return result;
+    /**
+     * Processes the run command to run the commands in a script file as one batch.
+     * By default the first failing command stops the script and undoes all of its changes.
+     * With --continue, failing commands are skipped instead.
+     *
+     * @param arguments command arguments containing the file path, optionally after --continue
+     * @return summary of the commands run and the commands that failed
+     * @throws BobException if the file cannot be read or a script is already running
+     */
+    private String handleRunCommand(String[] arguments) throws BobException {
+        if (batchChanges != null) {
+            throw new BobException("BOBZ!!! A script cannot run another script bobz.");
+        }
+        if (arguments.length == 0) {
+            throw new BobException(RUN_USAGE_MESSAGE);
+        }
+        String fileName = arguments[0];
+        BatchPolicy policy = BatchPolicy.ALL_OR_NOTHING;
+        if (fileName.startsWith(CONTINUE_OPTION + " ")) {
+            fileName = fileName.substring(CONTINUE_OPTION.length()).trim();
+            policy = BatchPolicy.CONTINUE_ON_ERROR;
+        } else if (fileName.startsWith("--")) {
+            throw new BobException(RUN_USAGE_MESSAGE);
+        }
+
+        List<String> commands;
+        try {
+            commands = Files.readAllLines(Path.of(fileName));
+        } catch (IOException | InvalidPathException e) {
+            throw new BobException("BOBZ!!! I couldn't read the script " + fileName + " bobz.");
+        }
+
+        BatchResult result = runBatch(commands, policy, response -> { });
+        return formatBatchResult(fileName, result);
+    }
+
+    private String formatBatchResult(String fileName, BatchResult result) {
+        List<String> failures = result.getFailures();
+        if (result.isRolledBack()) {
+            return String.format("BOBZ!!! The script %s stopped at %s\nNothing was changed bobz.",
+                    fileName, failures.get(0));
+        }
+        StringBuilder summary = new StringBuilder(String.format("Ran %d commands from %s bobz.",
+                result.getSucceededCount(), fileName));
+        if (!failures.isEmpty()) {
+            summary.append(String.format("\n%d commands failed bobz:", failures.size()));
+            for (String failure : failures.subList(0, Math.min(failures.size(), MAX_REPORTED_FAILURES))) {
+                summary.append("\n  ").append(failure);
+            }
+        }
+        return summary.toString();
     }
 
     /**
      * Finds all tasks that contain the given keyword in their description.
      *
      * @param keyword the keyword to search for (case-insensitive)
-     * @return a TaskList containing all matching tasks
+     * @return the 0-based indices of all matching tasks, in list order
      */
-    private TaskList findTasksContainingKeyword(String keyword) {
+    private int[] findTasksContainingKeyword(String keyword) {
         assert keyword != null;
         assert tasks != null;
-        TaskList matchingTasks = new TaskList();
-        
-        for (int i = 0; i < tasks.size(); i++) {
-            Task task = tasks.get(i);
-            assert task != null;
 
-            if (task.getDescription().toLowerCase().contains(keyword)) {
-                matchingTasks.addTask(task);
+        return tasks.findTasks(keyword);
+    }
+
+    /**
+     * Checks whether a command argument picks several tasks rather than one task number.
+     */
+    private static boolean isTaskSelection(String argument) {
+        return argument.equals(DONE_TASKS) || argument.contains(INDEX_LIST_SEPARATOR)
+                || argument.indexOf(INDEX_RANGE_SEPARATOR) > 0;
+    }
+
+    /**
+     * Parses a selection of tasks, which is "done" for the tasks that are done, or a
+     * comma-separated list of 1-based task numbers and ranges such as 3-900.
+     *
+     * @param selection the selection to parse
+     * @return the zero-based indices of the selected tasks, in increasing order without repeats
+     * @throws BobException if a task number does not exist or no task is selected
+     * @throws NumberFormatException if a task number is not a number
+     */
+    private int[] parseTaskSelection(String selection) throws BobException {
+        if (selection.equals(DONE_TASKS)) {
+            int[] indices = tasks.filterTasks(i -> tasks.get(i).isDone());
+            if (indices.length == 0) {
+                throw new BobException("BOBZ!!! None of your tasks are done yet bobz.");
             }
+            return indices;
         }
-        
-        return matchingTasks;
+
+        BitSet selected = new BitSet(tasks.size());
+        for (String part : selection.split(INDEX_LIST_SEPARATOR)) {
+            String trimmedPart = part.trim();
+            int dash = trimmedPart.indexOf(INDEX_RANGE_SEPARATOR, 1);
+            int first = Integer.parseInt(dash < 0 ? trimmedPart : trimmedPart.substring(0, dash).trim());
+            int last = dash < 0 ? first : Integer.parseInt(trimmedPart.substring(dash + 1).trim());
+            if (first < 1 || last > tasks.size()) {
+                throw new BobException("BOBZ!!! That task number does not exist.");
+            }
+            if (first > last) {
+                throw new BobException("BOBZ!!! The range " + trimmedPart + " is backwards bobz.");
+            }
+            selected.set(first - 1, last);
+        }
+        return selected.stream().toArray();
+    }
+
+    /**
+     * Returns the tasks at the given indices, or only the first few of them, as many as are
+     * shown by {@link #formatChangedTasks(List, int)}.
+     */
+    private List<Task> tasksAt(int[] indices) {
+        List<Task> shown = new ArrayList<>();
+        for (int i = 0; i < Math.min(indices.length, MAX_SHOWN_CHANGED_TASKS); i++) {
+            shown.add(tasks.get(indices[i]));
+        }
+        return shown;
+    }
+
+    /**
+     * Formats the tasks changed by a command, one per line, showing only the first
+     * {@value #MAX_SHOWN_CHANGED_TASKS} of them.
+     *
+     * @param changedTasks the changed tasks, of which at least the first few are given
+     * @param count the number of tasks changed
+     * @return the formatted tasks
+     */
+    private static String formatChangedTasks(List<Task> changedTasks, int count) {
+        StringBuilder formatted = new StringBuilder();
+        for (int i = 0; i < Math.min(count, MAX_SHOWN_CHANGED_TASKS); i++) {
+            formatted.append("  ").append(changedTasks.get(i)).append("\n");
+        }
+        if (count > MAX_SHOWN_CHANGED_TASKS) {
+            formatted.append(String.format("  ...and %d more bobz\n", count - MAX_SHOWN_CHANGED_TASKS));
+        }
+        return formatted.toString().stripTrailing();
     }
 
     /**
@@ -417,20 +1135,224 @@ public class BobBot {
     }
 
     /**
-     * Saves the current task list to storage.
+     * Adds a task to the end of the list and records the change.
+     *
+     * @return how to undo the change
+     */
+    private Undo addTask(Task task) {
+        tasks.addTask(task);
+        Undo change = new Undo(Undo.ActionType.ADD_TASK, new int[] {tasks.size() - 1});
+        recordChange(change, () -> storage.appendAdd(task));
+        return change;
+    }
+
+    /**
+     * Deletes the tasks at the given positions in one pass and records the change as one entry.
+     *
+     * @param indices the zero-based positions, in increasing order without repeats
+     * @return how to undo the change
+     */
+    private Undo deleteTasks(int[] indices) throws BobException {
+        List<Task> removedTasks = tasks.deleteTasks(indices);
+        structureVersion++;
+        Undo change = new Undo(removedTasks, indices);
+        recordChange(change, () -> storage.appendDeleteAll(indices));
+        return change;
+    }
+
+    /**
+     * Inserts tasks so that they end up at the given positions and records the change as one
+     * journal record, however many tasks are inserted.
+     *
+     * @return how to undo the change
+     */
+    private Undo insertTasks(int[] indices, List<Task> insertedTasks) throws BobException {
+        tasks.insertTasks(indices, insertedTasks);
+        structureVersion++;
+        Undo change = new Undo(Undo.ActionType.ADD_TASK, indices);
+        recordChange(change, () -> storage.appendInsertAll(indices, insertedTasks));
+        return change;
+    }
+
+    /**
+     * Marks the tasks at the given positions as done or not done and records the change as one entry.
+     * Tasks that already were as requested are left out of the entry, so undoing it only
+     * reverses the tasks that actually changed.
+     *
+     * @param indices the zero-based positions, in increasing order without repeats
+     * @return how to undo the change
+     */
+    private Undo markTasks(int[] indices, boolean isDone) throws BobException {
+        int[] changedIndices = new int[indices.length];
+        int changedCount = 0;
+        for (int index : indices) {
+            if (tasks.getTask(index).isDone() != isDone) {
+                tasks.markTask(index, isDone);
+                changedIndices[changedCount++] = index;
+            }
+        }
+        int[] changed = Arrays.copyOf(changedIndices, changedCount);
+        Undo.ActionType type = isDone ? Undo.ActionType.MARK_TASK : Undo.ActionType.UNMARK_TASK;
+        Undo change = new Undo(type, changed);
+        if (changed.length > 0) {
+            recordChange(change, () -> storage.appendMarkAll(changed, isDone));
+        }
+        return change;
+    }
+
+    /**
+     * Persists a change to the task list, and remembers how to reverse it while a batch is running.
+     *
+     * @param change how to reverse the change, or null if the task list did not change
+     * @param record the journal append describing the change
+     */
+    private void recordChange(Undo change, StorageChange record) {
+        if (change != null) {
+            version++;
+        }
+        if (batchChanges != null && change != null) {
+            batchChanges.add(change);
+        }
+        persistChange(record);
+    }
+
+    /**
+     * Queues the changes of the current batch to be written to storage at once, and has the
+     * caller wait for them to reach the disk once it no longer holds the write lock.
      * Prints an error message if saving fails.
      */
-    private void saveTasksToStorage() {
+    private void commitBatch() {
+        batchChanges = null;
+        isFlushPending = true;
+        try {
+            storage.commitBatch();
+        } catch (IOException exception) {
+            System.err.println("Error saving tasks: " + exception.getMessage());
+            metrics.recordSaveFailure(exception);
+        }
+    }
+
+    /**
+     * Reverses the changes of the current batch, latest first, and drops them from storage
+     * before they are written.
+     *
+     * @param historyBefore the undo history from before the batch started
+     */
+    private void rollBackBatch(UndoHistory historyBefore) {
+        storage.discardBatch();
+        try {
+            for (int i = batchChanges.size() - 1; i >= 0; i--) {
+                Undo change = batchChanges.get(i);
+                version++;
+                structureVersion++;
+                switch (change.getActionType()) {
+                case ADD_TASK:
+                    tasks.deleteTasks(change.getIndices());
+                    break;
+                case DELETE_TASK:
+                    tasks.insertTasks(change.getIndices(), change.getTasks());
+                    break;
+                default:
+                    for (int index : change.getIndices()) {
+                        tasks.markTask(index, change.getActionType() == Undo.ActionType.UNMARK_TASK);
+                    }
+                    break;
+                }
+            }
+        } catch (BobException exception) {
+            throw new IllegalStateException("Batch changes could not be reversed bobz", exception);
+        } finally {
+            batchChanges = null;
+        }
+        history = historyBefore;
+    }
+
+    /**
+     * Records a single change to the task list in storage.
+     * The change is written in the background, so this does not wait for the disk.
+     * Prints an error message if saving fails.
+     *
+     * @param change the journal append describing the change
+     */
+    private void persistChange(StorageChange change) {
         assert storage != null;
-        assert tasks != null;
-        
+
         try {
-            storage.saveTasks(tasks.getTasks());
+            change.append();
         } catch (Exception exception) {
             System.err.println("Error saving tasks: " + exception.getMessage());
+            metrics.recordSaveFailure(exception);
         }
     }
 
+    /**
+     * Waits until every change made so far has been written to disk.
+     * Prints an error message if saving fails.
+     */
+    private void flushStorage() {
+        try {
+            storage.flush();
+        } catch (IOException exception) {
+            System.err.println("Error saving tasks: " + exception.getMessage());
+            metrics.recordSaveFailure(exception);
+        }
+    }
+
+    /**
+     * Saves every pending change and releases the storage.
+     * Should be called when the application is shutting down.
+     */
+    public void close() {
+        Lock writeLock = changeLock.writeLock();
+        writeLock.lock();
+        try {
+            storage.close();
+        } catch (IOException exception) {
+            System.err.println("Error saving tasks: " + exception.getMessage());
+            metrics.recordSaveFailure(exception);
+        } finally {
+            metrics.addTaskCount(-reportedTaskCount);
+            reportedTaskCount = 0;
+            if (isPublishingMetrics) {
+                metrics.unpublish();
+            }
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether a change made with the write lock held must reach the disk before its
+     * caller returns, and if so hands that wait to the outermost holder of the lock, which
+     * waits after releasing it, so that readers never wait on the disk.
+     *
+     * @return whether the caller must call {@link #flushStorage()} after releasing the lock
+     */
+    private boolean takePendingFlush() {
+        if (changeLock.getWriteHoldCount() > 1) {
+            return false;
+        }
+        boolean isPending = isFlushPending;
+        isFlushPending = false;
+        return isPending;
+    }
+
+    /**
+     * Brings the task count in the metrics up to date, with the write lock held.
+     */
+    private void reportTaskCount() {
+        int taskCount = tasks.size();
+        metrics.addTaskCount(taskCount - reportedTaskCount);
+        reportedTaskCount = taskCount;
+    }
+
+    /**
+     * A single journal append performed against {@link Storage}.
+     */
+    @FunctionalInterface
+    private interface StorageChange {
+        void append() throws IOException;
+    }
+
     // CLI methods remain the same but with better naming...
     // [Keep existing CLI methods for backward compatibility]
 }
\ No newline at end of file
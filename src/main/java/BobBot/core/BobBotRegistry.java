@@ -0,0 +1,363 @@
+package bobbot.core;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import bobbot.exception.BobException;
+import bobbot.metrics.BobBotMetrics;
+
+/**
+ * Hosts the task lists of many users in one JVM, each in a BobBot of its own over its own
+ * file in a shared directory.
+ *
+ * <p>A list is loaded the first time a command is sent to it, and then kept in a cache
+ * ordered by last use. The cache is bounded by the memory the loaded BobBots keep alive, as
+ * estimated by {@link BobBot#estimateBytes()}: once they add up to more than the bound, the
+ * least recently used ones are closed, which writes their pending changes to disk, and they
+ * are loaded from their files again the next time they are used. A BobBot that is running a
+ * command is never closed, and neither is the one used last, so a single list larger than the
+ * bound still works.
+ *
+ * <p>The registry's lock only guards the cache itself. Lists are loaded, closed and used
+ * outside it, so a list that is slow to load or to close holds up only the callers of that
+ * list, and the commands of different users run at the same time, as do the reads of one
+ * user. A list that is still being closed is only loaded again once its changes are on disk.
+ *
+ * <p>The loaded BobBots record their commands and storage in one {@link BobBotMetrics}, which
+ * is published over JMX under the directory until the registry is closed.
+ */
+public class BobBotRegistry implements Closeable {
+    private static final Pattern LIST_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final String FILE_SUFFIX = ".txt";
+
+    /**
+     * A list that is loaded or being loaded, with the number of commands running on or waiting
+     * for it and its last estimated size.
+     */
+    private static final class Entry {
+        private final String listId;
+        private final CompletableFuture<BobBot> bobBot = new CompletableFuture<>();
+        private final CompletableFuture<Void> closed = new CompletableFuture<>();
+        private int activeCount;
+        private long bytes;
+        private boolean isRemoved;
+
+        private Entry(String listId) {
+            this.listId = listId;
+        }
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final BobBotMetrics metrics = new BobBotMetrics();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Entry> closings = new HashMap<>();
+    private long bytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private boolean isClosed;
+
+    /**
+     * Creates a registry with no list loaded yet.
+     *
+     * @param directory the directory that holds one task file per list
+     * @param maxBytes about the most heap the loaded lists may keep alive together
+     */
+    public BobBotRegistry(Path directory, long maxBytes) {
+        assert directory != null;
+        assert maxBytes >= 0;
+
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        metrics.publish("BobBotRegistry", directory.toString());
+    }
+
+    /**
+     * Generates the response of a list's BobBot to the given user input, loading the list first
+     * if it is not loaded.
+     *
+     * @param listId the id of the list, made of letters, digits, '-' and '_'
+     * @param userInput the user input string to process
+     * @return the bot's response as a string
+     * @throws BobException if the list id is not valid
+     */
+    public String getResponse(String listId, String userInput) throws BobException {
+        return use(listId, bobBot -> bobBot.getResponse(userInput));
+    }
+
+    /**
+     * Generates the response of a list's BobBot to the given user input of a caller with its
+     * own session, loading the list first if it is not loaded. See
+     * {@link BobBot#getResponse(String, Session)}.
+     *
+     * @param listId the id of the list, made of letters, digits, '-' and '_'
+     * @param userInput the user input string to process
+     * @param session where the caller is in the list, used only with this list
+     * @return the bot's response as a string
+     * @throws BobException if the list id is not valid
+     */
+    public String getResponse(String listId, String userInput, Session session) throws BobException {
+        return use(listId, bobBot -> bobBot.getResponse(userInput, session));
+    }
+
+    /**
+     * Runs a sequence of commands as one unit on a list's BobBot, loading the list first if it
+     * is not loaded. See {@link BobBot#runBatch(List, BobBot.BatchPolicy, Consumer)}.
+     *
+     * @param listId the id of the list, made of letters, digits, '-' and '_'
+     * @param commands the commands to run, one per line
+     * @param policy what to do when a command fails
+     * @param responses receives the response to each command as soon as it has run
+     * @return the number of successful commands and the failures
+     * @throws BobException if the list id is not valid
+     */
+    public BatchResult runBatch(String listId, List<String> commands, BobBot.BatchPolicy policy,
+            Consumer<String> responses) throws BobException {
+        return use(listId, bobBot -> bobBot.runBatch(commands, policy, responses));
+    }
+
+    /**
+     * Gets the metrics shared by the loaded lists.
+     *
+     * @return the metrics
+     */
+    public BobBotMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns how many times a list was already loaded when it was used.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns how many times a list had to be loaded from its file to be used.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns how many lists were closed to keep the loaded lists within the memory bound.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of lists currently loaded.
+     *
+     * @return the number of loaded lists
+     */
+    public synchronized int getLoadedCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated heap kept alive by the loaded lists, as of the end of the last
+     * command run on each.
+     *
+     * @return the estimated size of the loaded lists in bytes
+     */
+    public synchronized long getEstimatedBytes() {
+        return bytes;
+    }
+
+    /**
+     * Closes every loaded list, writing its pending changes to disk, once the commands running
+     * on them have finished. Lists cannot be used through the registry afterwards.
+     */
+    @Override
+    public void close() {
+        List<Entry> closed;
+        List<Entry> closing;
+        synchronized (this) {
+            isClosed = true;
+            boolean isInterrupted = false;
+            while (hasActiveEntries()) {
+                try {
+                    wait();
+                } catch (InterruptedException exception) {
+                    isInterrupted = true;
+                }
+            }
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+            closed = new ArrayList<>(entries.values());
+            entries.clear();
+            bytes = 0;
+            closing = new ArrayList<>(closings.values());
+        }
+        for (Entry entry : closed) {
+            BobBot bobBot = entry.bobBot.getNow(null);
+            if (bobBot != null) {
+                bobBot.close();
+            }
+        }
+        for (Entry entry : closing) {
+            entry.closed.join();
+        }
+        metrics.unpublish();
+    }
+
+    /**
+     * Runs an action on a list's BobBot, keeping the list loaded while the action runs, and
+     * then closes the lists evicted to make room, outside the registry's lock.
+     */
+    private <T> T use(String listId, Function<BobBot, T> action) throws BobException {
+        Entry entry = acquire(listId);
+        BobBot bobBot;
+        try {
+            bobBot = entry.bobBot.join();
+        } catch (CompletionException exception) {
+            closeEvicted(release(entry, 0));
+            throw exception.getCause() instanceof RuntimeException
+                    ? (RuntimeException) exception.getCause()
+                    : exception;
+        }
+        try {
+            return action.apply(bobBot);
+        } finally {
+            closeEvicted(release(entry, bobBot.estimateBytes()));
+        }
+    }
+
+    /**
+     * Finds a list or loads it, and counts one more command running on it. Only the first
+     * caller of a list that is not loaded loads it, outside the registry's lock, while later
+     * callers wait for the load to finish when they use it.
+     */
+    private Entry acquire(String listId) throws BobException {
+        if (listId == null || !LIST_ID.matcher(listId).matches()) {
+            throw new BobException("BOBZ!!! A list id must be 1 to 64 letters, digits, '-' or '_' bobz.");
+        }
+
+        Entry entry;
+        Entry closing;
+        synchronized (this) {
+            if (isClosed) {
+                throw new IllegalStateException("The registry is already closed bobz");
+            }
+            entry = entries.get(listId);
+            if (entry != null) {
+                hitCount++;
+                entry.activeCount++;
+                return entry;
+            }
+            missCount++;
+            entry = new Entry(listId);
+            entry.activeCount++;
+            entries.put(listId, entry);
+            closing = closings.get(listId);
+        }
+        load(entry, closing);
+        return entry;
+    }
+
+    /**
+     * Loads a list into its entry, after waiting for an earlier BobBot of the same list to
+     * write its changes. If loading fails, the entry is dropped and its callers get the failure.
+     */
+    private void load(Entry entry, Entry closing) {
+        try {
+            if (closing != null) {
+                closing.closed.join();
+            }
+            entry.bobBot.complete(new BobBot(directory.resolve(entry.listId + FILE_SUFFIX).toString(), metrics));
+        } catch (RuntimeException exception) {
+            synchronized (this) {
+                entries.remove(entry.listId, entry);
+                entry.isRemoved = true;
+            }
+            entry.bobBot.completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * Counts one less command running on a list and updates its size, then takes out the lists
+     * to evict if the loaded lists have grown too large.
+     *
+     * @return the evicted lists, which the caller must close
+     */
+    private synchronized List<Entry> release(Entry entry, long entryBytes) {
+        entry.activeCount--;
+        if (isClosed) {
+            notifyAll();
+            return List.of();
+        }
+        if (!entry.isRemoved) {
+            bytes += entryBytes - entry.bytes;
+            entry.bytes = entryBytes;
+        }
+        return evictIfNeeded();
+    }
+
+    /**
+     * Takes the least recently used lists that are not in use out of the cache until the loaded
+     * lists fit the memory bound, always keeping the list used last. They stay known as being
+     * closed until {@link #closeEvicted(List)} is done with them.
+     */
+    private List<Entry> evictIfNeeded() {
+        List<Entry> evicted = new ArrayList<>();
+        Iterator<Entry> leastRecentFirst = entries.values().iterator();
+        while (bytes > maxBytes && leastRecentFirst.hasNext()) {
+            Entry entry = leastRecentFirst.next();
+            if (entry.activeCount > 0 || !leastRecentFirst.hasNext()) {
+                continue;
+            }
+            leastRecentFirst.remove();
+            entry.isRemoved = true;
+            bytes -= entry.bytes;
+            evictionCount++;
+            closings.put(entry.listId, entry);
+            evicted.add(entry);
+        }
+        return evicted;
+    }
+
+    /**
+     * Closes evicted lists, which writes their changes to disk, without holding the registry's lock.
+     */
+    private void closeEvicted(List<Entry> evicted) {
+        for (Entry entry : evicted) {
+            try {
+                entry.bobBot.join().close();
+            } finally {
+                synchronized (this) {
+                    closings.remove(entry.listId, entry);
+                }
+                entry.closed.complete(null);
+            }
+        }
+    }
+
+    private boolean hasActiveEntries() {
+        for (Entry entry : entries.values()) {
+            if (entry.activeCount > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
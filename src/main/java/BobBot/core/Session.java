@@ -0,0 +1,42 @@
+package bobbot.core;
+
+/**
+ * What one caller of a BobBot keeps between its commands, such as one connection to the
+ * server: where 'list next' continues from. Each caller that pages through a list should
+ * use a session of its own, so that callers do not move each other's place in the list.
+ *
+ * <p>A session is used by one caller at a time, and with one BobBot. Its place is dropped
+ * once tasks are deleted or inserted, since that moves the tasks after them.
+ */
+public class Session {
+    private BobBot bobBot;
+    private long structureVersion;
+    private int nextListIndex;
+
+    /**
+     * Gets where the next page of the list starts, if it still starts there.
+     *
+     * @param bobBot the BobBot whose list is paged through
+     * @param currentStructureVersion how many times tasks were deleted or inserted in that list
+     * @return the 0-based index of the first task of the next page, or 0 if there is none
+     */
+    int getNextListIndex(BobBot bobBot, long currentStructureVersion) {
+        if (this.bobBot != bobBot || structureVersion != currentStructureVersion) {
+            return 0;
+        }
+        return nextListIndex;
+    }
+
+    /**
+     * Remembers where the next page of the list starts.
+     *
+     * @param bobBot the BobBot whose list is paged through
+     * @param currentStructureVersion how many times tasks were deleted or inserted in that list
+     * @param index the 0-based index of the first task of the next page
+     */
+    void setNextListIndex(BobBot bobBot, long currentStructureVersion, int index) {
+        this.bobBot = bobBot;
+        this.structureVersion = currentStructureVersion;
+        this.nextListIndex = index;
+    }
+}
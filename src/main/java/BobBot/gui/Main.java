@@ -29,6 +29,14 @@ public class Main extends Application {
         BobBot = new BobBot(DATA_FILE_PATH);
     }
 
+    /**
+     * Saves any pending changes before the JavaFX application exits.
+     */
+    @Override
+    public void stop() {
+        BobBot.close();
+    }
+
     /**
      * Starts the JavaFX application by setting up the primary stage.
      *
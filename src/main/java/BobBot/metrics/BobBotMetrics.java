@@ -0,0 +1,227 @@
+package bobbot.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import bobbot.parser.Parser;
+
+/**
+ * Counts what BobBot does and how long it takes: the latency of every kind of command, the
+ * journal and snapshot writes and loads of its storage with the bytes they write, the saves
+ * that failed and the number of tasks. May be used from several threads at once.
+ *
+ * <p>Once {@link #publish(String, String)} is called, the metrics can be read over JMX under
+ * a name like {@code bobbot:type=BobBot,name="data/BobBot.txt"}.
+ */
+public class BobBotMetrics implements BobBotMetricsMXBean {
+    private static final String DOMAIN = "bobbot";
+
+    private final Map<Parser.CommandType, LatencyHistogram> commandLatencies = new EnumMap<>(Parser.CommandType.class);
+    private final Map<Parser.CommandType, LongAdder> commandErrors = new EnumMap<>(Parser.CommandType.class);
+    private final LatencyHistogram journalWrites = new LatencyHistogram();
+    private final LatencyHistogram snapshotWrites = new LatencyHistogram();
+    private final LatencyHistogram loads = new LatencyHistogram();
+    private final LongAdder journalWriteErrors = new LongAdder();
+    private final LongAdder snapshotWriteErrors = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder saveFailureCount = new LongAdder();
+    private final LongAdder taskCount = new LongAdder();
+    private volatile String lastSaveFailure;
+    private ObjectName objectName;
+
+    /**
+     * Creates metrics with nothing recorded yet.
+     */
+    public BobBotMetrics() {
+        for (Parser.CommandType type : Parser.CommandType.values()) {
+            commandLatencies.put(type, new LatencyHistogram());
+            commandErrors.put(type, new LongAdder());
+        }
+    }
+
+    /**
+     * Records that a command was run.
+     *
+     * @param type the type of the command
+     * @param nanos how long the command took, in nanoseconds
+     * @param isFailed whether the command failed
+     */
+    public void recordCommand(Parser.CommandType type, long nanos, boolean isFailed) {
+        commandLatencies.get(type).record(Math.max(0, nanos));
+        if (isFailed) {
+            commandErrors.get(type).increment();
+        }
+    }
+
+    /**
+     * Records that records were appended to a journal.
+     *
+     * @param nanos how long the append took, in nanoseconds
+     * @param isFailed whether the append failed
+     */
+    public void recordJournalWrite(long nanos, boolean isFailed) {
+        journalWrites.record(Math.max(0, nanos));
+        if (isFailed) {
+            journalWriteErrors.increment();
+        }
+    }
+
+    /**
+     * Records that a snapshot of a task list was written.
+     *
+     * @param nanos how long writing the snapshot took, in nanoseconds
+     * @param isFailed whether writing the snapshot failed
+     */
+    public void recordSnapshotWrite(long nanos, boolean isFailed) {
+        snapshotWrites.record(Math.max(0, nanos));
+        if (isFailed) {
+            snapshotWriteErrors.increment();
+        }
+    }
+
+    /**
+     * Records that a task list was loaded.
+     *
+     * @param nanos how long the load took, in nanoseconds
+     */
+    public void recordLoad(long nanos) {
+        loads.record(Math.max(0, nanos));
+    }
+
+    /**
+     * Records that bytes were written to a file of the storage.
+     *
+     * @param bytes the number of bytes written
+     */
+    public void recordBytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Records that changes could not be saved.
+     *
+     * @param exception why saving failed
+     */
+    public void recordSaveFailure(Exception exception) {
+        saveFailureCount.increment();
+        lastSaveFailure = String.valueOf(exception.getMessage());
+    }
+
+    /**
+     * Records that the number of tasks went up or down.
+     *
+     * @param delta the number of tasks added, or minus the number removed
+     */
+    public void addTaskCount(long delta) {
+        taskCount.add(delta);
+    }
+
+    @Override
+    public Map<String, LatencyStats> getCommands() {
+        Map<String, LatencyStats> commands = new TreeMap<>();
+        for (Parser.CommandType type : Parser.CommandType.values()) {
+            LatencyHistogram latencies = commandLatencies.get(type);
+            if (latencies.getCount() > 0) {
+                commands.put(type.name(), new LatencyStats(latencies, commandErrors.get(type).sum()));
+            }
+        }
+        return commands;
+    }
+
+    @Override
+    public LatencyStats getJournalWrites() {
+        return new LatencyStats(journalWrites, journalWriteErrors.sum());
+    }
+
+    @Override
+    public LatencyStats getSnapshotWrites() {
+        return new LatencyStats(snapshotWrites, snapshotWriteErrors.sum());
+    }
+
+    @Override
+    public LatencyStats getLoads() {
+        return new LatencyStats(loads, 0);
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getSaveFailureCount() {
+        return saveFailureCount.sum();
+    }
+
+    @Override
+    public String getLastSaveFailure() {
+        return lastSaveFailure;
+    }
+
+    @Override
+    public long getTaskCount() {
+        return taskCount.sum();
+    }
+
+    @Override
+    public void reset() {
+        for (Parser.CommandType type : Parser.CommandType.values()) {
+            commandLatencies.get(type).clear();
+            commandErrors.get(type).reset();
+        }
+        journalWrites.clear();
+        snapshotWrites.clear();
+        loads.clear();
+        journalWriteErrors.reset();
+        snapshotWriteErrors.reset();
+        bytesWritten.reset();
+        saveFailureCount.reset();
+        lastSaveFailure = null;
+    }
+
+    /**
+     * Publishes the metrics to the platform MBean server, where JMX clients can find them.
+     * Does nothing if other metrics are already published under the same name, such as those
+     * of another BobBot over the same file.
+     *
+     * @param type what the metrics are of, such as "BobBot"
+     * @param name which one of those the metrics are of, such as its file path
+     */
+    public synchronized void publish(String type, String name) {
+        assert objectName == null : "Metrics can only be published once bobz";
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName candidate = new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+            server.registerMBean(this, candidate);
+            objectName = candidate;
+        } catch (InstanceAlreadyExistsException exception) {
+            // The other metrics stay published, and these can still be read directly
+        } catch (JMException exception) {
+            System.err.println("Error publishing metrics: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if they were published.
+     */
+    public synchronized void unpublish() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException exception) {
+            System.err.println("Error unpublishing metrics: " + exception.getMessage());
+        }
+        objectName = null;
+    }
+}
@@ -0,0 +1,72 @@
+package bobbot.metrics;
+
+import java.util.Map;
+
+/**
+ * The view of {@link BobBotMetrics} published over JMX, so that a running BobBot can be
+ * watched from JConsole or any other JMX client.
+ */
+public interface BobBotMetricsMXBean {
+    /**
+     * Returns the latencies of the commands run so far, by command, such as "TODO" or "FIND".
+     * Only commands that were run at least once are included.
+     *
+     * @return the latency summary of each command
+     */
+    Map<String, LatencyStats> getCommands();
+
+    /**
+     * Returns how long it took to append changes to the journal, and how many appends failed.
+     *
+     * @return the latency summary of the journal writes
+     */
+    LatencyStats getJournalWrites();
+
+    /**
+     * Returns how long it took to write snapshots of the task list, whether saved directly or
+     * folded from the journal.
+     *
+     * @return the latency summary of the snapshot writes
+     */
+    LatencyStats getSnapshotWrites();
+
+    /**
+     * Returns how long it took to load task lists from their files.
+     *
+     * @return the latency summary of the loads
+     */
+    LatencyStats getLoads();
+
+    /**
+     * Returns the number of bytes written to task files, segment files and journals.
+     *
+     * @return the number of bytes written
+     */
+    long getBytesWritten();
+
+    /**
+     * Returns how many times saving changes failed.
+     *
+     * @return the number of failed saves
+     */
+    long getSaveFailureCount();
+
+    /**
+     * Returns the message of the last failed save.
+     *
+     * @return the message, or null if no save failed
+     */
+    String getLastSaveFailure();
+
+    /**
+     * Returns the number of tasks in the loaded task lists.
+     *
+     * @return the number of tasks
+     */
+    long getTaskCount();
+
+    /**
+     * Forgets every latency, count and failure recorded so far, keeping the task count.
+     */
+    void reset();
+}
@@ -0,0 +1,155 @@
+package bobbot.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts latencies in buckets whose width grows with the latency, so that any percentile is
+ * known to within about 1.6% however many latencies are recorded, in a fixed 30 KB.
+ *
+ * <p>Latencies below 128 ns have a bucket each. Above that, every power of two is split
+ * into 64 buckets of equal width. A histogram may be used from several threads at once, and
+ * recording a latency takes no lock, so that commands running side by side do not wait for
+ * each other to be counted. Reads of a histogram that is still being recorded to may miss
+ * the latest latencies, so readers that need figures that agree with each other, such as
+ * {@link LatencyStats}, read a {@link #snapshot()}.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Counts one latency.
+     *
+     * @param nanos the latency in nanoseconds, at least 0
+     */
+    public void record(long nanos) {
+        assert nanos >= 0;
+        counts.incrementAndGet(bucketOf(nanos));
+        totalCount.increment();
+        totalNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Adds the latencies counted by another histogram to this one.
+     *
+     * @param other the histogram to add
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.add(other.totalCount.sum());
+        totalNanos.add(other.totalNanos.sum());
+        maxNanos.accumulateAndGet(other.maxNanos.get(), Math::max);
+    }
+
+    /**
+     * Copies the latencies counted so far into a histogram of its own, which no other thread
+     * records to. The count of the copy is the sum of its buckets, so that its percentiles and
+     * count agree even if latencies were recorded while it was being copied.
+     *
+     * @return the copy
+     */
+    public synchronized LatencyHistogram snapshot() {
+        LatencyHistogram copy = new LatencyHistogram();
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long bucketCount = counts.get(i);
+            copy.counts.set(i, bucketCount);
+            count += bucketCount;
+        }
+        copy.totalCount.add(count);
+        copy.totalNanos.add(totalNanos.sum());
+        copy.maxNanos.set(maxNanos.get());
+        return copy;
+    }
+
+    /**
+     * Forgets every latency counted so far. Latencies recorded while the histogram is being
+     * cleared may be partly kept.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the average of the counted latencies.
+     *
+     * @return the mean latency in nanoseconds, or 0 if nothing was counted
+     */
+    public long getMeanNanos() {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : totalNanos.sum() / count;
+    }
+
+    /**
+     * Finds the latency that the given share of the counted latencies do not exceed.
+     *
+     * @param percentile the share in percent, such as 99.9
+     * @return the largest latency of the bucket holding the percentile, or 0 if nothing was counted
+     */
+    public long percentileNanos(double percentile) {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts.get(i);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long max = maxNanos.get();
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static int bucketOf(long nanos) {
+        if (nanos < 2 * SUB_BUCKET_COUNT) {
+            return (int) nanos;
+        }
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(nanos) - 1 - SUB_BUCKET_BITS;
+        return (int) (shift * SUB_BUCKET_COUNT + (nanos >>> shift));
+    }
+
+    private static long highestValueIn(int bucket) {
+        if (bucket < 2 * SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        long subBucket = bucket - (long) shift * SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
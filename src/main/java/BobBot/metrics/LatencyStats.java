@@ -0,0 +1,65 @@
+package bobbot.metrics;
+
+/**
+ * A summary of the latencies of one kind of operation, as shown over JMX, where it appears
+ * as a composite value with one item per getter.
+ */
+public class LatencyStats {
+    private final long count;
+    private final long errorCount;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    /**
+     * Summarizes the latencies counted by a histogram, from a snapshot of it so that the
+     * figures agree with each other while latencies are still being recorded.
+     *
+     * @param latencies the latencies of the operations
+     * @param errorCount the number of those operations that failed
+     */
+    LatencyStats(LatencyHistogram latencies, long errorCount) {
+        LatencyHistogram snapshot = latencies.snapshot();
+        this.count = snapshot.getCount();
+        this.meanMicros = micros(snapshot.getMeanNanos());
+        this.p50Micros = micros(snapshot.percentileNanos(50));
+        this.p99Micros = micros(snapshot.percentileNanos(99));
+        this.p999Micros = micros(snapshot.percentileNanos(99.9));
+        this.maxMicros = micros(snapshot.getMaxNanos());
+        this.errorCount = errorCount;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
@@ -1,26 +1,28 @@
 package bobbot.parser;
 
+import java.util.Arrays;
+
 /**
  * Parses user input commands and converts them into structured Command objects.
  * Supports various command types including task creation, modification, and deletion.
+ *
+ * <p>The input is read in one pass: the command keyword runs up to the first space, or up to
+ * and including a '~', and is looked up in a table of keywords that maps it to the parser for
+ * the rest of the input. The flags of deadlines and events are found by position rather than with regular
+ * expressions, and commands without arguments are shared instances, so parsing them allocates nothing.
  */
 public class Parser {
-    private static final int MARK_COMMAND_PREFIX_LENGTH = 5;
-    private static final int UNMARK_COMMAND_PREFIX_LENGTH = 7;
-    private static final int TODO_COMMAND_PREFIX_LENGTH = 5;
-    private static final int DEADLINE_COMMAND_PREFIX_LENGTH = 9;
-    private static final int EVENT_COMMAND_PREFIX_LENGTH = 6;
-    private static final int DELETE_COMMAND_PREFIX_LENGTH = 7;
-    private static final int FIND_COMMAND_PREFIX_LENGTH = 5;
     private static final String DEADLINE_DELIMITER = " /by ";
     private static final String EVENT_FROM_DELIMITER = " /from ";
     private static final String EVENT_TO_DELIMITER = " /to ";
-        /**
+    private static final String[] NO_ARGUMENTS = new String[0];
+
+    /**
      * Enumeration of all supported command types in BobBot.
      * Each type corresponds to a specific user action or operation.
      */
     public enum CommandType {
-        BYE, LIST, MARK, UNMARK, TODO, DEADLINE, EVENT, DELETE, FIND, UNDO, INVALID, HELP
+        BYE, LIST, MARK, UNMARK, TODO, DEADLINE, EVENT, DELETE, FIND, FUZZY_FIND, DUE, OVERDUE, UNDO, REDO, RUN, INVALID, HELP
     }
 
     /**
@@ -61,6 +63,53 @@ public class Parser {
         }
     }
 
+    private static final Command INVALID_COMMAND = new Command(CommandType.INVALID, NO_ARGUMENTS);
+    private static final Keyword[][] KEYWORDS_BY_LENGTH = keywordTable(
+        new Keyword("bye", withoutArguments(CommandType.BYE)),
+        new Keyword("undo", withOptionalArgument(CommandType.UNDO)),
+        new Keyword("redo", withOptionalArgument(CommandType.REDO)),
+        new Keyword("overdue", withoutArguments(CommandType.OVERDUE)),
+        new Keyword("list", withOptionalArgument(CommandType.LIST)),
+        new Keyword("mark", withArgument(CommandType.MARK)),
+        new Keyword("unmark", withArgument(CommandType.UNMARK)),
+        new Keyword("todo", withArgument(CommandType.TODO)),
+        new Keyword("delete", withArgument(CommandType.DELETE)),
+        new Keyword("find", withArgument(CommandType.FIND)),
+        new Keyword("due", withOptionalArgument(CommandType.DUE)),
+        new Keyword("run", withOptionalArgument(CommandType.RUN)),
+        new Keyword("deadline", Parser::parseDeadlineCommand),
+        new Keyword("event", Parser::parseEventCommand),
+        new Keyword("find~", Parser::parseFuzzyFindCommand));
+
+    /**
+     * Parses what follows a command keyword.
+     */
+    @FunctionalInterface
+    private interface ArgumentParser {
+        /**
+         * Parses the rest of the input.
+         *
+         * @param input the trimmed input
+         * @param start the index just past the keyword, which is the end of the input or,
+         *     for keywords not ending in '~', a space
+         * @return the parsed command
+         */
+        Command parse(String input, int start);
+    }
+
+    /**
+     * A command keyword and the parser for what follows it.
+     */
+    private static final class Keyword {
+        private final String word;
+        private final ArgumentParser argumentParser;
+
+        private Keyword(String word, ArgumentParser argumentParser) {
+            this.word = word;
+            this.argumentParser = argumentParser;
+        }
+    }
+
     /**
      * Parses a user input string and returns the corresponding Command object.
      * Analyzes the input to determine command type and extracts relevant arguments.
@@ -68,13 +117,20 @@ public class Parser {
      * <p>Supported command formats:
      * <ul>
      *   <li>bye - exit the application</li>
-     *   <li>list - show all tasks</li>
+     *   <li>list [page | next | --from &lt;number&gt; --limit &lt;count&gt;] - show a page of tasks</li>
      *   <li>mark &lt;index&gt; - mark task as done</li>
      *   <li>unmark &lt;index&gt; - mark task as not done</li>
      *   <li>todo &lt;description&gt; - create todo task</li>
      *   <li>deadline &lt;description&gt; /by &lt;time&gt; - create deadline task</li>
      *   <li>event &lt;description&gt; /from &lt;start&gt; /to &lt;end&gt; - create event task</li>
      *   <li>delete &lt;index&gt; - delete task</li>
+     *   <li>find &lt;keyword&gt; - find tasks containing the keyword</li>
+     *   <li>find~[distance] &lt;keyword&gt; - find tasks with a word close to the keyword</li>
+     *   <li>due today | week | &lt;date&gt; | &lt;from&gt; &lt;to&gt; - list deadlines due in a range of days</li>
+     *   <li>overdue - list deadlines that are past due and not done</li>
+     *   <li>undo [count] - reverse the last change, or the last few changes</li>
+     *   <li>redo [count] - apply again the last change that was undone, or the last few</li>
+     *   <li>run [--continue] &lt;file&gt; - run the commands in a script file, one per line</li>
      * </ul>
      *
      * @param input the user input string to parse
@@ -85,66 +141,125 @@ public class Parser {
 
         String trimmed = input.trim();
         assert !trimmed.isEmpty();
-        
-        Command result;
-        
-        if (trimmed.equals("bye")) {
-            result = new Command(CommandType.BYE, new String[0]);
-        } else if (trimmed.equals("list")) {
-            result = new Command(CommandType.LIST, new String[0]);
-        } else if (trimmed.equals("undo")) {
-            result = new Command(CommandType.UNDO, new String[0]);
-        } else if (trimmed.startsWith("mark ")) {
-            result = parseMarkCommand(trimmed);
-        } else if (trimmed.startsWith("unmark ")) {
-            result = parseUnmarkCommand(trimmed);
-        } else if (trimmed.startsWith("todo ")) {
-            result = parseTodoCommand(trimmed);
-        } else if (trimmed.startsWith("deadline ")) {
-            result = parseDeadlineCommand(trimmed);
-        } else if (trimmed.startsWith("event ")) {
-            result = parseEventCommand(trimmed);
-        } else if (trimmed.startsWith("find ")) {
-            String keyword = trimmed.substring(FIND_COMMAND_PREFIX_LENGTH).trim();
-            return new Command(CommandType.FIND, new String[]{keyword});
+
+        int keywordEnd = 0;
+        while (keywordEnd < trimmed.length() && trimmed.charAt(keywordEnd) != ' ') {
+            keywordEnd++;
+            if (trimmed.charAt(keywordEnd - 1) == '~') {
+                break;
+            }
+        }
+
+        if (keywordEnd < KEYWORDS_BY_LENGTH.length) {
+            for (Keyword keyword : KEYWORDS_BY_LENGTH[keywordEnd]) {
+                if (trimmed.startsWith(keyword.word)) {
+                    return keyword.argumentParser.parse(trimmed, keywordEnd);
+                }
+            }
+        }
+        return INVALID_COMMAND;
+    }
+
+    /**
+     * Groups the keywords by length, so that a keyword is found by comparing the input
+     * with the few keywords of the same length, without cutting the keyword out of the input.
+     */
+    private static Keyword[][] keywordTable(Keyword... keywords) {
+        int maxLength = 0;
+        for (Keyword keyword : keywords) {
+            maxLength = Math.max(maxLength, keyword.word.length());
         }
-        else if (trimmed.startsWith("delete ")) {
-            result = parseDeleteCommand(trimmed);
-        } else {
-            result = new Command(CommandType.INVALID, new String[0]);
+        Keyword[][] table = new Keyword[maxLength + 1][0];
+        for (Keyword keyword : keywords) {
+            Keyword[] sameLength = Arrays.copyOf(table[keyword.word.length()], table[keyword.word.length()].length + 1);
+            sameLength[sameLength.length - 1] = keyword;
+            table[keyword.word.length()] = sameLength;
         }
-        
-        return result;
+        return table;
     }
 
-    private static Command parseMarkCommand(String trimmed) {
-        String indexStr = trimmed.substring(MARK_COMMAND_PREFIX_LENGTH).trim();
-        return new Command(CommandType.MARK, new String[]{indexStr});
+    /**
+     * Accepts the keyword only when nothing follows it.
+     */
+    private static ArgumentParser withoutArguments(CommandType type) {
+        Command command = new Command(type, NO_ARGUMENTS);
+        return (input, start) -> start == input.length() ? command : INVALID_COMMAND;
     }
 
-    private static Command parseUnmarkCommand(String trimmed) {
-        String indexStr = trimmed.substring(UNMARK_COMMAND_PREFIX_LENGTH).trim();
-        return new Command(CommandType.UNMARK, new String[]{indexStr});
+    /**
+     * Accepts the keyword only when an argument follows it, which is passed on trimmed.
+     */
+    private static ArgumentParser withArgument(CommandType type) {
+        return (input, start) -> start == input.length()
+                ? INVALID_COMMAND
+                : new Command(type, new String[]{input.substring(start + 1).trim()});
     }
 
-    private static Command parseTodoCommand(String trimmed) {
-        String desc = trimmed.substring(TODO_COMMAND_PREFIX_LENGTH).trim();
-        return new Command(CommandType.TODO, new String[]{desc});
+    /**
+     * Accepts the keyword alone, or followed by an argument which is passed on trimmed.
+     */
+    private static ArgumentParser withOptionalArgument(CommandType type) {
+        Command command = new Command(type, NO_ARGUMENTS);
+        return (input, start) -> start == input.length()
+                ? command
+                : new Command(type, new String[]{input.substring(start + 1).trim()});
     }
 
-    private static Command parseDeadlineCommand(String trimmed) {
-        String[] parts = trimmed.substring(DEADLINE_COMMAND_PREFIX_LENGTH).split(" /by ", 2);
-        return new Command(CommandType.DEADLINE, parts);
+    /**
+     * Splits a deadline into its description and due date at the first " /by ".
+     */
+    private static Command parseDeadlineCommand(String input, int start) {
+        if (start == input.length()) {
+            return INVALID_COMMAND;
+        }
+        int delimiter = input.indexOf(DEADLINE_DELIMITER, start + 1);
+        if (delimiter < 0) {
+            return new Command(CommandType.DEADLINE, new String[]{input.substring(start + 1)});
+        }
+        return new Command(CommandType.DEADLINE, new String[]{input.substring(start + 1, delimiter),
+            input.substring(delimiter + DEADLINE_DELIMITER.length())});
     }
 
-    private static Command parseEventCommand(String trimmed) {
-        String remaining = trimmed.substring(EVENT_COMMAND_PREFIX_LENGTH);
-        String[] parts = remaining.split(" /from | /to ");
-        return new Command(CommandType.EVENT, parts);
+    /**
+     * Splits an event at every " /from " and " /to ", in the order they occur.
+     * The last part is never empty, since the input is trimmed and both flags end in a space.
+     */
+    private static Command parseEventCommand(String input, int start) {
+        if (start == input.length()) {
+            return INVALID_COMMAND;
+        }
+        String[] parts = new String[3];
+        int count = 0;
+        int partStart = start + 1;
+        while (true) {
+            int from = input.indexOf(EVENT_FROM_DELIMITER, partStart);
+            int to = input.indexOf(EVENT_TO_DELIMITER, partStart);
+            int delimiter = from < 0 ? to : to < 0 ? from : Math.min(from, to);
+            if (count == parts.length) {
+                parts = Arrays.copyOf(parts, count * 2);
+            }
+            if (delimiter < 0) {
+                parts[count++] = input.substring(partStart);
+                break;
+            }
+            parts[count++] = input.substring(partStart, delimiter);
+            partStart = delimiter + (delimiter == from ? EVENT_FROM_DELIMITER : EVENT_TO_DELIMITER).length();
+        }
+        return new Command(CommandType.EVENT, count == parts.length ? parts : Arrays.copyOf(parts, count));
     }
 
-    private static Command parseDeleteCommand(String trimmed) {
-        String indexStr = trimmed.substring(DELETE_COMMAND_PREFIX_LENGTH).trim();
-        return new Command(CommandType.DELETE, new String[]{indexStr});
+    /**
+     * Parses find~, which may be followed directly by the largest edit distance to allow.
+     */
+    private static Command parseFuzzyFindCommand(String input, int start) {
+        if (start == input.length() || input.charAt(start) == ' ') {
+            return new Command(CommandType.FUZZY_FIND, new String[]{input.substring(start).trim()});
+        }
+        int space = input.indexOf(' ', start);
+        if (space < 0) {
+            return new Command(CommandType.FUZZY_FIND, new String[]{"", input.substring(start)});
+        }
+        return new Command(CommandType.FUZZY_FIND, new String[]{input.substring(space + 1).trim(),
+            input.substring(start, space)});
     }
-}
\ No newline at end of file
+}
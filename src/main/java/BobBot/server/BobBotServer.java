@@ -0,0 +1,228 @@
+package bobbot.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import bobbot.core.BobBot;
+import bobbot.core.Session;
+import bobbot.parser.Parser;
+
+/**
+ * Serves a BobBot over a socket on the loopback address, so that scripts and other tools can
+ * drive the same task list as the GUI would, without a window.
+ *
+ * <p>The protocol is line based. Each line a client sends is one command, and the reply is the
+ * lines of the response followed by a line holding a single ".". Response lines that start with
+ * "." get another "." in front, so a client strips one leading "." from every line it reads.
+ * The reply to "bye" is followed by the end of the connection. Replies are flushed once the
+ * client has no more commands waiting, so a client may send many commands before reading.
+ * "run" is refused, since it would let any local client make the server read its files.
+ * A blank line is answered as a command that is not understood.
+ *
+ * <p>Every connection is served on a thread of its own: a virtual thread on JVMs that have them,
+ * and otherwise a thread from a cached pool. The connections share one BobBot, which lets the
+ * commands that only read the task list run at the same time and takes changes one at a time.
+ */
+public class BobBotServer implements Closeable {
+    /** The port served on when none is given. */
+    public static final int DEFAULT_PORT = 4869;
+
+    private static final String DATA_FILE_PATH = "data/bobbotTask.txt";
+    private static final String END_OF_RESPONSE = ".";
+    private static final String BYE_COMMAND = "bye";
+    private static final String RUN_REFUSED_MESSAGE = "BOBZ!!! Scripts cannot be run over the server bobz.";
+    private static final int BACKLOG = 128;
+
+    private final BobBot bobBot;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Starts listening for connections on the loopback address.
+     *
+     * @param bobBot the BobBot every connection sends its commands to
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be listened on
+     */
+    public BobBotServer(BobBot bobBot, int port) throws IOException {
+        assert bobBot != null;
+
+        this.bobBot = bobBot;
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        this.connections = newConnectionExecutor();
+    }
+
+    /**
+     * Runs the server from the command line until the process is stopped.
+     *
+     * @param args the arguments after the server flag, which are empty or the port to listen on
+     */
+    public static void run(String[] args) {
+        int port;
+        try {
+            port = args.length == 0 ? DEFAULT_PORT : Integer.parseInt(args[0]);
+        } catch (NumberFormatException e) {
+            System.err.println("BOBZ!!! The port must be a number bobz.");
+            return;
+        }
+
+        BobBot bobBot = new BobBot(DATA_FILE_PATH);
+        BobBotServer server;
+        try {
+            server = new BobBotServer(bobBot, port);
+        } catch (IOException e) {
+            System.err.println("Error starting server: " + e.getMessage());
+            bobBot.close();
+            return;
+        }
+
+        // The server runs until the process is stopped, so only the hook closes it and the BobBot
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            bobBot.close();
+        }, "bobbot-server-shutdown"));
+        System.out.println("BobBot is listening on " + InetAddress.getLoopbackAddress().getHostAddress()
+                + ":" + server.getPort() + " bobz.");
+        server.serve();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed, serving each on its own thread.
+     */
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                openSockets.add(socket);
+                if (serverSocket.isClosed()) {
+                    // Closed while this connection was being accepted, after close() had closed the others
+                    openSockets.remove(socket);
+                    socket.close();
+                    break;
+                }
+                connections.execute(() -> serveConnection(socket));
+            } catch (SocketException e) {
+                // Closed while waiting for a connection
+            } catch (IOException e) {
+                System.err.println("Error accepting connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections and ends the connections being served. Their sockets are
+     * closed, since a thread waiting for a client to send a line does not notice an interrupt.
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing server: " + e.getMessage());
+        }
+        for (Socket socket : openSockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                System.err.println("Error closing connection: " + e.getMessage());
+            }
+        }
+        connections.shutdownNow();
+    }
+
+    private void serveConnection(Socket socket) {
+        try (socket;
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer writer = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            Session session = new Session();
+            String command;
+            while ((command = reader.readLine()) != null) {
+                writeResponse(writer, respond(command, session));
+                if (command.trim().equals(BYE_COMMAND)) {
+                    break;
+                }
+                if (!reader.ready()) {
+                    writer.flush();
+                }
+            }
+        } catch (IOException e) {
+            // The client went away or the server was closed, nothing is left to answer
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+
+    /**
+     * Answers one command of a connection, refusing to run scripts. Blank lines are answered
+     * here, since BobBot expects every command to hold something.
+     */
+    private String respond(String command, Session session) {
+        if (command.isBlank()) {
+            return bobBot.getInvalidCommandMessage();
+        }
+        if (Parser.parseCommand(command).getType() == Parser.CommandType.RUN) {
+            return RUN_REFUSED_MESSAGE;
+        }
+        return bobBot.getResponse(command, session);
+    }
+
+    private static void writeResponse(Writer writer, String response) throws IOException {
+        for (String line : response.split("\n", -1)) {
+            if (line.startsWith(END_OF_RESPONSE)) {
+                writer.write(END_OF_RESPONSE);
+            }
+            writer.write(line);
+            writer.write('\n');
+        }
+        writer.write(END_OF_RESPONSE);
+        writer.write('\n');
+    }
+
+    /**
+     * Creates an executor that runs every task on a new virtual thread if the JVM supports them,
+     * or on a cached pool of daemon threads otherwise.
+     */
+    static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory threads = task -> {
+                Thread thread = new Thread(task, "bobbot-connection-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newCachedThreadPool(threads);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package bobbot.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import bobbot.task.Deadline;
+import bobbot.task.Event;
+import bobbot.task.Task;
+import bobbot.task.Todo;
+
+/**
+ * Compact binary on-disk format for task snapshots.
+ *
+ * <p>A file starts with the magic bytes {@code BOBZ}, a version byte and the task count.
+ * Each task follows as a length-prefixed record holding a type byte, a flags byte
+ * (bit 0 is the done flag), the UTF-8 description and the task's dates. Dates are stored
+ * as epoch days for deadlines and epoch minutes for events, or as UTF-8 text when the
+ * user typed a free-form date, so loading never has to parse a date string.
+ */
+final class BinaryTaskFormat {
+    private static final byte[] MAGIC = {'B', 'O', 'B', 'Z'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = MAGIC.length + 1 + Integer.BYTES;
+    private static final byte TODO_TYPE = 'T';
+    private static final byte DEADLINE_TYPE = 'D';
+    private static final byte EVENT_TYPE = 'E';
+    private static final byte DONE_FLAG = 1;
+    private static final byte TEXT_DATE = 0;
+    private static final byte PARSED_DATE = 1;
+
+    private BinaryTaskFormat() {
+    }
+
+    /**
+     * Checks whether the given file contents start with the binary format's magic bytes.
+     *
+     * @param contents File contents, positioned at the start of the file.
+     * @return true if the contents are in the binary format.
+     */
+    static boolean isBinary(ByteBuffer contents) {
+        if (contents.remaining() < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (contents.get(contents.position() + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the given tasks into a complete binary snapshot, including the header.
+     *
+     * @param tasks Tasks to encode, in list order.
+     * @return the encoded snapshot.
+     */
+    static byte[] encode(List<Task> tasks) {
+        ByteArrayOutputStream file = new ByteArrayOutputStream(HEADER_LENGTH + tasks.size() * 32);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(64);
+        try {
+            DataOutputStream fileOut = new DataOutputStream(file);
+            fileOut.write(MAGIC);
+            fileOut.writeByte(VERSION);
+            fileOut.writeInt(tasks.size());
+
+            DataOutputStream recordOut = new DataOutputStream(record);
+            for (Task task : tasks) {
+                record.reset();
+                writeTask(recordOut, task);
+                fileOut.writeInt(record.size());
+                record.writeTo(fileOut);
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        return file.toByteArray();
+    }
+
+    /**
+     * Decodes a binary snapshot and adds its tasks to the given list.
+     * Records that cannot be decoded are skipped.
+     *
+     * @param contents File contents, positioned at the start of the file.
+     * @param tasks List to add the decoded tasks to.
+     * @throws IOException if the header is missing or has an unsupported version.
+     */
+    static void decode(ByteBuffer contents, List<Task> tasks) throws IOException {
+        ByteBuffer records = contents.duplicate();
+        readHeader(records);
+        decodeRecords(records, tasks);
+    }
+
+    /**
+     * Validates the file header and moves the buffer past it, to the first record.
+     *
+     * @param buffer File contents, positioned at the start of the file.
+     * @return the number of tasks the header says the file holds.
+     * @throws IOException if the header is missing or has an unsupported version.
+     */
+    static int readHeader(ByteBuffer buffer) throws IOException {
+        if (!isBinary(buffer) || buffer.remaining() < HEADER_LENGTH) {
+            throw new IOException("Not a BobBot task file bobz");
+        }
+        buffer.position(buffer.position() + MAGIC.length);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported task file version " + version + " bobz");
+        }
+        return buffer.getInt();
+    }
+
+    /**
+     * Splits the records remaining in the buffer into runs of whole records of roughly
+     * the given size, so that they can be decoded independently. Only the length
+     * prefixes are read, which makes this much cheaper than decoding.
+     *
+     * @param records Buffer positioned at the first record.
+     * @param chunkBytes Approximate number of bytes per run.
+     * @return the runs of records, in file order.
+     */
+    static List<ByteBuffer> splitRecords(ByteBuffer records, int chunkBytes) {
+        List<ByteBuffer> chunks = new ArrayList<>();
+        int chunkStart = records.position();
+        int position = chunkStart;
+        while (records.limit() - position >= Integer.BYTES) {
+            int length = records.getInt(position);
+            if (length < 0 || length > records.limit() - position - Integer.BYTES) {
+                break;
+            }
+            position += Integer.BYTES + length;
+            if (position - chunkStart >= chunkBytes) {
+                chunks.add(records.slice(chunkStart, position - chunkStart));
+                chunkStart = position;
+            }
+        }
+        if (position > chunkStart) {
+            chunks.add(records.slice(chunkStart, position - chunkStart));
+        }
+        return chunks;
+    }
+
+    /**
+     * Finds where each record remaining in the buffer starts, reading only the length prefixes.
+     *
+     * @param records Buffer positioned at the first record.
+     * @return the absolute buffer position of each whole record, in file order.
+     */
+    static int[] recordOffsets(ByteBuffer records) {
+        int[] offsets = new int[16];
+        int count = 0;
+        int position = records.position();
+        while (records.limit() - position >= Integer.BYTES) {
+            int length = records.getInt(position);
+            if (length < 0 || length > records.limit() - position - Integer.BYTES) {
+                break;
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = position;
+            position += Integer.BYTES + length;
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * Decodes a single record body, without its length prefix.
+     *
+     * @param record Buffer holding exactly one record body.
+     * @return the decoded task, or null if the record cannot be decoded.
+     */
+    static Task decodeRecord(ByteBuffer record) {
+        return readTask(record);
+    }
+
+    /**
+     * Decodes every record remaining in the buffer and adds the tasks to the given list.
+     * Records that cannot be decoded are skipped.
+     *
+     * @param records Buffer positioned at the first record to decode.
+     * @param tasks List to add the decoded tasks to, in record order.
+     */
+    static void decodeRecords(ByteBuffer records, List<Task> tasks) {
+        ByteBuffer buffer = records.duplicate();
+        while (buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                break;
+            }
+            Task task = readTask(buffer.slice(buffer.position(), length));
+            if (task != null) {
+                tasks.add(task);
+            }
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private static void writeTask(DataOutputStream out, Task task) throws IOException {
+        byte type = task instanceof Deadline ? DEADLINE_TYPE : task instanceof Event ? EVENT_TYPE : TODO_TYPE;
+        out.writeByte(type);
+        out.writeByte(task.isDone() ? DONE_FLAG : 0);
+        writeString(out, task.getDescription());
+
+        if (task instanceof Deadline) {
+            Deadline deadline = (Deadline) task;
+            if (deadline.getBy() != null) {
+                out.writeByte(PARSED_DATE);
+                out.writeInt((int) deadline.getBy().toEpochDay());
+            } else {
+                out.writeByte(TEXT_DATE);
+                writeString(out, deadline.getOriginalInput());
+            }
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            writeDateTime(out, event.getFrom(), event.getOriginalFromInput());
+            writeDateTime(out, event.getTo(), event.getOriginalToInput());
+        }
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime dateTime, String originalInput)
+            throws IOException {
+        if (dateTime != null) {
+            out.writeByte(PARSED_DATE);
+            out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC) / 60);
+        } else {
+            out.writeByte(TEXT_DATE);
+            writeString(out, originalInput);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static Task readTask(ByteBuffer buffer) {
+        try {
+            byte type = buffer.get();
+            boolean isDone = (buffer.get() & DONE_FLAG) != 0;
+            String description = readString(buffer);
+
+            Task task;
+            switch (type) {
+            case TODO_TYPE:
+                task = new Todo(description);
+                break;
+            case DEADLINE_TYPE:
+                task = readDeadline(buffer, description);
+                break;
+            case EVENT_TYPE:
+                task = readEvent(buffer, description);
+                break;
+            default:
+                return null;
+            }
+
+            if (isDone) {
+                task.markAsDone();
+            }
+            return task;
+        } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static Task readDeadline(ByteBuffer buffer, String description) {
+        if (buffer.get() == PARSED_DATE) {
+            return new Deadline(description, LocalDate.ofEpochDay(buffer.getInt()), null);
+        }
+        return new Deadline(description, null, readString(buffer));
+    }
+
+    private static Task readEvent(ByteBuffer buffer, String description) {
+        LocalDateTime from = null;
+        String originalFrom = null;
+        if (buffer.get() == PARSED_DATE) {
+            from = LocalDateTime.ofEpochSecond(buffer.getLong() * 60, 0, ZoneOffset.UTC);
+        } else {
+            originalFrom = readString(buffer);
+        }
+
+        LocalDateTime to = null;
+        String originalTo = null;
+        if (buffer.get() == PARSED_DATE) {
+            to = LocalDateTime.ofEpochSecond(buffer.getLong() * 60, 0, ZoneOffset.UTC);
+        } else {
+            originalTo = readString(buffer);
+        }
+        return new Event(description, from, originalFrom, to, originalTo);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Corrupt string length " + length);
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(buffer.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,153 @@
+package bobbot.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import bobbot.task.Deadline;
+import bobbot.task.Event;
+import bobbot.task.Task;
+import bobbot.task.Todo;
+
+/**
+ * Parser for the human-readable task format, which matches the display format of tasks.
+ * Task files used to be stored as numbered lines like "1. [T][ ] task description",
+ * and journal records still describe tasks this way.
+ */
+final class DisplayTaskFormat {
+
+    private DisplayTaskFormat() {
+    }
+
+    /**
+     * Parses every numbered line in a chunk of a task file.
+     * The chunk must start at the beginning of a line and end at the end of one.
+     * Lines that cannot be parsed are skipped.
+     *
+     * @param chunk UTF-8 bytes of whole lines.
+     * @param tasks List to add the parsed tasks to, in line order.
+     */
+    static void parseLines(ByteBuffer chunk, List<Task> tasks) {
+        String text = StandardCharsets.UTF_8.decode(chunk.duplicate()).toString();
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd == -1) {
+                lineEnd = text.length();
+            }
+            String line = text.substring(lineStart, lineEnd).trim();
+            if (!line.isEmpty()) {
+                Task task = parseNumberedLine(line);
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Parses a task from the saved display format.
+     * Handles numbered lines like "1. [T][ ] task description".
+     *
+     * @param line Line from the file to parse.
+     * @return Task object if parsing succeeds, null otherwise.
+     */
+    static Task parseNumberedLine(String line) {
+        String taskString = extractTaskString(line);
+        if (taskString == null) {
+            return null;
+        }
+        return parseTaskString(taskString);
+    }
+
+    /**
+     * Parses a task from its display string without the numbering, like "[T][ ] task description".
+     *
+     * @param taskString Display string of the task.
+     * @return Task object if parsing succeeds, null otherwise.
+     */
+    static Task parseTaskString(String taskString) {
+        try {
+            char taskType = taskString.charAt(1);
+            boolean isDone = taskString.charAt(4) == 'X';
+            String content = taskString.substring(7).trim();
+
+            Task task = createTaskByType(taskType, content);
+
+            if (task != null && isDone) {
+                task.markAsDone();
+            }
+
+            return task;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String extractTaskString(String line) {
+        int dotIndex = line.indexOf(". ");
+        if (dotIndex == -1) {
+            return null;
+        }
+        String taskString = line.substring(dotIndex + 2);
+
+        if (!taskString.startsWith("[")) {
+            return null;
+        }
+
+        return taskString;
+    }
+
+    private static Task createTaskByType(char taskType, String content) {
+        switch (taskType) {
+        case 'T':
+            return new Todo(content);
+        case 'D':
+            return parseDeadlineTask(content);
+        case 'E':
+            return parseEventTask(content);
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Parses a deadline task from its stored content format.
+     * Extracts the description and deadline information from the stored format.
+     *
+     * @param content the content string for the deadline task
+     * @return a Deadline task object, or null if parsing fails
+     */
+    private static Task parseDeadlineTask(String content) {
+        // Find the " (by: " part
+        int byIndex = content.lastIndexOf(" (by: ");
+        if (byIndex != -1) {
+            String description = content.substring(0, byIndex);
+            String deadline = content.substring(byIndex + 6, content.length() - 1); // Remove the closing ")"
+            return new Deadline(description, deadline);
+        }
+        return null;
+    }
+
+    /**
+     * Parses an event task from its stored content format.
+     * Extracts the description, start time, and end time from the stored format.
+     *
+     * @param content the content string for the event task
+     * @return an Event task object, or null if parsing fails
+     */
+    private static Task parseEventTask(String content) {
+        // Find the " (from: " part
+        int fromIndex = content.lastIndexOf(" (from: ");
+        if (fromIndex != -1) {
+            String description = content.substring(0, fromIndex);
+            String timeInfo = content.substring(fromIndex + 8, content.length() - 1); // Remove the closing ")"
+            String[] timeParts = timeInfo.split(" to: ");
+            if (timeParts.length == 2) {
+                return new Event(description, timeParts[0], timeParts[1]);
+            }
+        }
+        return null;
+    }
+}
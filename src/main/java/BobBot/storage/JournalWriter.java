@@ -0,0 +1,220 @@
+package bobbot.storage;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Writes journal records on a background thread so that callers never wait for the disk.
+ * Records submitted while a write is in progress are coalesced into the next write,
+ * and callers that need durability can wait for everything submitted so far with {@link #flush()}.
+ * Records submitted together with {@link #submitAll(List)} always go into the same write.
+ *
+ * <p>Once a write fails, nothing more is written and every later call fails, since the records
+ * refer to tasks by position and replaying them over a journal with a gap would change the
+ * wrong tasks.
+ */
+class JournalWriter {
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final long SHUTDOWN_FLUSH_TIMEOUT_SECONDS = 5;
+
+    /**
+     * Destination of the records drained from the queue.
+     */
+    @FunctionalInterface
+    interface RecordSink {
+        /**
+         * Writes a batch of records in submission order.
+         *
+         * @param records the records to write
+         * @param isForced whether the records must reach the disk before returning
+         * @throws IOException if the records cannot be written
+         */
+        void write(List<String> records, boolean isForced) throws IOException;
+    }
+
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final RecordSink sink;
+    private final String threadName;
+    private Thread writerThread;
+    private Thread shutdownHook;
+    private volatile boolean isClosed;
+    private volatile IOException failure;
+
+    /**
+     * Creates a writer that hands batches of records to the given sink.
+     *
+     * @param sink where records are written
+     * @param threadName name of the background thread, for diagnostics
+     */
+    JournalWriter(RecordSink sink, String threadName) {
+        this.sink = sink;
+        this.threadName = threadName;
+    }
+
+    /**
+     * Queues a record for writing. Blocks only if the queue is full.
+     *
+     * @param record the record to write
+     * @throws IOException if the writer is closed or interrupted while waiting for space
+     */
+    void submit(String record) throws IOException {
+        enqueue(record);
+    }
+
+    /**
+     * Queues several records to be written together in one write. Blocks only if the queue is full.
+     *
+     * @param records the records to write, in order
+     * @throws IOException if the writer is closed or interrupted while waiting for space
+     */
+    void submitAll(List<String> records) throws IOException {
+        enqueue(List.copyOf(records));
+    }
+
+    /**
+     * Waits until every record submitted before this call has been written and forced to disk.
+     *
+     * @throws IOException if writing any of those records failed
+     */
+    void flush() throws IOException {
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+        enqueue(flushed);
+        try {
+            flushed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while flushing tasks bobz");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Flushes pending records and stops the background thread.
+     * Records submitted afterwards are rejected.
+     *
+     * @throws IOException if writing the pending records failed
+     */
+    void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            isClosed = true;
+            stopWriterThread();
+        }
+    }
+
+    private synchronized void startIfNeeded() {
+        if (writerThread != null) {
+            return;
+        }
+        writerThread = new Thread(this::runWriteLoop, threadName);
+        writerThread.setDaemon(true);
+        writerThread.start();
+        shutdownHook = new Thread(this::flushOnShutdown, threadName + "-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    private synchronized void stopWriterThread() {
+        if (writerThread == null) {
+            return;
+        }
+        writerThread.interrupt();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down, the hook is running or about to run
+        }
+    }
+
+    private void enqueue(Object item) throws IOException {
+        if (isClosed) {
+            throw new IOException("Storage is already closed bobz");
+        }
+        if (failure != null) {
+            throw new IOException("Changes are no longer saved since saving failed: " + failure.getMessage(),
+                    failure);
+        }
+        startIfNeeded();
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while saving tasks bobz");
+        }
+    }
+
+    private void runWriteLoop() {
+        List<Object> batch = new ArrayList<>();
+        List<String> records = new ArrayList<>();
+        List<CompletableFuture<Void>> flushRequests = new ArrayList<>();
+
+        while (!isClosed || !queue.isEmpty()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch);
+            splitBatch(batch, records, flushRequests);
+
+            if (failure == null) {
+                try {
+                    sink.write(records, !flushRequests.isEmpty());
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Error saving tasks: " + e.getMessage());
+                    failure = e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
+                }
+            }
+            if (failure == null) {
+                flushRequests.forEach(request -> request.complete(null));
+            } else {
+                // Records queued behind a failed write are dropped, so the journal never has a gap
+                flushRequests.forEach(request -> request.completeExceptionally(failure));
+            }
+
+            batch.clear();
+            records.clear();
+            flushRequests.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void splitBatch(List<Object> batch, List<String> records, List<CompletableFuture<Void>> flushRequests) {
+        for (Object item : batch) {
+            if (item instanceof String) {
+                records.add((String) item);
+            } else if (item instanceof List) {
+                records.addAll((List<String>) item);
+            } else {
+                flushRequests.add((CompletableFuture<Void>) item);
+            }
+        }
+    }
+
+    private void flushOnShutdown() {
+        if (isClosed) {
+            return;
+        }
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+        try {
+            if (!queue.offer(flushed, SHUTDOWN_FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                return;
+            }
+            flushed.get(SHUTDOWN_FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            System.err.println("Error saving tasks on exit: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package bobbot.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import bobbot.task.Task;
+import bobbot.tasklist.TaskSource;
+
+/**
+ * Task source that decodes the segments listed in a {@link SegmentManifest} one at a time.
+ * The most recently used segments are kept in a small cache, so memory use does not
+ * depend on how many tasks the manifest lists. It may be read from several threads at once.
+ */
+final class PagedTaskSource implements TaskSource {
+    private static final int MAX_CACHED_SEGMENTS = 16;
+
+    private final Path segmentDir;
+    private final SegmentManifest manifest;
+    private final Map<Integer, Task[]> segments = new LinkedHashMap<>(MAX_CACHED_SEGMENTS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Task[]> eldest) {
+            return size() > MAX_CACHED_SEGMENTS;
+        }
+    };
+
+    /**
+     * Creates a source over the segments of the given manifest.
+     *
+     * @param segmentDir Directory holding the segment files.
+     * @param manifest Manifest listing the segments. Its segment files must stay in place
+     *     for as long as this source is used.
+     */
+    PagedTaskSource(Path segmentDir, SegmentManifest manifest) {
+        this.segmentDir = segmentDir;
+        this.manifest = manifest;
+    }
+
+    @Override
+    public int segmentCount() {
+        return manifest.segmentCount();
+    }
+
+    @Override
+    public int segmentLength(int segment) {
+        return manifest.segmentLength(segment);
+    }
+
+    /**
+     * Returns one task, decoding its segment if it is not cached. Segments are decoded
+     * outside the lock, so parallel scans over different segments decode them in parallel.
+     */
+    @Override
+    public Task load(int segment, int offset) {
+        Task[] tasks;
+        synchronized (this) {
+            tasks = segments.get(segment);
+        }
+        if (tasks == null) {
+            tasks = readSegment(segment);
+            synchronized (this) {
+                segments.put(segment, tasks);
+            }
+        }
+        return tasks[offset];
+    }
+
+    /**
+     * Hands over the tasks of the given segment, dropping it from the cache since the
+     * caller is about to keep its own copy.
+     */
+    @Override
+    public synchronized List<Task> loadSegment(int segment) {
+        Task[] tasks = segments.remove(segment);
+        return new ArrayList<>(Arrays.asList(tasks != null ? tasks : readSegment(segment)));
+    }
+
+    private Task[] readSegment(int segment) {
+        try {
+            return manifest.readSegment(segmentDir, segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error loading tasks bobz: " + e.getMessage(), e);
+        }
+    }
+}
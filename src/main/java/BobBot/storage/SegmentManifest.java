@@ -0,0 +1,235 @@
+package bobbot.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import bobbot.task.Task;
+import bobbot.task.Todo;
+
+/**
+ * Lists the segment files that together hold a task list, in list order.
+ *
+ * <p>The manifest is what the task file itself holds once it is segmented. It starts with
+ * the magic bytes {@code BOBM}, a version byte, the next unused segment id and the segment
+ * count, followed by the id and task count of each segment. Each segment is a file in the
+ * {@link BinaryTaskFormat}, named after its id, in a directory next to the task file.
+ * Segment files are never modified once written: a changed segment is written under a new
+ * id, so swapping in a new manifest switches over to the new segments atomically.
+ */
+final class SegmentManifest {
+    private static final byte[] MAGIC = {'B', 'O', 'B', 'M'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = MAGIC.length + 1 + Long.BYTES + Integer.BYTES;
+    private static final int ENTRY_LENGTH = Long.BYTES + Integer.BYTES;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final long nextSegmentId;
+    private final long[] segmentIds;
+    private final int[] segmentLengths;
+    private final int taskCount;
+    private final byte[] bytes;
+
+    private SegmentManifest(long nextSegmentId, long[] segmentIds, int[] segmentLengths) {
+        this.nextSegmentId = nextSegmentId;
+        this.segmentIds = segmentIds;
+        this.segmentLengths = segmentLengths;
+        this.taskCount = Arrays.stream(segmentLengths).sum();
+        this.bytes = encode();
+    }
+
+    /**
+     * Creates a manifest listing the given segments.
+     *
+     * @param nextSegmentId Id to give the next segment written after these.
+     * @param segmentIds Ids of the segments, in list order.
+     * @param segmentLengths Number of tasks in each segment.
+     * @return the manifest.
+     */
+    static SegmentManifest of(long nextSegmentId, List<Long> segmentIds, List<Integer> segmentLengths) {
+        assert segmentIds.size() == segmentLengths.size();
+        return new SegmentManifest(nextSegmentId,
+                segmentIds.stream().mapToLong(Long::longValue).toArray(),
+                segmentLengths.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Reads the manifest stored in the given task file.
+     *
+     * @param file Task file to read.
+     * @return the manifest, or null if the file is missing or not a manifest.
+     * @throws IOException If the file cannot be read or the manifest is corrupt.
+     */
+    static SegmentManifest readIfPresent(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Keep reading until the magic bytes are in or the file ends
+            }
+            if (magic.hasRemaining() || !Arrays.equals(magic.array(), MAGIC)) {
+                return null;
+            }
+        }
+        return decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    private static SegmentManifest decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_LENGTH) {
+            throw new IOException("Task manifest is cut short bobz");
+        }
+        buffer.position(MAGIC.length);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported task manifest version " + version + " bobz");
+        }
+        long nextSegmentId = buffer.getLong();
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * ENTRY_LENGTH != buffer.remaining()) {
+            throw new IOException("Task manifest is corrupt bobz");
+        }
+
+        long[] segmentIds = new long[count];
+        int[] segmentLengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            segmentIds[i] = buffer.getLong();
+            segmentLengths[i] = buffer.getInt();
+            if (segmentLengths[i] < 0 || segmentIds[i] >= nextSegmentId) {
+                throw new IOException("Task manifest is corrupt bobz");
+            }
+        }
+        return new SegmentManifest(nextSegmentId, segmentIds, segmentLengths);
+    }
+
+    private byte[] encode() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(HEADER_LENGTH + segmentIds.length * ENTRY_LENGTH);
+        try {
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(nextSegmentId);
+            out.writeInt(segmentIds.length);
+            for (int i = 0; i < segmentIds.length; i++) {
+                out.writeLong(segmentIds[i]);
+                out.writeInt(segmentLengths[i]);
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Returns the manifest as it is stored in the task file.
+     *
+     * @return the encoded manifest.
+     */
+    byte[] getBytes() {
+        return bytes.clone();
+    }
+
+    /**
+     * Returns the fingerprint of the stored manifest. Since segment files are never
+     * reused, it identifies the tasks of every segment as well.
+     *
+     * @return the fingerprint that journals written against this manifest carry.
+     */
+    String getFingerprint() {
+        return Storage.fingerprintOf(ByteBuffer.wrap(bytes));
+    }
+
+    long getNextSegmentId() {
+        return nextSegmentId;
+    }
+
+    int segmentCount() {
+        return segmentIds.length;
+    }
+
+    long segmentId(int segment) {
+        return segmentIds[segment];
+    }
+
+    int segmentLength(int segment) {
+        return segmentLengths[segment];
+    }
+
+    int taskCount() {
+        return taskCount;
+    }
+
+    /**
+     * Returns where the segment with the given id is stored.
+     *
+     * @param segmentDir Directory holding the segment files.
+     * @param segmentId Id of the segment.
+     * @return the path of the segment file.
+     */
+    static Path segmentFile(Path segmentDir, long segmentId) {
+        return segmentDir.resolve(segmentId + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Returns the ids of the segment files found in the given directory, whether listed or not.
+     *
+     * @param segmentDir Directory holding the segment files.
+     * @return the ids of the segment files, or an empty list if the directory does not exist.
+     * @throws IOException If the directory cannot be listed.
+     */
+    static List<Long> listSegmentIds(Path segmentDir) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        if (!Files.isDirectory(segmentDir)) {
+            return ids;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(segmentDir, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    ids.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours, leave it alone
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Reads and decodes every task of the given segment. A record that cannot be decoded,
+     * or is missing, becomes an empty todo, so that task numbers stay in line with the
+     * segment lengths that journal records were written against.
+     *
+     * @param segmentDir Directory holding the segment files.
+     * @param segment 0-based segment number in this manifest.
+     * @return the tasks of the segment, exactly as many as the manifest lists.
+     * @throws IOException If the segment file cannot be read.
+     */
+    Task[] readSegment(Path segmentDir, int segment) throws IOException {
+        ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(segmentFile(segmentDir, segmentIds[segment])));
+        BinaryTaskFormat.readHeader(contents);
+        int[] offsets = BinaryTaskFormat.recordOffsets(contents);
+
+        Task[] tasks = new Task[segmentLengths[segment]];
+        for (int i = 0; i < tasks.length; i++) {
+            Task task = null;
+            if (i < offsets.length) {
+                int length = contents.getInt(offsets[i]);
+                task = BinaryTaskFormat.decodeRecord(contents.slice(offsets[i] + Integer.BYTES, length));
+            }
+            tasks[i] = task != null ? task : new Todo("");
+        }
+        return tasks;
+    }
+}
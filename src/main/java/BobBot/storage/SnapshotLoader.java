@@ -0,0 +1,170 @@
+package bobbot.storage;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+
+import bobbot.task.Task;
+
+/**
+ * Loads snapshot files using every available core.
+ *
+ * <p>Large files are memory-mapped rather than copied onto the heap. The contents are
+ * split into chunks that end on a line or record boundary, the chunks are parsed in
+ * parallel on the common {@link ForkJoinPool}, and the results are stitched back together
+ * in file order. The checksum needed for the journal fingerprint is computed alongside.
+ * Segmented task files are loaded a segment per task instead.
+ */
+final class SnapshotLoader {
+    private static final int CHUNK_BYTES = 1 << 20;
+    private static final int MIN_MAPPED_BYTES = 1 << 20;
+
+    /**
+     * Result of loading a snapshot file.
+     */
+    static final class Snapshot {
+        private final Storage.SnapshotFormat format;
+        private final String fingerprint;
+
+        private Snapshot(Storage.SnapshotFormat format, String fingerprint) {
+            this.format = format;
+            this.fingerprint = fingerprint;
+        }
+
+        Storage.SnapshotFormat getFormat() {
+            return format;
+        }
+
+        String getFingerprint() {
+            return fingerprint;
+        }
+    }
+
+    private SnapshotLoader() {
+    }
+
+    /**
+     * Reads the snapshot file and adds its tasks to the given list, in file order.
+     * The file format is detected from its first bytes.
+     *
+     * @param file Snapshot file to read, which must exist.
+     * @param tasks List to add the loaded tasks to.
+     * @return the detected format and the fingerprint of the file contents.
+     * @throws IOException If an error occurs while reading the file.
+     */
+    static Snapshot load(Path file, ArrayList<Task> tasks) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Task file is too large bobz");
+            }
+            ByteBuffer contents = size >= MIN_MAPPED_BYTES
+                    ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+                    : readFully(channel, (int) size);
+
+            ForkJoinTask<String> fingerprint = ForkJoinPool.commonPool()
+                    .submit(() -> Storage.fingerprintOf(contents.duplicate()));
+
+            Storage.SnapshotFormat format;
+            if (BinaryTaskFormat.isBinary(contents)) {
+                ByteBuffer records = contents.duplicate();
+                tasks.ensureCapacity(tasks.size() + BinaryTaskFormat.readHeader(records));
+                parseChunks(BinaryTaskFormat.splitRecords(records, CHUNK_BYTES), BinaryTaskFormat::decodeRecords,
+                        tasks);
+                format = Storage.SnapshotFormat.BINARY;
+            } else {
+                parseChunks(splitLines(contents, CHUNK_BYTES), DisplayTaskFormat::parseLines, tasks);
+                format = Storage.SnapshotFormat.DISPLAY_TEXT;
+            }
+            return new Snapshot(format, fingerprint.join());
+        }
+    }
+
+    /**
+     * Reads every segment listed in the manifest, in parallel, and adds their tasks to the
+     * given list in manifest order.
+     *
+     * @param segmentDir Directory holding the segment files.
+     * @param manifest Manifest listing the segments to read.
+     * @param tasks List to add the loaded tasks to.
+     * @throws IOException If a segment file cannot be read.
+     */
+    static void loadSegments(Path segmentDir, SegmentManifest manifest, ArrayList<Task> tasks) throws IOException {
+        tasks.ensureCapacity(tasks.size() + manifest.taskCount());
+        List<ForkJoinTask<Task[]>> segments = new ArrayList<>(manifest.segmentCount());
+        for (int i = 0; i < manifest.segmentCount(); i++) {
+            int segment = i;
+            segments.add(ForkJoinPool.commonPool().submit(() -> manifest.readSegment(segmentDir, segment)));
+        }
+        for (ForkJoinTask<Task[]> segment : segments) {
+            try {
+                tasks.addAll(Arrays.asList(segment.get()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while loading tasks bobz");
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, int size) throws IOException {
+        ByteBuffer contents = ByteBuffer.allocate(size);
+        while (contents.hasRemaining() && channel.read(contents) >= 0) {
+            // Keep reading until the buffer is full or the file ends
+        }
+        return contents.flip();
+    }
+
+    /**
+     * Splits text into chunks of roughly the given size that each end just after a newline.
+     *
+     * @param contents UTF-8 text, positioned at its start.
+     * @param chunkBytes Approximate number of bytes per chunk.
+     * @return the chunks, in file order.
+     */
+    private static List<ByteBuffer> splitLines(ByteBuffer contents, int chunkBytes) {
+        List<ByteBuffer> chunks = new ArrayList<>();
+        int chunkStart = contents.position();
+        int end = contents.limit();
+        while (chunkStart < end) {
+            int chunkEnd = Math.min(end, chunkStart + chunkBytes);
+            while (chunkEnd < end && contents.get(chunkEnd - 1) != '\n') {
+                chunkEnd++;
+            }
+            chunks.add(contents.slice(chunkStart, chunkEnd - chunkStart));
+            chunkStart = chunkEnd;
+        }
+        return chunks;
+    }
+
+    private static void parseChunks(List<ByteBuffer> chunks, BiConsumer<ByteBuffer, List<Task>> parser,
+            List<Task> tasks) {
+        if (chunks.size() <= 1) {
+            chunks.forEach(chunk -> parser.accept(chunk, tasks));
+            return;
+        }
+
+        List<ForkJoinTask<List<Task>>> parsedChunks = new ArrayList<>(chunks.size());
+        for (ByteBuffer chunk : chunks) {
+            parsedChunks.add(ForkJoinPool.commonPool().submit(() -> {
+                List<Task> parsed = new ArrayList<>();
+                parser.accept(chunk, parsed);
+                return parsed;
+            }));
+        }
+        for (ForkJoinTask<List<Task>> parsedChunk : parsedChunks) {
+            tasks.addAll(parsedChunk.join());
+        }
+    }
+}
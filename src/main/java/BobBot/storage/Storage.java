@@ -1,23 +1,96 @@
 package bobbot.storage;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
 
-import bobbot.task.Deadline;
-import bobbot.task.Event;
+import bobbot.exception.BobException;
+import bobbot.metrics.BobBotMetrics;
 import bobbot.task.Task;
-import bobbot.task.Todo;
+import bobbot.tasklist.TaskList;
+import bobbot.tasklist.TaskSegment;
 
 /**
  * Handles saving and loading of tasks to/from a file.
- * Tasks are stored in a human-readable format that matches the display format.
+ * Tasks are stored in segments of a few thousand tasks each, every segment a separate file in
+ * the compact {@link BinaryTaskFormat}, and the task file itself holds the {@link SegmentManifest}
+ * that lists them. Files in the older single-file binary format, or in the human-readable format
+ * that matches the display format, are still recognized when loading and are migrated to
+ * segments the first time they are loaded.
+ *
+ * <p>Single mutations are not written to the task file directly. Instead, each one is
+ * appended as a small record to a journal file next to it, and the journal is replayed
+ * on top of the task file when loading. Once the journal grows as large as the list
+ * itself, it is folded into a fresh snapshot and starts over. Folding replays the journal
+ * over the segments on disk, and only the segments it changes are written again.
+ * A command that deletes or marks many tasks at once is journaled as one record that
+ * lists their positions, with runs of consecutive positions written as ranges. Undoing
+ * such a delete puts the tasks back with one record as well.
+ *
+ * <p>Journal records are written behind the caller's back by a {@link JournalWriter},
+ * so recording a change only costs queueing a line. Use {@link #flush()} to wait
+ * until everything recorded so far is on disk. Between {@link #beginBatch()} and
+ * {@link #commitBatch()}, records are held back and then written together, or dropped
+ * by {@link #discardBatch()}.
+ *
+ * <p>Large task files are opened segment by segment by {@link #loadTaskList()}, so their
+ * tasks are only decoded when they are used.
+ *
+ * <p>Loads, journal appends and snapshot writes are timed, and the bytes they write counted,
+ * in the {@link BobBotMetrics} given to the constructor.
  */
 public class Storage {
+    /**
+     * Formats a snapshot file can be found in when loading.
+     */
+    enum SnapshotFormat {
+        MISSING, DISPLAY_TEXT, BINARY, SEGMENTED
+    }
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String SEGMENT_DIR_SUFFIX = ".segments";
+    private static final String LEGACY_INDEX_SUFFIX = ".idx";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String SNAPSHOT_HEADER = "S";
+    private static final String ADD_RECORD = "A";
+    private static final String INSERT_RECORD = "I";
+    private static final String INSERT_ALL_RECORD = "B";
+    private static final String DELETE_RECORD = "D";
+    private static final String MARK_RECORD = "M";
+    private static final String UNMARK_RECORD = "U";
+    private static final String FIELD_SEPARATOR = "|";
+    private static final String INDEX_SEPARATOR = ",";
+    private static final String RANGE_SEPARATOR = "-";
+    private static final String EMPTY_SNAPSHOT_FINGERPRINT = fingerprintOf(new byte[0]);
+    private static final int MIN_COMPACTION_THRESHOLD = 1000;
+    private static final int SEGMENT_LENGTH = 4096;
+    private static final int MIN_LAZY_LOAD_TASKS = 200_000;
+    private static final String TASK_STORE_PROPERTY = "bobbot.taskStore";
+    private static final String COLUMNAR_TASK_STORE = "columnar";
+
     private final String filePath;
+    private final String journalPath;
+    private final Path segmentDir;
+    private final JournalWriter journalWriter;
+    private final BobBotMetrics metrics;
+    private final List<Long> retiredSegmentIds = new ArrayList<>();
+    private List<String> batchRecords;
+    private boolean isLazilyLoaded;
+    private String snapshotFingerprint;
+    private int journalRecordCount;
+    private int taskCount;
 
     /**
      * Creates a new Storage instance with the specified file path.
@@ -25,158 +98,674 @@ public class Storage {
      * @param filePath Path to the file where tasks will be stored.
      */
     public Storage(String filePath) {
+        this(filePath, new BobBotMetrics());
+    }
+
+    /**
+     * Creates a new Storage instance with the specified file path, which records what it
+     * does in the given metrics.
+     *
+     * @param filePath Path to the file where tasks will be stored.
+     * @param metrics Metrics to record the loads and writes in.
+     */
+    public Storage(String filePath, BobBotMetrics metrics) {
+        assert metrics != null;
+
+        this.metrics = metrics;
         this.filePath = filePath;
+        this.journalPath = filePath + JOURNAL_SUFFIX;
+        this.segmentDir = Path.of(filePath + SEGMENT_DIR_SUFFIX);
+        this.journalWriter = new JournalWriter(this::writeRecords, "bobbot-storage-" + new File(filePath).getName());
     }
 
     /**
      * Saves the given list of tasks to the file.
      * Creates the data directory if it doesn't exist.
-     * Tasks are saved in display format with numbering.
+     * Every segment is written again, in the binary format.
+     * Pending journal records are flushed first, and the journal is reset afterwards
+     * since the snapshot now contains every change.
      *
      * @param tasks List of tasks to save.
      * @throws IOException If an error occurs while writing to the file.
      */
     public void saveTasks(ArrayList<Task> tasks) throws IOException {
-        createDataDirectoryIfNotExists();
-        
-        FileWriter fw = new FileWriter(filePath);
-        for (int i = 0; i < tasks.size(); i++) {
-            fw.write((i + 1) + ". " + tasks.get(i).toString() + System.lineSeparator());
-        }
-        fw.close();
+        journalWriter.flush();
+        writeSnapshot(new TaskList(tasks).getSegments(), null);
     }
 
     /**
-     * Loads tasks from the file.
+     * Loads tasks from the file and replays any journal records written since the last snapshot.
+     * The file format is detected automatically, and a file in one of the older formats is
+     * rewritten as segments.
      * Returns an empty list if the file doesn't exist.
-     * Skips any lines that cannot be parsed correctly.
+     * Skips any tasks that cannot be parsed correctly.
      *
      * @return ArrayList of tasks loaded from the file.
      */
-    public ArrayList<Task> loadTasks() {
+    public synchronized ArrayList<Task> loadTasks() {
+        long start = System.nanoTime();
+        try {
+            return readTasks();
+        } finally {
+            metrics.recordLoad(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Loads the tasks fully, see {@link #loadTasks()}.
+     */
+    private ArrayList<Task> readTasks() {
         ArrayList<Task> tasks = new ArrayList<>();
         try {
-            File f = new File(filePath);
-            Scanner s = new Scanner(f);
-            while (s.hasNext()) {
-                String line = s.nextLine().trim();
-                if (!line.isEmpty()) {
-                    Task task = parseTaskFromDisplayFormat(line);
-                    if (task != null) {
-                        tasks.add(task);
-                    }
-                }
+            SnapshotFormat format = readSnapshot(tasks);
+            if (format == SnapshotFormat.MISSING && !Files.exists(Path.of(journalPath))) {
+                // Neither file exists yet, start with empty list
+                System.out.println("Error loading tasks bobz: File not found bobz");
+            }
+            TaskList taskList = new TaskList(tasks);
+            replayJournal(taskList);
+            if (format == SnapshotFormat.DISPLAY_TEXT || format == SnapshotFormat.BINARY) {
+                writeSnapshot(taskList.getSegments(), null);
             }
-            s.close();
-        } catch (FileNotFoundException e) {
-            // File doesn't exist yet, start with empty list
-            System.out.println("Error loading tasks bobz: File not found bobz");
         } catch (Exception e) {
             System.out.println("Error loading tasks bobz: " + e.getMessage());
         }
+        taskCount = tasks.size();
         return tasks;
     }
 
-    private void createDataDirectoryIfNotExists() {
-        File dataDir = new File(filePath).getParentFile();
-        if (!dataDir.exists()) {
-            dataDir.mkdirs();
+    /**
+     * Loads the tasks as a TaskList. Large segmented task files are opened lazily, so only
+     * the segments that are actually used get decoded, and the returned TaskList keeps track
+     * of the segments it changes. Smaller files, and files in the older formats, are loaded
+     * fully as with {@link #loadTasks()}, into a columnar TaskList if the
+     * {@code bobbot.taskStore} system property is set to {@code columnar}.
+     *
+     * @return TaskList of the tasks in the file, with the journal replayed.
+     */
+    public synchronized TaskList loadTaskList() {
+        long start = System.nanoTime();
+        try {
+            return openTaskList();
+        } finally {
+            metrics.recordLoad(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Loads the tasks as a TaskList, see {@link #loadTaskList()}.
+     */
+    private TaskList openTaskList() {
+        try {
+            SegmentManifest manifest = SegmentManifest.readIfPresent(Path.of(filePath));
+            if (manifest != null && manifest.taskCount() >= MIN_LAZY_LOAD_TASKS) {
+                deleteUnlistedSegments(manifest);
+                TaskList tasks = openSegments(manifest);
+                taskCount = tasks.size();
+                isLazilyLoaded = true;
+                return tasks;
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error loading tasks bobz: " + e.getMessage());
+        }
+        ArrayList<Task> tasks = readTasks();
+        return COLUMNAR_TASK_STORE.equals(System.getProperty(TASK_STORE_PROPERTY))
+                ? TaskList.ofColumns(tasks)
+                : new TaskList(tasks);
+    }
+
+    /**
+     * Records that a task was added to the end of the list.
+     *
+     * @param task Task that was added.
+     * @throws IOException If the record cannot be queued for writing.
+     */
+    public void appendAdd(Task task) throws IOException {
+        record(ADD_RECORD + FIELD_SEPARATOR + task);
+    }
+
+    /**
+     * Records that a task was inserted at the given position.
+     *
+     * @param index 0-based position the task was inserted at.
+     * @param task Task that was inserted.
+     * @throws IOException If the record cannot be queued for writing.
+     */
+    public void appendInsert(int index, Task task) throws IOException {
+        record(INSERT_RECORD + FIELD_SEPARATOR + index + FIELD_SEPARATOR + task);
+    }
+
+    /**
+     * Records that tasks were inserted at once so that they ended up at the given positions,
+     * in a single record that holds the tasks in the binary format, so that undoing a large
+     * delete is journaled as one record, like the delete itself.
+     *
+     * @param indices 0-based positions the tasks ended up at, in increasing order.
+     * @param tasks Tasks that were inserted, in the same order.
+     * @throws IOException If the record cannot be queued for writing.
+     */
+    public void appendInsertAll(int[] indices, List<Task> tasks) throws IOException {
+        record(INSERT_ALL_RECORD + FIELD_SEPARATOR + formatIndices(indices) + FIELD_SEPARATOR
+                + Base64.getEncoder().encodeToString(BinaryTaskFormat.encode(tasks)));
+    }
+
+    /**
+     * Records that the task at the given position was deleted.
+     *
+     * @param index 0-based position of the deleted task.
+     * @throws IOException If the record cannot be queued for writing.
+     */
+    public void appendDelete(int index) throws IOException {
+        record(DELETE_RECORD + FIELD_SEPARATOR + index);
+    }
+
+    /**
+     * Records that the tasks at the given positions were deleted at once, in a single record.
+     *
+     * @param indices 0-based positions of the deleted tasks, in increasing order.
+     * @throws IOException If the record cannot be queued for writing.
+     */
+    public void appendDeleteAll(int[] indices) throws IOException {
+        record(DELETE_RECORD + FIELD_SEPARATOR + formatIndices(indices));
+    }
+
+    /**
+     * Records that the task at the given position was marked as done or not done.
+     *
+     * @param index 0-based position of the task.
+     * @param isDone Whether the task is now done.
+     * @throws IOException If the record cannot be queued for writing.
+     */
+    public void appendMark(int index, boolean isDone) throws IOException {
+        record((isDone ? MARK_RECORD : UNMARK_RECORD) + FIELD_SEPARATOR + index);
+    }
+
+    /**
+     * Records that the tasks at the given positions were all marked as done or not done,
+     * in a single record.
+     *
+     * @param indices 0-based positions of the tasks, in increasing order.
+     * @param isDone Whether the tasks are now done.
+     * @throws IOException If the record cannot be queued for writing.
+     */
+    public void appendMarkAll(int[] indices, boolean isDone) throws IOException {
+        record((isDone ? MARK_RECORD : UNMARK_RECORD) + FIELD_SEPARATOR + formatIndices(indices));
+    }
+
+    /**
+     * Starts holding back the changes recorded from now on, so that they can be written
+     * together by {@link #commitBatch()} or dropped by {@link #discardBatch()}.
+     */
+    public void beginBatch() {
+        assert batchRecords == null : "Batches cannot be nested bobz";
+        batchRecords = new ArrayList<>();
+    }
+
+    /**
+     * Queues the changes recorded since {@link #beginBatch()} to be written in one write.
+     * Does not wait for the disk, so callers that hold a lock can release it first and then
+     * wait with {@link #flush()}.
+     *
+     * @throws IOException If the changes cannot be queued for writing.
+     */
+    public void commitBatch() throws IOException {
+        assert batchRecords != null;
+        List<String> records = batchRecords;
+        batchRecords = null;
+        if (!records.isEmpty()) {
+            journalWriter.submitAll(records);
+        }
+    }
+
+    /**
+     * Drops the changes recorded since {@link #beginBatch()}, which are never written.
+     */
+    public void discardBatch() {
+        batchRecords = null;
+    }
+
+    private void record(String record) throws IOException {
+        if (batchRecords != null) {
+            batchRecords.add(record);
+        } else {
+            journalWriter.submit(record);
         }
     }
 
     /**
-     * Parses a task from the saved display format.
-     * Handles numbered lines like "1. [T][ ] task description".
+     * Waits until every change recorded so far has been written and forced to disk.
      *
-     * @param line Line from the file to parse.
-     * @return Task object if parsing succeeds, null otherwise.
+     * @throws IOException If writing any of those changes failed.
      */
-    private Task parseTaskFromDisplayFormat(String line) {
+    public void flush() throws IOException {
+        journalWriter.flush();
+    }
+
+    /**
+     * Flushes every recorded change and stops the background writer.
+     * No further changes can be recorded afterwards.
+     *
+     * @throws IOException If writing the pending changes failed.
+     */
+    public void close() throws IOException {
         try {
-            String taskString = extractTaskString(line);
-            if (taskString == null) {
-                return null;
-            }
-            
-            char taskType = taskString.charAt(1);
-            boolean isDone = taskString.charAt(3) == 'X';
-            String content = taskString.substring(6);
-            
-            Task task = createTaskByType(taskType, content);
-            
-            if (task != null && isDone) {
-                task.markAsDone();
-            }
-            
-            return task;
-        } catch (Exception e) {
-            return null;
+            journalWriter.close();
+        } finally {
+            deleteRetiredSegments();
+        }
+    }
+
+    /**
+     * Appends a batch of records to the journal, then compacts the journal into a fresh
+     * snapshot if it has grown as large as the list. Runs on the journal writer thread.
+     *
+     * @param records Records to append, in the order they were recorded.
+     * @param isForced Whether the records must reach the disk before returning.
+     * @throws IOException If an error occurs while writing.
+     */
+    private synchronized void writeRecords(List<String> records, boolean isForced) throws IOException {
+        createDataDirectoryIfNotExists();
+
+        StringBuilder content = new StringBuilder();
+        Path journal = Path.of(journalPath);
+        if (!Files.exists(journal)) {
+            content.append(journalHeader(currentSnapshotFingerprint())).append(System.lineSeparator());
+        }
+        for (String record : records) {
+            content.append(record).append(System.lineSeparator());
+            taskCount += sizeChangeOf(record);
+        }
+
+        long start = System.nanoTime();
+        boolean isWritten = false;
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                metrics.recordBytesWritten(channel.write(buffer));
+            }
+            if (isForced) {
+                channel.force(false);
+            }
+            isWritten = true;
+        } finally {
+            metrics.recordJournalWrite(System.nanoTime() - start, !isWritten);
         }
+        journalRecordCount += records.size();
+
+        if (journalRecordCount >= Math.max(MIN_COMPACTION_THRESHOLD, taskCount)) {
+            compact();
+        }
+    }
+
+    /**
+     * Folds the journal into a fresh snapshot by replaying it against the snapshot on disk.
+     * Works purely from the files, so it never has to coordinate with the in-memory list.
+     * The journal is replayed over the segments lazily, so only the segments it touches are
+     * decoded, and only those are written again.
+     *
+     * @throws IOException If an error occurs while reading or writing.
+     */
+    private void compact() throws IOException {
+        SegmentManifest manifest = SegmentManifest.readIfPresent(Path.of(filePath));
+        if (manifest != null) {
+            writeSnapshot(openSegments(manifest).getSegments(), manifest);
+            return;
+        }
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        readSnapshot(tasks);
+        TaskList taskList = new TaskList(tasks);
+        replayJournal(taskList);
+        writeSnapshot(taskList.getSegments(), null);
+    }
+
+    /**
+     * Opens the segments of the given manifest lazily and replays the journal over them.
+     */
+    private TaskList openSegments(SegmentManifest manifest) throws IOException {
+        TaskList tasks = new TaskList(new PagedTaskSource(segmentDir, manifest));
+        snapshotFingerprint = manifest.getFingerprint();
+        replayJournal(tasks);
+        return tasks;
+    }
+
+    /**
+     * Writes the changed segments to new segment files, then swaps in a manifest listing
+     * them alongside the unchanged ones. Each run of consecutive changed segments is
+     * written as evenly sized segments of at most {@link #SEGMENT_LENGTH} tasks.
+     *
+     * @param segments Segments of the list to save, in list order.
+     * @param base Manifest the unchanged segments refer to, or null if every segment is changed.
+     * @throws IOException If an error occurs while writing.
+     */
+    private synchronized void writeSnapshot(List<TaskSegment> segments, SegmentManifest base) throws IOException {
+        long start = System.nanoTime();
+        boolean isWritten = false;
+        try {
+            writeSnapshotFiles(segments, base);
+            isWritten = true;
+        } finally {
+            metrics.recordSnapshotWrite(System.nanoTime() - start, !isWritten);
+        }
+    }
+
+    /**
+     * Writes a snapshot, see {@link #writeSnapshot(List, SegmentManifest)}.
+     */
+    private void writeSnapshotFiles(List<TaskSegment> segments, SegmentManifest base) throws IOException {
+        createDataDirectoryIfNotExists();
+        Files.createDirectories(segmentDir);
+
+        SegmentManifest previous = SegmentManifest.readIfPresent(Path.of(filePath));
+        long nextSegmentId = previous == null ? 0 : previous.getNextSegmentId();
+        List<Long> segmentIds = new ArrayList<>();
+        List<Integer> segmentLengths = new ArrayList<>();
+        List<Task> changedRun = new ArrayList<>();
+        for (TaskSegment segment : segments) {
+            if (segment.isChanged()) {
+                changedRun.addAll(segment.getTasks());
+                continue;
+            }
+            nextSegmentId = writeSegments(changedRun, nextSegmentId, segmentIds, segmentLengths);
+            assert base != null;
+            segmentIds.add(base.segmentId(segment.getSourceSegment()));
+            segmentLengths.add(segment.size());
+        }
+        nextSegmentId = writeSegments(changedRun, nextSegmentId, segmentIds, segmentLengths);
+
+        SegmentManifest manifest = SegmentManifest.of(nextSegmentId, segmentIds, segmentLengths);
+        String fingerprint = manifest.getFingerprint();
+
+        // Swap in the manifest before its fresh journal, so a crash in between leaves the old
+        // journal behind, whose fingerprint no longer matches and is therefore ignored.
+        Path tempSnapshot = Path.of(filePath + TEMP_SUFFIX);
+        Path tempJournal = Path.of(journalPath + TEMP_SUFFIX);
+        byte[] manifestBytes = manifest.getBytes();
+        byte[] headerBytes = (journalHeader(fingerprint) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        Files.write(tempSnapshot, manifestBytes);
+        Files.write(tempJournal, headerBytes);
+        metrics.recordBytesWritten(manifestBytes.length + headerBytes.length);
+        Files.move(tempSnapshot, Path.of(filePath), StandardCopyOption.REPLACE_EXISTING);
+        Files.move(tempJournal, Path.of(journalPath), StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(Path.of(filePath + LEGACY_INDEX_SUFFIX));
+        if (previous != null) {
+            retireSegments(previous, segmentIds);
+        }
+
+        snapshotFingerprint = fingerprint;
+        journalRecordCount = 0;
+        taskCount = manifest.taskCount();
     }
 
-    private String extractTaskString(String line) {
-        int dotIndex = line.indexOf(". ");
-        if (dotIndex == -1) {
-            return null;
+    /**
+     * Writes a run of changed tasks, if any, as evenly sized new segment files and clears it.
+     *
+     * @return the id to give the next segment.
+     */
+    private long writeSegments(List<Task> run, long nextSegmentId, List<Long> segmentIds,
+            List<Integer> segmentLengths) throws IOException {
+        int segmentCount = (run.size() + SEGMENT_LENGTH - 1) / SEGMENT_LENGTH;
+        int start = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            int end = (int) ((long) run.size() * (i + 1) / segmentCount);
+            List<Task> tasks = run.subList(start, end);
+            byte[] bytes = BinaryTaskFormat.encode(tasks);
+            Files.write(SegmentManifest.segmentFile(segmentDir, nextSegmentId), bytes);
+            metrics.recordBytesWritten(bytes.length);
+            segmentIds.add(nextSegmentId++);
+            segmentLengths.add(tasks.size());
+            start = end;
         }
-        String taskString = line.substring(dotIndex + 2);
-        
-        if (!taskString.startsWith("[")) {
-            return null;
+        run.clear();
+        return nextSegmentId;
+    }
+
+    /**
+     * Deletes the segments of the previous manifest that the new one no longer lists.
+     * While a lazily loaded list may still read them, they are only deleted on {@link #close()}.
+     */
+    private void retireSegments(SegmentManifest previous, List<Long> listedIds) throws IOException {
+        Set<Long> listed = new HashSet<>(listedIds);
+        for (int i = 0; i < previous.segmentCount(); i++) {
+            long segmentId = previous.segmentId(i);
+            if (listed.contains(segmentId)) {
+                continue;
+            }
+            if (isLazilyLoaded) {
+                retiredSegmentIds.add(segmentId);
+            } else {
+                Files.deleteIfExists(SegmentManifest.segmentFile(segmentDir, segmentId));
+            }
         }
-        
-        return taskString;
     }
 
-    private Task createTaskByType(char taskType, String content) {
-        switch (taskType) {
-        case 'T':
-            return new Todo(content);
-        case 'D':
-            return parseDeadlineTask(content);
-        case 'E':
-            return parseEventTask(content);
-        default:
-            return null;
+    private synchronized void deleteRetiredSegments() throws IOException {
+        for (long segmentId : retiredSegmentIds) {
+            Files.deleteIfExists(SegmentManifest.segmentFile(segmentDir, segmentId));
         }
+        retiredSegmentIds.clear();
     }
 
     /**
-     * Parses a deadline task from its stored content format.
-     * Extracts the description and deadline information from the stored format.
+     * Deletes segment files left behind by a save that was interrupted before its manifest
+     * was swapped in, or by a run that ended without {@link #close()}.
+     */
+    private void deleteUnlistedSegments(SegmentManifest manifest) throws IOException {
+        Set<Long> listed = new HashSet<>();
+        for (int i = 0; i < manifest.segmentCount(); i++) {
+            listed.add(manifest.segmentId(i));
+        }
+        for (long segmentId : SegmentManifest.listSegmentIds(segmentDir)) {
+            if (!listed.contains(segmentId)) {
+                Files.deleteIfExists(SegmentManifest.segmentFile(segmentDir, segmentId));
+            }
+        }
+    }
+
+    /**
+     * Reads the tasks stored in the snapshot file and remembers its fingerprint.
      *
-     * @param content the content string for the deadline task
-     * @return a Deadline task object, or null if parsing fails
+     * @param tasks List to add the loaded tasks to.
+     * @return the format the snapshot file was stored in.
+     * @throws IOException If an error occurs while reading the file.
      */
-    private Task parseDeadlineTask(String content) {
-        // Find the " (by: " part
-        int byIndex = content.lastIndexOf(" (by: ");
-        if (byIndex != -1) {
-            String description = content.substring(0, byIndex);
-            String deadline = content.substring(byIndex + 6, content.length() - 1); // Remove the closing ")"
-            return new Deadline(description, deadline);
+    private SnapshotFormat readSnapshot(ArrayList<Task> tasks) throws IOException {
+        snapshotFingerprint = EMPTY_SNAPSHOT_FINGERPRINT;
+        Path snapshot = Path.of(filePath);
+        if (!Files.exists(snapshot)) {
+            return SnapshotFormat.MISSING;
+        }
+
+        SegmentManifest manifest = SegmentManifest.readIfPresent(snapshot);
+        if (manifest != null) {
+            if (!isLazilyLoaded) {
+                deleteUnlistedSegments(manifest);
+            }
+            SnapshotLoader.loadSegments(segmentDir, manifest, tasks);
+            snapshotFingerprint = manifest.getFingerprint();
+            return SnapshotFormat.SEGMENTED;
+        }
+
+        SnapshotLoader.Snapshot loaded = SnapshotLoader.load(snapshot, tasks);
+        snapshotFingerprint = loaded.getFingerprint();
+        return loaded.getFormat();
+    }
+
+    private String currentSnapshotFingerprint() throws IOException {
+        if (snapshotFingerprint == null) {
+            Path snapshot = Path.of(filePath);
+            snapshotFingerprint = fingerprintOf(Files.exists(snapshot) ? Files.readAllBytes(snapshot) : new byte[0]);
         }
-        return null;
+        return snapshotFingerprint;
     }
 
     /**
-     * Parses an event task from its stored content format.
-     * Extracts the description, start time, and end time from the stored format.
+     * Applies the journal records on top of the tasks loaded from the snapshot.
+     * A journal written against a different snapshot is discarded, and records that
+     * cannot be parsed, such as a line cut short by a crash, are skipped.
      *
-     * @param content the content string for the event task
-     * @return an Event task object, or null if parsing fails
+     * @param tasks Tasks loaded from the snapshot.
+     * @throws IOException If an error occurs while reading the journal.
+     */
+    private void replayJournal(TaskList tasks) throws IOException {
+        journalRecordCount = 0;
+        Path journal = Path.of(journalPath);
+        if (!Files.exists(journal)) {
+            return;
+        }
+
+        List<String> records = Files.readAllLines(journal, StandardCharsets.UTF_8);
+        if (records.isEmpty() || !records.get(0).equals(journalHeader(snapshotFingerprint))) {
+            Files.delete(journal);
+            return;
+        }
+        for (int i = 1; i < records.size(); i++) {
+            applyRecord(tasks, records.get(i));
+            journalRecordCount++;
+        }
+    }
+
+    private static int sizeChangeOf(String record) {
+        if (record.startsWith(ADD_RECORD) || record.startsWith(INSERT_RECORD)) {
+            return 1;
+        } else if (record.startsWith(INSERT_ALL_RECORD)) {
+            return parseIndices(record.split("\\" + FIELD_SEPARATOR, 3)[1]).length;
+        } else if (record.startsWith(DELETE_RECORD)) {
+            return -parseIndices(record.substring(2)).length;
+        }
+        return 0;
+    }
+
+    /**
+     * Writes increasing indices as a comma-separated list in which runs of consecutive
+     * indices are shortened to ranges, such as "2-899,1000".
      */
-    private Task parseEventTask(String content) {
-        // Find the " (from: " part
-        int fromIndex = content.lastIndexOf(" (from: ");
-        if (fromIndex != -1) {
-            String description = content.substring(0, fromIndex);
-            String timeInfo = content.substring(fromIndex + 8, content.length() - 1); // Remove the closing ")"
-            String[] timeParts = timeInfo.split(" to: ");
-            if (timeParts.length == 2) {
-                return new Event(description, timeParts[0], timeParts[1]);
+    static String formatIndices(int[] indices) {
+        StringBuilder formatted = new StringBuilder();
+        for (int i = 0; i < indices.length; i++) {
+            int runEnd = i;
+            while (runEnd + 1 < indices.length && indices[runEnd + 1] == indices[runEnd] + 1) {
+                runEnd++;
+            }
+            if (formatted.length() > 0) {
+                formatted.append(INDEX_SEPARATOR);
+            }
+            formatted.append(indices[i]);
+            if (runEnd > i) {
+                formatted.append(RANGE_SEPARATOR).append(indices[runEnd]);
+            }
+            i = runEnd;
+        }
+        return formatted.toString();
+    }
+
+    /**
+     * Reads indices written by {@link #formatIndices(int[])}. A single index is a list of one.
+     */
+    static int[] parseIndices(String formatted) {
+        String[] parts = formatted.split(INDEX_SEPARATOR);
+        int count = 0;
+        int[][] ranges = new int[parts.length][];
+        for (int i = 0; i < parts.length; i++) {
+            int dash = parts[i].indexOf(RANGE_SEPARATOR);
+            int first = Integer.parseInt(dash < 0 ? parts[i] : parts[i].substring(0, dash));
+            int last = dash < 0 ? first : Integer.parseInt(parts[i].substring(dash + 1));
+            if (last < first) {
+                throw new NumberFormatException("Invalid index range " + parts[i]);
+            }
+            ranges[i] = new int[] {first, last};
+            count = Math.addExact(count, last - first + 1);
+        }
+        int[] indices = new int[count];
+        int next = 0;
+        for (int[] range : ranges) {
+            for (int index = range[0]; index <= range[1]; index++) {
+                indices[next++] = index;
+            }
+        }
+        return indices;
+    }
+
+    private void applyRecord(TaskList tasks, String record) {
+        String[] fields = record.split("\\" + FIELD_SEPARATOR, 3);
+        try {
+            switch (fields[0]) {
+            case ADD_RECORD:
+                addIfPresent(tasks, -1, DisplayTaskFormat.parseTaskString(record.substring(2)));
+                break;
+            case INSERT_RECORD:
+                addIfPresent(tasks, Integer.parseInt(fields[1]), DisplayTaskFormat.parseTaskString(fields[2]));
+                break;
+            case INSERT_ALL_RECORD:
+                int[] insertedIndices = parseIndices(fields[1]);
+                List<Task> insertedTasks = new ArrayList<>();
+                BinaryTaskFormat.decode(ByteBuffer.wrap(Base64.getDecoder().decode(fields[2])), insertedTasks);
+                if (insertedTasks.size() == insertedIndices.length) {
+                    tasks.insertTasks(insertedIndices, insertedTasks);
+                }
+                break;
+            case DELETE_RECORD:
+                tasks.deleteTasks(parseIndices(fields[1]));
+                break;
+            case MARK_RECORD:
+            case UNMARK_RECORD:
+                int[] indices = parseIndices(fields[1]);
+                for (int index : indices) {
+                    tasks.markTask(index, fields[0].equals(MARK_RECORD));
+                }
+                break;
+            default:
+                break;
             }
+        } catch (BobException | IOException | RuntimeException e) {
+            // Skip records that do not fit the list, e.g. a partially written last line
+        }
+    }
+
+    /**
+     * Adds a task parsed from a journal record, at the end of the list if the index is negative.
+     */
+    private void addIfPresent(TaskList tasks, int index, Task task) throws BobException {
+        if (task == null) {
+            return;
+        }
+        if (index < 0) {
+            tasks.addTask(task);
+        } else {
+            tasks.insertTask(index, task);
+        }
+    }
+
+    private static String journalHeader(String fingerprint) {
+        return SNAPSHOT_HEADER + FIELD_SEPARATOR + fingerprint;
+    }
+
+    private static String fingerprintOf(byte[] snapshotBytes) {
+        return fingerprintOf(ByteBuffer.wrap(snapshotBytes));
+    }
+
+    /**
+     * Computes the fingerprint that ties a journal to the snapshot it was written against.
+     *
+     * @param snapshotContents Contents of the snapshot file. Its position is advanced to the end.
+     * @return the CRC32 and length of the contents.
+     */
+    static String fingerprintOf(ByteBuffer snapshotContents) {
+        int length = snapshotContents.remaining();
+        CRC32 checksum = new CRC32();
+        checksum.update(snapshotContents);
+        return fingerprintOf(checksum.getValue(), length);
+    }
+
+    static String fingerprintOf(long checksum, long length) {
+        return Long.toHexString(checksum) + FIELD_SEPARATOR + length;
+    }
+
+    private void createDataDirectoryIfNotExists() {
+        File dataDir = new File(filePath).getAbsoluteFile().getParentFile();
+        if (!dataDir.exists()) {
+            dataDir.mkdirs();
         }
-        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,215 @@
+package bobbot.task;
+
+import java.text.ParsePosition;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalQuery;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Parses the dates and datetimes that deadlines and events accept.
+ * Dates are given as yyyy-MM-dd or MMM dd yyyy, and datetimes as yyyy-MM-dd HHmm or dd MMM yyyy HHmm.
+ * Anything else is free-form text, for which null is returned.
+ *
+ * <p>Input in one of the supported formats, and free-form text that cannot be in one of them,
+ * is recognized by a hand-written scanner that gives the same results as the
+ * {@link DateTimeFormatter}s without allocating or throwing. Only input that looks like a
+ * date but does not fit the scanner goes to the formatters, and those results are kept in
+ * a small cache of recently seen values.
+ */
+public final class DateParser {
+    static final DateTimeFormatter DATE_INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    static final DateTimeFormatter DATE_DISPLAY_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    static final DateTimeFormatter DATE_TIME_INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    static final DateTimeFormatter DATE_TIME_DISPLAY_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy HHmm");
+
+    private static final int ISO_DATE_LENGTH = "yyyy-MM-dd".length();
+    private static final int ISO_DATE_TIME_LENGTH = "yyyy-MM-dd HHmm".length();
+    private static final int CACHE_CAPACITY = 256;
+    private static final String[] MONTH_NAMES = monthNames();
+
+    private static final Map<String, Optional<LocalDate>> DATE_CACHE = newCache();
+    private static final Map<String, Optional<LocalDateTime>> DATE_TIME_CACHE = newCache();
+
+    private DateParser() {
+    }
+
+    /**
+     * Parses a date in yyyy-MM-dd or MMM dd yyyy format.
+     *
+     * @param text Date to parse.
+     * @return the parsed date, or null if the text is not in a supported format.
+     */
+    public static LocalDate parseDate(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+
+        if (text.length() == ISO_DATE_LENGTH && isIsoDateAt(text, 0)) {
+            return dateOf(digits(text, 0, 4), digits(text, 5, 2), digits(text, 8, 2));
+        }
+        int month = monthAt(text, 0);
+        if (month > 0) {
+            int end = MONTH_NAMES[month - 1].length();
+            if (text.length() == end + 8 && text.charAt(end) == ' ' && text.charAt(end + 3) == ' ') {
+                int day = digits(text, end + 1, 2);
+                int year = digits(text, end + 4, 4);
+                if (day >= 0 && year >= 0) {
+                    return dateOf(year, month, day);
+                }
+            }
+        } else if (!isDigit(text.charAt(0))) {
+            return null;
+        }
+
+        return DATE_CACHE.computeIfAbsent(text, key -> Optional.ofNullable(
+                parseWithFormatters(key, LocalDate::from, DATE_INPUT_FORMAT, DATE_DISPLAY_FORMAT))).orElse(null);
+    }
+
+    /**
+     * Parses a datetime in yyyy-MM-dd HHmm or dd MMM yyyy HHmm format.
+     *
+     * @param text Datetime to parse.
+     * @return the parsed datetime, or null if the text is not in a supported format.
+     */
+    public static LocalDateTime parseDateTime(String text) {
+        if (text == null || text.isEmpty() || !isDigit(text.charAt(0))) {
+            return null;
+        }
+
+        if (text.length() == ISO_DATE_TIME_LENGTH && isIsoDateAt(text, 0) && text.charAt(10) == ' ') {
+            return dateTimeOf(dateOf(digits(text, 0, 4), digits(text, 5, 2), digits(text, 8, 2)),
+                    digits(text, 11, 2), digits(text, 13, 2));
+        }
+        int month = text.length() > 3 && text.charAt(2) == ' ' ? monthAt(text, 3) : 0;
+        if (month > 0) {
+            int end = 3 + MONTH_NAMES[month - 1].length();
+            if (text.length() == end + 10 && text.charAt(end) == ' ' && text.charAt(end + 5) == ' ') {
+                int day = digits(text, 0, 2);
+                int year = digits(text, end + 1, 4);
+                int hour = digits(text, end + 6, 2);
+                int minute = digits(text, end + 8, 2);
+                if (day >= 0 && year >= 0 && hour >= 0 && minute >= 0) {
+                    return dateTimeOf(dateOf(year, month, day), hour, minute);
+                }
+            }
+        }
+
+        return DATE_TIME_CACHE.computeIfAbsent(text, key -> Optional.ofNullable(parseWithFormatters(key,
+                LocalDateTime::from, DATE_TIME_INPUT_FORMAT, DATE_TIME_DISPLAY_FORMAT))).orElse(null);
+    }
+
+    /**
+     * Checks for yyyy-MM-dd at the given position, looking at the shape only.
+     */
+    private static boolean isIsoDateAt(String text, int start) {
+        return text.charAt(start + 4) == '-' && text.charAt(start + 7) == '-'
+                && digits(text, start, 4) >= 0 && digits(text, start + 5, 2) >= 0 && digits(text, start + 8, 2) >= 0;
+    }
+
+    /**
+     * Resolves a date the way the formatters' default smart resolver does: a day past the end
+     * of the month is moved back to its last day, and anything else out of range is rejected.
+     */
+    private static LocalDate dateOf(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        return LocalDate.of(year, month, Math.min(day, YearMonth.of(year, month).lengthOfMonth()));
+    }
+
+    /**
+     * Adds a time to a date the way the smart resolver does, which reads 2400 as midnight of the next day.
+     */
+    private static LocalDateTime dateTimeOf(LocalDate date, int hour, int minute) {
+        if (date == null || minute > 59) {
+            return null;
+        }
+        if (hour == 24 && minute == 0) {
+            return date.plusDays(1).atStartOfDay();
+        }
+        return hour <= 23 ? LocalDateTime.of(date, LocalTime.of(hour, minute)) : null;
+    }
+
+    /**
+     * Reads a fixed number of ASCII digits.
+     *
+     * @return the value of the digits, or -1 if any of the characters is not a digit.
+     */
+    private static int digits(String text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Finds the abbreviated month name that the text has at the given position.
+     *
+     * @return the month number from 1 to 12, or 0 if there is no month name there.
+     */
+    private static int monthAt(String text, int start) {
+        for (int i = 0; i < MONTH_NAMES.length; i++) {
+            if (text.startsWith(MONTH_NAMES[i], start)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Parses text in one of the given formats, first checking without exceptions whether it fits at all.
+     */
+    private static <T> T parseWithFormatters(String text, TemporalQuery<T> query, DateTimeFormatter... formatters) {
+        for (DateTimeFormatter formatter : formatters) {
+            ParsePosition position = new ParsePosition(0);
+            if (formatter.parseUnresolved(text, position) == null || position.getIndex() != text.length()) {
+                continue;
+            }
+            try {
+                return formatter.parse(text, query);
+            } catch (DateTimeParseException e) {
+                // Fits the format but not the calendar, e.g. month 13
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the month names that the MMM pattern letter matches in the default locale.
+     */
+    private static String[] monthNames() {
+        DateTimeFormatter monthFormat = DateTimeFormatter.ofPattern("MMM");
+        String[] names = new String[12];
+        for (Month month : Month.values()) {
+            names[month.ordinal()] = monthFormat.format(month);
+        }
+        return names;
+    }
+
+    private static <T> Map<String, Optional<T>> newCache() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(CACHE_CAPACITY, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Optional<T>> eldest) {
+                return size() > CACHE_CAPACITY;
+            }
+        });
+    }
+}
@@ -1,17 +1,12 @@
 package bobbot.task;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 /**
  * Represents a deadline task with a due date.
  * Supports both formatted dates (yyyy-MM-dd) and free-form text.
  */
 public class Deadline extends Task {
-    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
-    
     protected LocalDate by;
     protected String originalInput;
 
@@ -24,29 +19,54 @@ public class Deadline extends Task {
      */
     public Deadline(String desc, String by) {
         super(desc);
-        this.originalInput = by;
-        this.by = parseDate(by);
+        this.originalInput = StringPool.intern(by);
+        this.by = DateParser.parseDate(by);
     }
 
     /**
-     * Parses a date string into a LocalDate object.
-     * Supports both input format (yyyy-MM-dd) and display format (MMM dd yyyy) for file loading.
+     * Creates a new Deadline task from an already parsed due date.
+     * Used when loading from storage, where dates are kept in parsed form.
      *
-     * @param date Date string to parse.
-     * @return LocalDate object if parsing succeeds, null otherwise.
+     * @param desc Description of the deadline task.
+     * @param by Parsed due date, or null if the deadline is free-form text.
+     * @param originalInput Free-form due date, only used when {@code by} is null.
+     */
+    public Deadline(String desc, LocalDate by, String originalInput) {
+        super(desc);
+        this.by = by;
+        this.originalInput = StringPool.intern(originalInput);
+    }
+
+    /**
+     * Creates a Deadline task from a parsed due date and texts that are used as they are.
+     *
+     * @param desc Description of the deadline task.
+     * @param by Parsed due date, or null if the deadline is free-form text.
+     * @param originalInput Free-form due date, only used when {@code by} is null.
+     * @param isDone Whether the task is done.
+     */
+    Deadline(String desc, LocalDate by, String originalInput, boolean isDone) {
+        super(desc, isDone);
+        this.by = by;
+        this.originalInput = originalInput;
+    }
+
+    /**
+     * Returns the parsed due date of this deadline.
+     *
+     * @return the due date, or null if the deadline was given as free-form text.
+     */
+    public LocalDate getBy() {
+        return by;
+    }
+
+    /**
+     * Returns the due date exactly as the user typed it.
+     *
+     * @return the original due date text, which may be null if the date was loaded in parsed form.
      */
-    private LocalDate parseDate(String date) {
-        try {
-            // parse input format
-            return LocalDate.parse(date, INPUT_FORMAT);
-        } catch (DateTimeParseException e1) {
-            try {
-                // parse when loading from file
-                return LocalDate.parse(date, DISPLAY_FORMAT);
-            } catch (DateTimeParseException e2) {
-                return null;
-            }
-        }
+    public String getOriginalInput() {
+        return originalInput;
     }
 
     /**
@@ -58,7 +78,7 @@ public class Deadline extends Task {
      */
     @Override
     public String toString() {
-        String dateDisplay = (by != null) ? by.format(DISPLAY_FORMAT) : originalInput;
+        String dateDisplay = (by != null) ? by.format(DateParser.DATE_DISPLAY_FORMAT) : originalInput;
         return "[D]" + super.toString() + " (by: " + dateDisplay + ")";
     }
 }
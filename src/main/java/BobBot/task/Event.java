@@ -1,17 +1,12 @@
 package bobbot.task;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 /**
  * Represents an event task with start and end times.
  * Supports both formatted datetime (yyyy-MM-dd HHmm) and free-form text.
  */
 public class Event extends Task {
-    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
-    private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy HHmm");
-
     protected LocalDateTime from;
     protected LocalDateTime to;
     protected String originalFromInput;
@@ -27,36 +22,84 @@ public class Event extends Task {
      */
     public Event(String desc, String from, String to) {
         super(desc);
-        this.originalFromInput = from;
-        this.originalToInput = to;
-        this.from = parseDateTime(from);
-        this.to = parseDateTime(to);
+        this.originalFromInput = StringPool.intern(from);
+        this.originalToInput = StringPool.intern(to);
+        this.from = DateParser.parseDateTime(from);
+        this.to = DateParser.parseDateTime(to);
+    }
+
+    /**
+     * Creates a new Event task from already parsed start and end times.
+     * Used when loading from storage, where datetimes are kept in parsed form.
+     *
+     * @param desc Description of the event task.
+     * @param from Parsed start time, or null if the start is free-form text.
+     * @param originalFromInput Free-form start time, only used when {@code from} is null.
+     * @param to Parsed end time, or null if the end is free-form text.
+     * @param originalToInput Free-form end time, only used when {@code to} is null.
+     */
+    public Event(String desc, LocalDateTime from, String originalFromInput, LocalDateTime to,
+            String originalToInput) {
+        super(desc);
+        this.from = from;
+        this.originalFromInput = StringPool.intern(originalFromInput);
+        this.to = to;
+        this.originalToInput = StringPool.intern(originalToInput);
+    }
+
+    /**
+     * Creates an Event task from parsed start and end times and texts that are used as they are.
+     *
+     * @param desc Description of the event task.
+     * @param from Parsed start time, or null if the start is free-form text.
+     * @param originalFromInput Free-form start time, only used when {@code from} is null.
+     * @param to Parsed end time, or null if the end is free-form text.
+     * @param originalToInput Free-form end time, only used when {@code to} is null.
+     * @param isDone Whether the task is done.
+     */
+    Event(String desc, LocalDateTime from, String originalFromInput, LocalDateTime to,
+            String originalToInput, boolean isDone) {
+        super(desc, isDone);
+        this.from = from;
+        this.originalFromInput = originalFromInput;
+        this.to = to;
+        this.originalToInput = originalToInput;
+    }
+
+    /**
+     * Returns the parsed start time of this event.
+     *
+     * @return the start time, or null if it was given as free-form text.
+     */
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    /**
+     * Returns the parsed end time of this event.
+     *
+     * @return the end time, or null if it was given as free-form text.
+     */
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    /**
+     * Returns the start time exactly as the user typed it.
+     *
+     * @return the original start time text, which may be null if it was loaded in parsed form.
+     */
+    public String getOriginalFromInput() {
+        return originalFromInput;
     }
 
     /**
-     * Parses a datetime string into a LocalDateTime object.
-     * Supports both input format (yyyy-MM-dd HHmm) and display format (MMM dd yyyy HHmm) for file loading.
+     * Returns the end time exactly as the user typed it.
      *
-     * @param dateTimeString DateTime string to parse.
-     * @return LocalDateTime object if parsing succeeds, null otherwise.
+     * @return the original end time text, which may be null if it was loaded in parsed form.
      */
-    private LocalDateTime parseDateTime(String dateTimeString) {
-        if (dateTimeString == null || dateTimeString.trim().isEmpty()) {
-            return null;
-        }
-        
-        try {
-            // Try parsing yyyy-mm-dd HHmm format first (input format)
-            return LocalDateTime.parse(dateTimeString, INPUT_FORMAT);
-        } catch (DateTimeParseException e1) {
-            try {
-                // Try parsing display format "MMM dd yyyy HHmm" (when loading from file)
-                return LocalDateTime.parse(dateTimeString, DISPLAY_FORMAT);
-            } catch (DateTimeParseException e2) {
-                // If both parsing attempts fail, return null and keep original string
-                return null;
-            }
-        }
+    public String getOriginalToInput() {
+        return originalToInput;
     }
 
     /**
@@ -68,8 +111,8 @@ public class Event extends Task {
      */
     @Override
     public String toString() {
-        String fromDisplay = (from != null) ? from.format(DISPLAY_FORMAT) : originalFromInput;
-        String toDisplay = (to != null) ? to.format(DISPLAY_FORMAT) : originalToInput;
+        String fromDisplay = (from != null) ? from.format(DateParser.DATE_TIME_DISPLAY_FORMAT) : originalFromInput;
+        String toDisplay = (to != null) ? to.format(DateParser.DATE_TIME_DISPLAY_FORMAT) : originalToInput;
 
         return "[E]" + super.toString() + " (from: " + fromDisplay + " to: " + toDisplay + ")";
 
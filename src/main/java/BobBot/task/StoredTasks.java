@@ -0,0 +1,55 @@
+package bobbot.task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Builds tasks for task stores that keep the text of their tasks themselves and build a new
+ * Task every time one is handed out. Such tasks live briefly, so their strings are used as
+ * they are instead of being shared through the {@link StringPool}, which would only cost a
+ * lookup under a lock on every read.
+ */
+public final class StoredTasks {
+    private StoredTasks() {
+    }
+
+    /**
+     * Builds a Todo task.
+     *
+     * @param desc Description of the todo task.
+     * @param isDone Whether the task is done.
+     * @return the task.
+     */
+    public static Todo todo(String desc, boolean isDone) {
+        return new Todo(desc, isDone);
+    }
+
+    /**
+     * Builds a Deadline task.
+     *
+     * @param desc Description of the deadline task.
+     * @param by Parsed due date, or null if the deadline is free-form text.
+     * @param originalInput Free-form due date, only used when {@code by} is null.
+     * @param isDone Whether the task is done.
+     * @return the task.
+     */
+    public static Deadline deadline(String desc, LocalDate by, String originalInput, boolean isDone) {
+        return new Deadline(desc, by, originalInput, isDone);
+    }
+
+    /**
+     * Builds an Event task.
+     *
+     * @param desc Description of the event task.
+     * @param from Parsed start time, or null if the start is free-form text.
+     * @param originalFromInput Free-form start time, only used when {@code from} is null.
+     * @param to Parsed end time, or null if the end is free-form text.
+     * @param originalToInput Free-form end time, only used when {@code to} is null.
+     * @param isDone Whether the task is done.
+     * @return the task.
+     */
+    public static Event event(String desc, LocalDateTime from, String originalFromInput, LocalDateTime to,
+            String originalToInput, boolean isDone) {
+        return new Event(desc, from, originalFromInput, to, originalToInput, isDone);
+    }
+}
@@ -0,0 +1,150 @@
+package bobbot.task;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Shares one String instance between tasks whose descriptions or date texts are equal,
+ * such as the many "eat" todos or "Mon" deadlines of a long task list.
+ *
+ * <p>Pooled strings are only weakly referenced, so a string is dropped from the pool once
+ * no task uses it anymore. The pool is split into stripes that are locked separately, so
+ * tasks decoded in parallel rarely wait for each other, and each stripe holds a bounded
+ * number of strings. Once a stripe is full, further strings are used as they are.
+ * Long strings are not pooled, since they are unlikely to repeat.
+ */
+public final class StringPool {
+    private static final int STRIPE_COUNT = 16;
+    private static final int MAX_STRINGS_PER_STRIPE = 4096;
+    private static final int MAX_POOLED_LENGTH = 128;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private static final Stripe[] STRIPES = new Stripe[STRIPE_COUNT];
+
+    static {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            STRIPES[i] = new Stripe();
+        }
+    }
+
+    /**
+     * One lock's worth of pooled strings and their counters.
+     */
+    private static final class Stripe {
+        private final Map<String, WeakReference<String>> strings = new WeakHashMap<>();
+        private long hitCount;
+        private long missCount;
+        private long bytesSaved;
+    }
+
+    private StringPool() {
+    }
+
+    /**
+     * Returns the pooled instance equal to the given string, adding the string to the pool
+     * if no equal string is pooled yet.
+     *
+     * @param value String to look up, which may be null.
+     * @return an equal string, which is the same instance for every equal value while it is pooled.
+     */
+    public static String intern(String value) {
+        if (value == null || value.length() > MAX_POOLED_LENGTH) {
+            return value;
+        }
+
+        Stripe stripe = STRIPES[(value.hashCode() & Integer.MAX_VALUE) % STRIPE_COUNT];
+        synchronized (stripe) {
+            WeakReference<String> reference = stripe.strings.get(value);
+            String pooled = reference == null ? null : reference.get();
+            if (pooled != null) {
+                if (pooled != value) {
+                    stripe.hitCount++;
+                    stripe.bytesSaved += sizeOf(value);
+                }
+                return pooled;
+            }
+            stripe.missCount++;
+            if (stripe.strings.size() < MAX_STRINGS_PER_STRIPE) {
+                stripe.strings.put(value, new WeakReference<>(value));
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Returns how many times an equal string was already pooled, so the given one could be dropped.
+     *
+     * @return the number of duplicate strings replaced by a pooled one.
+     */
+    public static long getHitCount() {
+        long total = 0;
+        for (Stripe stripe : STRIPES) {
+            synchronized (stripe) {
+                total += stripe.hitCount;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns how many strings were looked up without an equal string being pooled.
+     *
+     * @return the number of lookups that missed the pool.
+     */
+    public static long getMissCount() {
+        long total = 0;
+        for (Stripe stripe : STRIPES) {
+            synchronized (stripe) {
+                total += stripe.missCount;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns an estimate of the heap saved by sharing pooled strings, counting the object
+     * header and character array of every duplicate string that was replaced.
+     *
+     * @return the estimated number of bytes saved.
+     */
+    public static long getBytesSaved() {
+        long total = 0;
+        for (Stripe stripe : STRIPES) {
+            synchronized (stripe) {
+                total += stripe.bytesSaved;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of strings currently pooled.
+     *
+     * @return the number of pooled strings that are still in use.
+     */
+    public static int size() {
+        int total = 0;
+        for (Stripe stripe : STRIPES) {
+            synchronized (stripe) {
+                total += stripe.strings.size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Estimates the heap used by a string, which stores one byte per character when
+     * every character is Latin-1 and two bytes per character otherwise.
+     */
+    private static long sizeOf(String value) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return STRING_OVERHEAD_BYTES + (long) value.length() * bytesPerChar;
+    }
+}
@@ -11,14 +11,27 @@ public class Task {
     /**
      * Creates a new Task with the specified description.
      * The task is initially marked as not done.
+     * The description is shared through the {@link StringPool} with other tasks that have the same one.
      *
      * @param desc Description of the task.
      */
     public Task(String desc) {
-        this.desc = desc;
+        this.desc = StringPool.intern(desc);
         this.isDone = false;
     }
 
+    /**
+     * Creates a Task from a description that is used as it is, without going through the
+     * {@link StringPool}, such as one rebuilt by a task store that keeps the text itself.
+     *
+     * @param desc Description of the task.
+     * @param isDone Whether the task is done.
+     */
+    Task(String desc, boolean isDone) {
+        this.desc = desc;
+        this.isDone = isDone;
+    }
+
     /**
      * Marks this task as done.
      */
@@ -37,6 +50,15 @@ public class Task {
         return this.desc;
     }
 
+    /**
+     * Returns whether this task has been marked as done.
+     *
+     * @return true if this task is done, false otherwise.
+     */
+    public boolean isDone() {
+        return isDone;
+    }
+
     /**
      * Returns a string representation of this task.
      * The format is [X] description if done, or [ ] description if not done.
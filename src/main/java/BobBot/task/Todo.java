@@ -15,6 +15,16 @@ public class Todo extends Task {
         super(desc);
     }
 
+    /**
+     * Creates a Todo task from a description that is used as it is.
+     *
+     * @param desc Description of the todo task.
+     * @param isDone Whether the task is done.
+     */
+    Todo(String desc, boolean isDone) {
+        super(desc, isDone);
+    }
+
     /**
      * Returns a string representation of this todo task.
      * The format is [T][X] description if done, or [T][ ] description if not done.
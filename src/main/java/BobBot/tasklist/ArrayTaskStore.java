@@ -0,0 +1,103 @@
+package bobbot.tasklist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import bobbot.task.Task;
+
+/**
+ * Task store that keeps every task on the heap in an ArrayList.
+ * Removing or inserting several tasks at once moves each other task at most once.
+ */
+class ArrayTaskStore implements TaskStore {
+    /** About the size of a Task object with a short description, and the reference to it. */
+    static final int ESTIMATED_TASK_BYTES = 104;
+
+    private final ArrayList<Task> tasks;
+
+    ArrayTaskStore(ArrayList<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    @Override
+    public int size() {
+        return tasks.size();
+    }
+
+    @Override
+    public Task get(int index) {
+        return tasks.get(index);
+    }
+
+    @Override
+    public void add(Task task) {
+        tasks.add(task);
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        tasks.add(index, task);
+    }
+
+    @Override
+    public Task remove(int index) {
+        return tasks.remove(index);
+    }
+
+    @Override
+    public List<Task> removeAll(int[] indices) {
+        if (indices.length == 0) {
+            return List.of();
+        }
+        List<Task> removed = new ArrayList<>(indices.length);
+        int kept = indices[0];
+        int next = 0;
+        for (int i = indices[0]; i < tasks.size(); i++) {
+            if (next < indices.length && indices[next] == i) {
+                removed.add(tasks.get(i));
+                next++;
+            } else {
+                tasks.set(kept++, tasks.get(i));
+            }
+        }
+        tasks.subList(kept, tasks.size()).clear();
+        return removed;
+    }
+
+    @Override
+    public void addAll(int[] indices, List<Task> added) {
+        int read = tasks.size() - 1;
+        tasks.addAll(Collections.nCopies(indices.length, null));
+        int next = indices.length - 1;
+        for (int write = tasks.size() - 1; next >= 0; write--) {
+            tasks.set(write, indices[next] == write ? added.get(next--) : tasks.get(read--));
+        }
+    }
+
+    @Override
+    public Task setDone(int index, boolean isDone) {
+        Task task = tasks.get(index);
+        if (isDone) {
+            task.markAsDone();
+        } else {
+            task.markAsNotDone();
+        }
+        return task;
+    }
+
+    @Override
+    public long estimateBytes() {
+        return (long) tasks.size() * ESTIMATED_TASK_BYTES;
+    }
+
+    @Override
+    public ArrayList<Task> toArrayList() {
+        return new ArrayList<>(tasks);
+    }
+
+    @Override
+    public List<TaskSegment> getSegments() {
+        return tasks.isEmpty() ? List.of() : List.of(TaskSegment.changed(tasks));
+    }
+}
@@ -0,0 +1,135 @@
+package bobbot.tasklist;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Burkhard-Keller tree of words for finding the words within an edit distance of a query.
+ *
+ * <p>Every child of a node is filed under its distance to that node. By the triangle
+ * inequality, a word within distance k of the query can only be filed under a distance
+ * within k of the query's distance to the node, so most of the tree is never visited.
+ * This needs a true metric, so the plain Levenshtein distance is used, which counts a
+ * swap of two neighbouring letters as two edits.
+ */
+final class BkTree {
+    private Node root;
+
+    /**
+     * A word and its children, kept in two parallel arrays.
+     */
+    private static final class Node {
+        private final String word;
+        private int[] distances = new int[0];
+        private Node[] children = new Node[0];
+
+        private Node(String word) {
+            this.word = word;
+        }
+
+        private Node childAt(int distance) {
+            for (int i = 0; i < distances.length; i++) {
+                if (distances[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private void addChild(int distance, Node child) {
+            distances = Arrays.copyOf(distances, distances.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            distances[distances.length - 1] = distance;
+            children[children.length - 1] = child;
+        }
+    }
+
+    /**
+     * Adds a word, unless the tree already has it.
+     *
+     * @param word the word to add
+     */
+    void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = editDistance(word, node.word);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.childAt(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(word));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Passes every word within the given distance of the query to the consumer, along with its distance.
+     *
+     * @param query the word to compare against
+     * @param maxDistance the largest edit distance to accept
+     * @param consumer receives each word that is close enough and its distance to the query
+     */
+    void forEachWithin(String query, int maxDistance, ObjIntConsumer<String> consumer) {
+        if (root == null) {
+            return;
+        }
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        int[][] rows = new int[2][query.length() + 1];
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = editDistance(node.word, query, rows);
+            if (distance <= maxDistance) {
+                consumer.accept(node.word, distance);
+            }
+            for (int i = 0; i < node.distances.length; i++) {
+                if (Math.abs(node.distances[i] - distance) <= maxDistance) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the Levenshtein distance between two words, keeping only two rows of the table.
+     *
+     * @param a the first word
+     * @param b the second word
+     * @return the least number of single character insertions, deletions and substitutions
+     *         that turn one word into the other
+     */
+    static int editDistance(String a, String b) {
+        return editDistance(a, b, new int[2][b.length() + 1]);
+    }
+
+    /**
+     * Computes the Levenshtein distance in the given pair of rows, which must be one longer than b.
+     */
+    private static int editDistance(String a, String b, int[][] rows) {
+        int[] previous = rows[0];
+        int[] current = rows[1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] row = previous;
+            previous = current;
+            current = row;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,411 @@
+package bobbot.tasklist;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import bobbot.task.Deadline;
+import bobbot.task.Event;
+import bobbot.task.StoredTasks;
+import bobbot.task.Task;
+
+/**
+ * Task store that keeps tasks in parallel columns instead of as objects.
+ *
+ * <p>Each task takes a flags byte (its type, and which of its dates are free-form text),
+ * a bit in the done {@link BitSet} and three longs: a reference to its description and
+ * its two dates. Deadlines keep their due date as an epoch day and events their start and
+ * end as epoch minutes. Descriptions and free-form dates are stored as UTF-8 in one shared
+ * buffer, and a text reference packs the offset into that buffer with the length.
+ * Task objects are only built when a task is handed out, so callers get a new Task on
+ * every call and must change tasks through the store rather than through those objects.
+ * The text a parsed date was typed as is not kept, the same as in the task file.
+ */
+class ColumnarTaskStore implements TaskStore {
+    private static final byte TODO_TYPE = 0;
+    private static final byte DEADLINE_TYPE = 1;
+    private static final byte EVENT_TYPE = 2;
+    private static final byte TYPE_MASK = 0x3;
+    private static final byte FROM_IS_TEXT = 0x4;
+    private static final byte TO_IS_TEXT = 0x8;
+    private static final int LENGTH_BITS = 24;
+    private static final long NULL_TEXT = -1L;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MIN_COMPACTION_GARBAGE = 1 << 16;
+    private static final boolean IS_ASCII_LOWER_CASE_STANDARD =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZ".toLowerCase().equals("abcdefghijklmnopqrstuvwxyz");
+    private static final char[] ASCII_LOWER_CASE = new char[128];
+
+    static {
+        for (char c = 0; c < ASCII_LOWER_CASE.length; c++) {
+            ASCII_LOWER_CASE[c] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+    }
+
+    private byte[] flags;
+    private long[] descriptions;
+    private long[] froms;
+    private long[] tos;
+    private final BitSet done = new BitSet();
+    private int size;
+
+    private byte[] text = new byte[MIN_CAPACITY * 16];
+    private int textSize;
+    private int textGarbage;
+
+    ColumnarTaskStore(List<Task> tasks) {
+        int capacity = Math.max(MIN_CAPACITY, tasks.size());
+        flags = new byte[capacity];
+        descriptions = new long[capacity];
+        froms = new long[capacity];
+        tos = new long[capacity];
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        String description = readText(descriptions[index]);
+        byte taskFlags = flags[index];
+        boolean isDone = done.get(index);
+
+        // The text read back is a fresh copy that only lives as long as the task, so it is not pooled
+        Task task;
+        switch (taskFlags & TYPE_MASK) {
+        case DEADLINE_TYPE:
+            task = (taskFlags & FROM_IS_TEXT) != 0
+                    ? StoredTasks.deadline(description, null, readText(froms[index]), isDone)
+                    : StoredTasks.deadline(description, LocalDate.ofEpochDay(froms[index]), null, isDone);
+            break;
+        case EVENT_TYPE:
+            boolean isFromText = (taskFlags & FROM_IS_TEXT) != 0;
+            boolean isToText = (taskFlags & TO_IS_TEXT) != 0;
+            task = StoredTasks.event(description,
+                    isFromText ? null : dateTimeOf(froms[index]), isFromText ? readText(froms[index]) : null,
+                    isToText ? null : dateTimeOf(tos[index]), isToText ? readText(tos[index]) : null, isDone);
+            break;
+        default:
+            task = StoredTasks.todo(description, isDone);
+            break;
+        }
+        return task;
+    }
+
+    @Override
+    public String getDescription(int index) {
+        checkIndex(index);
+        return readText(descriptions[index]);
+    }
+
+    /**
+     * Matches the keyword against the description's UTF-8 bytes when both are ASCII and the
+     * default locale lower-cases ASCII letters to ASCII letters, which is the common case.
+     * Anything else goes through String.toLowerCase, as it would for Task objects.
+     */
+    @Override
+    public boolean descriptionContains(int index, String keyword) {
+        checkIndex(index);
+        if (!IS_ASCII_LOWER_CASE_STANDARD || !isAscii(keyword)) {
+            return getDescription(index).toLowerCase().contains(keyword);
+        }
+
+        long reference = descriptions[index];
+        int start = (int) (reference >>> LENGTH_BITS);
+        int end = start + lengthOf(reference);
+        int lastStart = end - keyword.length();
+        byte[] bytes = text;
+        char first = keyword.isEmpty() ? 0 : keyword.charAt(0);
+        for (int i = start; i < end; i++) {
+            byte b = bytes[i];
+            if (b < 0) {
+                // Non-ASCII text may lower-case differently, but an ASCII match found so far still holds
+                return getDescription(index).toLowerCase().contains(keyword);
+            }
+            if (ASCII_LOWER_CASE[b] == first && i <= lastStart && matchesAt(bytes, i, keyword)) {
+                return true;
+            }
+        }
+        return keyword.isEmpty();
+    }
+
+    private static boolean matchesAt(byte[] bytes, int position, String keyword) {
+        for (int i = 1; i < keyword.length(); i++) {
+            byte b = bytes[position + i];
+            if (b < 0 || ASCII_LOWER_CASE[b] != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void add(Task task) {
+        add(size, task);
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        ensureCapacity(size + 1);
+        if (index < size) {
+            shiftRows(index, 1);
+        }
+        writeRow(index, task);
+        size++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        releaseTexts(index);
+        shiftRows(index + 1, -1);
+        size--;
+        compactTextIfNeeded();
+        return removed;
+    }
+
+    @Override
+    public List<Task> removeAll(int[] indices) {
+        if (indices.length == 0) {
+            return List.of();
+        }
+        List<Task> removed = new ArrayList<>(indices.length);
+        int kept = indices[0];
+        int next = 0;
+        for (int i = indices[0]; i < size; i++) {
+            if (next < indices.length && indices[next] == i) {
+                removed.add(get(i));
+                releaseTexts(i);
+                next++;
+                continue;
+            }
+            flags[kept] = flags[i];
+            descriptions[kept] = descriptions[i];
+            froms[kept] = froms[i];
+            tos[kept] = tos[i];
+            done.set(kept, done.get(i));
+            kept++;
+        }
+        done.clear(kept, size);
+        size = kept;
+        compactTextIfNeeded();
+        return removed;
+    }
+
+    @Override
+    public Task setDone(int index, boolean isDone) {
+        checkIndex(index);
+        done.set(index, isDone);
+        return get(index);
+    }
+
+    @Override
+    public long estimateBytes() {
+        return flags.length + (long) Long.BYTES * (descriptions.length + froms.length + tos.length)
+                + text.length + done.size() / Byte.SIZE;
+    }
+
+    @Override
+    public ArrayList<Task> toArrayList() {
+        ArrayList<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(get(i));
+        }
+        return tasks;
+    }
+
+    @Override
+    public List<TaskSegment> getSegments() {
+        return size == 0 ? List.of() : List.of(TaskSegment.changed(toArrayList()));
+    }
+
+    private void writeRow(int index, Task task) {
+        descriptions[index] = appendText(task.getDescription());
+        done.set(index, task.isDone());
+        froms[index] = 0;
+        tos[index] = 0;
+
+        if (task instanceof Deadline) {
+            Deadline deadline = (Deadline) task;
+            byte rowFlags = DEADLINE_TYPE;
+            if (deadline.getBy() != null) {
+                froms[index] = deadline.getBy().toEpochDay();
+            } else {
+                rowFlags |= FROM_IS_TEXT;
+                froms[index] = appendText(deadline.getOriginalInput());
+            }
+            flags[index] = rowFlags;
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            byte rowFlags = EVENT_TYPE;
+            if (event.getFrom() != null) {
+                froms[index] = epochMinuteOf(event.getFrom());
+            } else {
+                rowFlags |= FROM_IS_TEXT;
+                froms[index] = appendText(event.getOriginalFromInput());
+            }
+            if (event.getTo() != null) {
+                tos[index] = epochMinuteOf(event.getTo());
+            } else {
+                rowFlags |= TO_IS_TEXT;
+                tos[index] = appendText(event.getOriginalToInput());
+            }
+            flags[index] = rowFlags;
+        } else {
+            flags[index] = TODO_TYPE;
+        }
+    }
+
+    /**
+     * Moves the rows from the given index to the end of the list by the given distance.
+     */
+    private void shiftRows(int from, int distance) {
+        int count = size - from;
+        System.arraycopy(flags, from, flags, from + distance, count);
+        System.arraycopy(descriptions, from, descriptions, from + distance, count);
+        System.arraycopy(froms, from, froms, from + distance, count);
+        System.arraycopy(tos, from, tos, from + distance, count);
+
+        BitSet movedDone = done.get(from, size);
+        done.clear(Math.min(from, from + distance), size + Math.max(distance, 0));
+        for (int i = movedDone.nextSetBit(0); i >= 0; i = movedDone.nextSetBit(i + 1)) {
+            done.set(from + distance + i);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= flags.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, flags.length * 2);
+        byte[] newFlags = new byte[newCapacity];
+        long[] newDescriptions = new long[newCapacity];
+        long[] newFroms = new long[newCapacity];
+        long[] newTos = new long[newCapacity];
+        System.arraycopy(flags, 0, newFlags, 0, size);
+        System.arraycopy(descriptions, 0, newDescriptions, 0, size);
+        System.arraycopy(froms, 0, newFroms, 0, size);
+        System.arraycopy(tos, 0, newTos, 0, size);
+        flags = newFlags;
+        descriptions = newDescriptions;
+        froms = newFroms;
+        tos = newTos;
+    }
+
+    /**
+     * Copies the given text to the end of the shared buffer.
+     *
+     * @return the reference to the text in the buffer.
+     */
+    private long appendText(String value) {
+        if (value == null) {
+            return NULL_TEXT;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= 1 << LENGTH_BITS) {
+            throw new IllegalArgumentException("Text is too long to store bobz");
+        }
+        if (textSize + bytes.length > text.length) {
+            byte[] grown = new byte[Math.max(textSize + bytes.length, text.length * 2)];
+            System.arraycopy(text, 0, grown, 0, textSize);
+            text = grown;
+        }
+        System.arraycopy(bytes, 0, text, textSize, bytes.length);
+        long reference = (long) textSize << LENGTH_BITS | bytes.length;
+        textSize += bytes.length;
+        return reference;
+    }
+
+    private String readText(long reference) {
+        if (reference == NULL_TEXT) {
+            return null;
+        }
+        return new String(text, (int) (reference >>> LENGTH_BITS), lengthOf(reference), StandardCharsets.UTF_8);
+    }
+
+    private static int lengthOf(long reference) {
+        return reference == NULL_TEXT ? 0 : (int) (reference & ((1 << LENGTH_BITS) - 1));
+    }
+
+    /**
+     * Counts the texts of the given row as garbage, since the row is about to be removed.
+     */
+    private void releaseTexts(int index) {
+        textGarbage += lengthOf(descriptions[index]);
+        if ((flags[index] & FROM_IS_TEXT) != 0) {
+            textGarbage += lengthOf(froms[index]);
+        }
+        if ((flags[index] & TO_IS_TEXT) != 0) {
+            textGarbage += lengthOf(tos[index]);
+        }
+    }
+
+    /**
+     * Rewrites the shared buffer without the texts of removed rows once they take up most of it.
+     */
+    private void compactTextIfNeeded() {
+        if (textGarbage < MIN_COMPACTION_GARBAGE || textGarbage < textSize / 2) {
+            return;
+        }
+        byte[] oldText = text;
+        text = new byte[Math.max(MIN_CAPACITY * 16, textSize - textGarbage)];
+        textSize = 0;
+        textGarbage = 0;
+        for (int i = 0; i < size; i++) {
+            descriptions[i] = moveText(oldText, descriptions[i]);
+            if ((flags[i] & FROM_IS_TEXT) != 0) {
+                froms[i] = moveText(oldText, froms[i]);
+            }
+            if ((flags[i] & TO_IS_TEXT) != 0) {
+                tos[i] = moveText(oldText, tos[i]);
+            }
+        }
+    }
+
+    private long moveText(byte[] oldText, long reference) {
+        if (reference == NULL_TEXT) {
+            return NULL_TEXT;
+        }
+        int length = lengthOf(reference);
+        System.arraycopy(oldText, (int) (reference >>> LENGTH_BITS), text, textSize, length);
+        long moved = (long) textSize << LENGTH_BITS | length;
+        textSize += length;
+        return moved;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long epochMinuteOf(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static LocalDateTime dateTimeOf(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package bobbot.tasklist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from the words of task descriptions to the tasks that contain them.
+ *
+ * <p>Descriptions are lower-cased and split into tokens at whitespace. A keyword without
+ * whitespace can only occur inside a single token, so the tasks whose description contains
+ * it are exactly the tasks posted under the tokens that contain it, and only those tasks
+ * are looked at.
+ *
+ * <p>For keywords of at least three characters, the tokens are found through an index of
+ * their trigrams: only the tokens that have every trigram of the keyword are checked, so
+ * even a substring of a word is found without going through the whole vocabulary.
+ * Shorter keywords are checked against every distinct token.
+ *
+ * <p>Tokens within an edit distance of a keyword are found through a {@link BkTree} of the
+ * distinct tokens, which is built the first time such a search is made.
+ *
+ * <p>Queries do not change the index, apart from building the word tree under the index's
+ * lock, so several threads may query it at once while it is not being changed.
+ *
+ * <p>Postings refer to tasks by their {@link SlotOrder} slots, so a change only touches the
+ * postings of the changed task, and slots are turned back into positions when a query is answered.
+ */
+class DescriptionIndex {
+    private static final int TRIGRAM_LENGTH = 3;
+    private static final int MIN_REMOVED_WORDS_TO_REBUILD = 1024;
+
+    private final Map<String, Posting> postings = new HashMap<>();
+    private final ArrayList<Posting> wordsById = new ArrayList<>();
+    private final Map<Long, WordIds> trigrams = new HashMap<>();
+    private final SlotOrder order;
+    private int removedWordCount;
+    private volatile BkTree wordTree;
+
+    /**
+     * Tasks posted under one token.
+     */
+    private static final class Posting extends SlotList {
+        private final String word;
+        private int id;
+
+        private Posting(String word) {
+            this.word = word;
+        }
+    }
+
+    /**
+     * Ids of the words that have one trigram, in increasing order.
+     */
+    private static final class WordIds {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    /**
+     * Indexes every task in the given store.
+     *
+     * @param tasks the tasks to index
+     * @param order the slots of the tasks
+     */
+    DescriptionIndex(TaskStore tasks, SlotOrder order) {
+        this.order = order;
+        for (int i = 0; i < tasks.size(); i++) {
+            inserted(order.slotAt(i), tasks.getDescription(i));
+        }
+    }
+
+    /**
+     * Indexes a task that was added to the list.
+     *
+     * @param slot the slot of the new task
+     * @param description the task's description
+     */
+    void inserted(int slot, String description) {
+        for (String token : tokensOf(description)) {
+            postings.computeIfAbsent(token, this::addWord).add(slot);
+        }
+    }
+
+    /**
+     * Removes a task that was removed from the list, after its slot was removed from the order.
+     *
+     * @param description the task's description
+     */
+    void removed(String description) {
+        for (String token : tokensOf(description)) {
+            Posting posting = postings.get(token);
+            if (posting != null && posting.removeOne(order)) {
+                postings.remove(token);
+                removeWord(posting);
+            }
+        }
+    }
+
+    /**
+     * Finds the tasks whose lower-cased description contains the keyword.
+     *
+     * @param keyword the lower-case text to look for, which must not contain whitespace
+     * @return the 0-based positions of the matching tasks, in list order
+     */
+    int[] find(String keyword) {
+        assert !containsWhitespace(keyword);
+
+        List<Posting> matchingWords = new ArrayList<>();
+        Iterable<Posting> candidates = keyword.length() < TRIGRAM_LENGTH ? postings.values() : wordsWithTrigramsOf(keyword);
+        for (Posting posting : candidates) {
+            if (posting.word.contains(keyword)) {
+                matchingWords.add(posting);
+            }
+        }
+        return positionsOf(matchingWords, new BitSet());
+    }
+
+    /**
+     * Finds the tasks that have a word within the given edit distance of the keyword.
+     * Tasks with a closer word come first, and tasks with equally close words are in list order.
+     *
+     * @param keyword the lower-case word to look for, which must not contain whitespace
+     * @param maxDistance the largest number of edits allowed between the keyword and a word
+     * @return the 0-based positions of the matching tasks
+     */
+    int[] findSimilar(String keyword, int maxDistance) {
+        assert !containsWhitespace(keyword);
+        assert maxDistance >= 0;
+
+        BkTree tree = getWordTree();
+        List<List<Posting>> wordsByDistance = new ArrayList<>();
+        for (int distance = 0; distance <= maxDistance; distance++) {
+            wordsByDistance.add(new ArrayList<>());
+        }
+        tree.forEachWithin(keyword, maxDistance, (word, distance) -> {
+            Posting posting = postings.get(word);
+            if (posting != null) {
+                wordsByDistance.get(distance).add(posting);
+            }
+        });
+
+        int[] result = new int[0];
+        BitSet seenSlots = new BitSet();
+        for (List<Posting> words : wordsByDistance) {
+            int[] positions = positionsOf(words, seenSlots);
+            int count = result.length;
+            result = Arrays.copyOf(result, count + positions.length);
+            System.arraycopy(positions, 0, result, count, positions.length);
+        }
+        return result;
+    }
+
+    /**
+     * Collects the positions of the tasks posted under any of the words, skipping the slots
+     * that were already seen and marking the rest as seen.
+     *
+     * @return the positions in list order
+     */
+    private int[] positionsOf(List<Posting> words, BitSet seenSlots) {
+        int[] positions = new int[16];
+        int count = 0;
+        for (Posting posting : words) {
+            for (int i = 0; i < posting.size(); i++) {
+                int slot = posting.get(i);
+                if (!order.isInUse(slot) || seenSlots.get(slot)) {
+                    continue;
+                }
+                seenSlots.set(slot);
+                if (count == positions.length) {
+                    positions = Arrays.copyOf(positions, count * 2);
+                }
+                positions[count++] = order.positionOf(slot);
+            }
+        }
+        int[] result = Arrays.copyOf(positions, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns the longest run of the text that contains no whitespace.
+     *
+     * @param text the text to look in
+     * @return the longest piece of the text that can be looked up in the index, which may be empty
+     */
+    static String longestToken(String text) {
+        String longest = "";
+        int tokenStart = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isSeparator = i == text.length() || Character.isWhitespace(text.charAt(i));
+            if (isSeparator && tokenStart >= 0) {
+                if (i - tokenStart > longest.length()) {
+                    longest = text.substring(tokenStart, i);
+                }
+                tokenStart = -1;
+            } else if (!isSeparator && tokenStart < 0) {
+                tokenStart = i;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Checks whether the text contains a character that the index splits tokens at.
+     *
+     * @param text the text to check
+     * @return true if the text cannot be looked up in the index
+     */
+    private static boolean containsWhitespace(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the tree of the distinct tokens, building it on first use. Queries may build it
+     * from several threads at once, so it is built under the index's lock, which is only taken
+     * while it is not built yet.
+     */
+    private BkTree getWordTree() {
+        BkTree tree = wordTree;
+        if (tree != null) {
+            return tree;
+        }
+        synchronized (this) {
+            if (wordTree == null) {
+                tree = new BkTree();
+                for (String word : postings.keySet()) {
+                    tree.add(word);
+                }
+                wordTree = tree;
+            }
+            return wordTree;
+        }
+    }
+
+    private Posting addWord(String word) {
+        Posting posting = new Posting(word);
+        indexTrigrams(posting);
+        if (wordTree != null) {
+            wordTree.add(word);
+        }
+        return posting;
+    }
+
+    private void indexTrigrams(Posting posting) {
+        posting.id = wordsById.size();
+        wordsById.add(posting);
+        for (int i = 0; i + TRIGRAM_LENGTH <= posting.word.length(); i++) {
+            trigrams.computeIfAbsent(trigramAt(posting.word, i), key -> new WordIds()).add(posting.id);
+        }
+    }
+
+    /**
+     * Forgets a word that no task has anymore. Its id is left in the trigram index, and the
+     * word in the word tree, until enough words are removed to make rebuilding them worthwhile.
+     */
+    private void removeWord(Posting posting) {
+        wordsById.set(posting.id, null);
+        removedWordCount++;
+        if (removedWordCount >= MIN_REMOVED_WORDS_TO_REBUILD && removedWordCount > postings.size()) {
+            wordsById.clear();
+            trigrams.clear();
+            wordTree = null;
+            removedWordCount = 0;
+            for (Posting word : postings.values()) {
+                indexTrigrams(word);
+            }
+        }
+    }
+
+    /**
+     * Finds the words that have every trigram of the keyword, by intersecting the word ids
+     * of the trigrams starting from the rarest one.
+     */
+    private List<Posting> wordsWithTrigramsOf(String keyword) {
+        WordIds[] idLists = new WordIds[keyword.length() - TRIGRAM_LENGTH + 1];
+        for (int i = 0; i < idLists.length; i++) {
+            idLists[i] = trigrams.get(trigramAt(keyword, i));
+            if (idLists[i] == null) {
+                return List.of();
+            }
+        }
+        Arrays.sort(idLists, Comparator.comparingInt(wordIds -> wordIds.size));
+
+        int[] ids = Arrays.copyOf(idLists[0].ids, idLists[0].size);
+        int count = ids.length;
+        for (int i = 1; i < idLists.length && count > 0; i++) {
+            count = intersect(ids, count, idLists[i]);
+        }
+
+        List<Posting> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Posting posting = wordsById.get(ids[i]);
+            if (posting != null) {
+                words.add(posting);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Keeps the first count ids that are also in the other list, both being in increasing order.
+     *
+     * @return the number of ids kept
+     */
+    private static int intersect(int[] ids, int count, WordIds other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < other.size; i++) {
+            while (j < other.size && other.ids[j] < ids[i]) {
+                j++;
+            }
+            if (j < other.size && other.ids[j] == ids[i]) {
+                ids[kept++] = ids[i];
+            }
+        }
+        return kept;
+    }
+
+    private static long trigramAt(String text, int start) {
+        return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+
+    /**
+     * Splits the lower-cased description into its distinct tokens.
+     */
+    private static Set<String> tokensOf(String description) {
+        Set<String> tokens = new HashSet<>();
+        String text = description.toLowerCase();
+        int tokenStart = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isSeparator = i == text.length() || Character.isWhitespace(text.charAt(i));
+            if (isSeparator && tokenStart >= 0) {
+                tokens.add(text.substring(tokenStart, i));
+                tokenStart = -1;
+            } else if (!isSeparator && tokenStart < 0) {
+                tokenStart = i;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,94 @@
+package bobbot.tasklist;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import bobbot.task.Deadline;
+import bobbot.task.Task;
+
+/**
+ * Index of the deadlines with a parsed due date, sorted by the day they are due.
+ *
+ * <p>Deadlines are filed by epoch day in a sorted map, so the deadlines due in a range of
+ * days are found by one lookup for the first day and a walk over the days in the range,
+ * without looking at any other task or parsing any date again. Deadlines given as
+ * free-form text have no day and are not indexed.
+ */
+class DueDateIndex {
+    private final NavigableMap<Long, SlotList> slotsByDay = new TreeMap<>();
+    private final SlotOrder order;
+
+    /**
+     * Indexes every deadline in the given store.
+     *
+     * @param tasks the tasks to index
+     * @param order the slots of the tasks
+     */
+    DueDateIndex(TaskStore tasks, SlotOrder order) {
+        this.order = order;
+        for (int i = 0; i < tasks.size(); i++) {
+            inserted(order.slotAt(i), tasks.get(i));
+        }
+    }
+
+    /**
+     * Indexes a task that was added to the list, if it is a deadline with a due date.
+     *
+     * @param slot the slot of the new task
+     * @param task the new task
+     */
+    void inserted(int slot, Task task) {
+        LocalDate day = dueDayOf(task);
+        if (day != null) {
+            slotsByDay.computeIfAbsent(day.toEpochDay(), key -> new SlotList()).add(slot);
+        }
+    }
+
+    /**
+     * Removes a task that was removed from the list, after its slot was removed from the order.
+     *
+     * @param task the removed task
+     */
+    void removed(Task task) {
+        LocalDate day = dueDayOf(task);
+        if (day == null) {
+            return;
+        }
+        SlotList slots = slotsByDay.get(day.toEpochDay());
+        if (slots != null && slots.removeOne(order)) {
+            slotsByDay.remove(day.toEpochDay());
+        }
+    }
+
+    /**
+     * Finds the deadlines due on any day from the first to the last day, both included.
+     *
+     * @param from the first day of the range
+     * @param to the last day of the range
+     * @return the 0-based positions of the deadlines, by due date and then in list order
+     */
+    int[] findDueBetween(LocalDate from, LocalDate to) {
+        int[] positions = new int[16];
+        int count = 0;
+        for (SlotList slots : slotsByDay.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values()) {
+            int dayStart = count;
+            for (int i = 0; i < slots.size(); i++) {
+                if (!order.isInUse(slots.get(i))) {
+                    continue;
+                }
+                if (count == positions.length) {
+                    positions = Arrays.copyOf(positions, count * 2);
+                }
+                positions[count++] = order.positionOf(slots.get(i));
+            }
+            Arrays.sort(positions, dayStart, count);
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    private static LocalDate dueDayOf(Task task) {
+        return task instanceof Deadline ? ((Deadline) task).getBy() : null;
+    }
+}
@@ -0,0 +1,121 @@
+package bobbot.tasklist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * Runs scans over a range of task indices on the common {@link ForkJoinPool}.
+ *
+ * <p>The range is cut into a few chunks per worker, each chunk is scanned as a separate task,
+ * and the chunk results are joined in order, so a scan gives the same result as a plain loop.
+ * Ranges shorter than the threshold are scanned on the calling thread, where splitting would
+ * cost more than it saves. The threshold is read from the {@value #THRESHOLD_PROPERTY} system
+ * property on every scan, so it can be tuned without a restart.
+ */
+final class ParallelScan {
+    static final String THRESHOLD_PROPERTY = "bobbot.parallelScanThreshold";
+    static final int DEFAULT_THRESHOLD = 50_000;
+
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final int MIN_CHUNK_LENGTH = 4096;
+
+    private ParallelScan() {
+    }
+
+    /**
+     * Returns the indices in [0, size) that the predicate accepts, in increasing order.
+     *
+     * @param size the end of the range
+     * @param predicate the test for each index, which may be called from several threads at once
+     * @return the accepted indices
+     */
+    static int[] filter(int size, IntPredicate predicate) {
+        if (!isParallel(size)) {
+            return filterRange(0, size, predicate);
+        }
+        List<ForkJoinTask<int[]>> chunks = new ArrayList<>();
+        forEachChunk(size, (from, to) -> chunks.add(ForkJoinPool.commonPool().submit(() -> filterRange(from, to, predicate))));
+
+        int[][] results = new int[chunks.size()][];
+        int count = 0;
+        for (int i = 0; i < results.length; i++) {
+            results[i] = chunks.get(i).join();
+            count += results[i].length;
+        }
+        int[] indices = new int[count];
+        int next = 0;
+        for (int[] result : results) {
+            System.arraycopy(result, 0, indices, next, result.length);
+            next += result.length;
+        }
+        return indices;
+    }
+
+    /**
+     * Concatenates the strings for every index in [0, size), in order.
+     *
+     * @param size the end of the range
+     * @param formatter builds the string for each index, and may be called from several threads at once
+     * @return the joined strings
+     */
+    static String join(int size, IntFunction<String> formatter) {
+        if (!isParallel(size)) {
+            return joinRange(0, size, formatter).toString();
+        }
+        List<ForkJoinTask<StringBuilder>> chunks = new ArrayList<>();
+        forEachChunk(size, (from, to) -> chunks.add(ForkJoinPool.commonPool().submit(() -> joinRange(from, to, formatter))));
+
+        StringBuilder joined = new StringBuilder();
+        for (ForkJoinTask<StringBuilder> chunk : chunks) {
+            joined.append(chunk.join());
+        }
+        return joined.toString();
+    }
+
+    private static boolean isParallel(int size) {
+        return size >= Integer.getInteger(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD) && size > MIN_CHUNK_LENGTH;
+    }
+
+    /**
+     * Receives the bounds of one chunk.
+     */
+    @FunctionalInterface
+    private interface ChunkConsumer {
+        void accept(int from, int to);
+    }
+
+    private static void forEachChunk(int size, ChunkConsumer consumer) {
+        int chunkCount = ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_WORKER;
+        int chunkLength = Math.max(MIN_CHUNK_LENGTH, (size + chunkCount - 1) / chunkCount);
+        for (int from = 0; from < size; from += chunkLength) {
+            consumer.accept(from, Math.min(size, from + chunkLength));
+        }
+    }
+
+    private static int[] filterRange(int from, int to, IntPredicate predicate) {
+        int[] indices = new int[Math.min(to - from, 16)];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (predicate.test(i)) {
+                if (count == indices.length) {
+                    indices = Arrays.copyOf(indices, Math.min(to - from, count * 2));
+                }
+                indices[count++] = i;
+            }
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    private static StringBuilder joinRange(int from, int to, IntFunction<String> formatter) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            joined.append(formatter.apply(i));
+        }
+        return joined;
+    }
+}
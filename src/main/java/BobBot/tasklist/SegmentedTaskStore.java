@@ -0,0 +1,242 @@
+package bobbot.tasklist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import bobbot.task.Task;
+
+/**
+ * Task store over a {@link TaskSource} that keeps the source's segments.
+ *
+ * <p>Unchanged segments are read through from the source. The first change to a segment
+ * copies just that segment onto the heap and marks it as changed, so the heap holds only
+ * the segments that were touched and a save only has to write those. Appended tasks go to
+ * a changed segment at the end, which is a copy of the last source segment only if that one
+ * is short.
+ */
+class SegmentedTaskStore implements TaskStore {
+    private static final int MAX_SEGMENT_LENGTH = 8192;
+
+    /**
+     * A run of consecutive tasks, either still matching a source segment or copied onto the heap.
+     */
+    private static final class Segment {
+        private final int sourceSegment;
+        private ArrayList<Task> tasks;
+        private int length;
+
+        private Segment(int sourceSegment, int length) {
+            this.sourceSegment = sourceSegment;
+            this.length = length;
+        }
+
+        private Segment(ArrayList<Task> tasks) {
+            this.sourceSegment = -1;
+            this.tasks = tasks;
+            this.length = tasks.size();
+        }
+    }
+
+    private final TaskSource source;
+    private final ArrayList<Segment> segments = new ArrayList<>();
+    private int[] starts;
+    private int firstStaleStart;
+    private int size;
+
+    SegmentedTaskStore(TaskSource source) {
+        this.source = source;
+        for (int i = 0; i < source.segmentCount(); i++) {
+            int length = source.segmentLength(i);
+            if (length > 0) {
+                segments.add(new Segment(i, length));
+                size += length;
+            }
+        }
+        starts = new int[Math.max(16, segments.size() * 2)];
+        firstStaleStart = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        int s = segmentAt(index);
+        Segment segment = segments.get(s);
+        int offset = index - starts[s];
+        return segment.tasks != null ? segment.tasks.get(offset) : source.load(segment.sourceSegment, offset);
+    }
+
+    @Override
+    public void add(Task task) {
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last != null && last.tasks == null && last.length < MAX_SEGMENT_LENGTH / 2) {
+            // Grow a short last segment rather than starting a tiny one after it
+            last = copyOnWrite(segments.size() - 1);
+        }
+        if (last == null || last.tasks == null || last.length >= MAX_SEGMENT_LENGTH) {
+            last = new Segment(new ArrayList<>());
+            segments.add(last);
+            ensureStartsCapacity();
+            int s = segments.size() - 1;
+            if (firstStaleStart >= s) {
+                starts[s] = size;
+                firstStaleStart = s + 1;
+            }
+        }
+        last.tasks.add(task);
+        last.length++;
+        size++;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (index == size) {
+            add(task);
+            return;
+        }
+        int s = segmentAt(index);
+        Segment segment = copyOnWrite(s);
+        segment.tasks.add(index - starts[s], task);
+        segment.length++;
+        size++;
+        if (segment.length > MAX_SEGMENT_LENGTH) {
+            split(s);
+        }
+        markStartsStale(s + 1);
+    }
+
+    @Override
+    public Task remove(int index) {
+        int s = segmentAt(index);
+        Segment segment = copyOnWrite(s);
+        Task removed = segment.tasks.remove(index - starts[s]);
+        segment.length--;
+        size--;
+        if (segment.length == 0) {
+            segments.remove(s);
+            markStartsStale(s);
+        } else {
+            markStartsStale(s + 1);
+        }
+        return removed;
+    }
+
+    @Override
+    public Task setDone(int index, boolean isDone) {
+        int s = segmentAt(index);
+        Task task = copyOnWrite(s).tasks.get(index - starts[s]);
+        if (isDone) {
+            task.markAsDone();
+        } else {
+            task.markAsNotDone();
+        }
+        return task;
+    }
+
+    @Override
+    public long estimateBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            if (segment.tasks != null) {
+                bytes += (long) segment.length * ArrayTaskStore.ESTIMATED_TASK_BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public ArrayList<Task> toArrayList() {
+        ArrayList<Task> all = new ArrayList<>(size);
+        for (Segment segment : segments) {
+            all.addAll(segment.tasks != null ? segment.tasks : source.loadSegment(segment.sourceSegment));
+        }
+        return all;
+    }
+
+    @Override
+    public List<TaskSegment> getSegments() {
+        List<TaskSegment> result = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            result.add(segment.tasks != null
+                    ? TaskSegment.changed(segment.tasks)
+                    : TaskSegment.unchanged(segment.sourceSegment, segment.length));
+        }
+        return result;
+    }
+
+    /**
+     * Copies the given segment onto the heap, if it is not there already, so that it can be changed.
+     */
+    private Segment copyOnWrite(int s) {
+        Segment segment = segments.get(s);
+        if (segment.tasks != null) {
+            return segment;
+        }
+        Segment copy = new Segment(new ArrayList<>(source.loadSegment(segment.sourceSegment)));
+        assert copy.length == segment.length;
+        segments.set(s, copy);
+        return copy;
+    }
+
+    private void split(int s) {
+        ArrayList<Task> tasks = segments.get(s).tasks;
+        int half = tasks.size() / 2;
+        ArrayList<Task> tail = new ArrayList<>(tasks.subList(half, tasks.size()));
+        tasks.subList(half, tasks.size()).clear();
+        segments.get(s).length = tasks.size();
+        segments.add(s + 1, new Segment(tail));
+        ensureStartsCapacity();
+    }
+
+    /**
+     * Finds the segment holding the given index, refreshing the cached segment starts if needed.
+     */
+    @Override
+    public void prepareForConcurrentReads() {
+        refreshStarts();
+    }
+
+    private int segmentAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        refreshStarts();
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private void refreshStarts() {
+        if (firstStaleStart >= segments.size()) {
+            return;
+        }
+        ensureStartsCapacity();
+        for (int i = firstStaleStart; i < segments.size(); i++) {
+            starts[i] = i == 0 ? 0 : starts[i - 1] + segments.get(i - 1).length;
+        }
+        firstStaleStart = segments.size();
+    }
+
+    private void markStartsStale(int s) {
+        firstStaleStart = Math.min(firstStaleStart, s);
+    }
+
+    private void ensureStartsCapacity() {
+        if (starts.length < segments.size()) {
+            int[] grown = new int[segments.size() * 2];
+            System.arraycopy(starts, 0, grown, 0, starts.length);
+            starts = grown;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package bobbot.tasklist;
+
+import java.util.Arrays;
+
+/**
+ * Slots of the tasks filed under one key of an index, in the order they were added.
+ *
+ * <p>Removing a task only lowers the live count, and the slot itself stays in the list until
+ * more than half of the slots are no longer in use, when they are all dropped in one pass.
+ * Reads skip the slots no longer in use without changing the list, so several threads can
+ * read it at once.
+ */
+class SlotList {
+    private int[] slots = new int[4];
+    private int size;
+    private int liveCount;
+
+    /**
+     * Adds the slot of a task filed under this key.
+     *
+     * @param slot the slot to add
+     */
+    void add(int slot) {
+        if (size == slots.length) {
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        slots[size++] = slot;
+        liveCount++;
+    }
+
+    /**
+     * Records that one of the tasks filed under this key was removed, after its slot was
+     * removed from the order.
+     *
+     * @param order the slots of the list, which tell which slots are still in use
+     * @return true if no task is filed under this key anymore
+     */
+    boolean removeOne(SlotOrder order) {
+        assert liveCount > 0;
+        liveCount--;
+        if (liveCount > 0 && size > 2 * liveCount) {
+            compact(order);
+        }
+        return liveCount == 0;
+    }
+
+    /**
+     * Returns the number of slots in this list, including those no longer in use.
+     *
+     * @return the number of slots
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a slot of this list, which may no longer be in use.
+     *
+     * @param i the index of the slot, below {@link #size()}
+     * @return the slot
+     */
+    int get(int i) {
+        return slots[i];
+    }
+
+    /**
+     * Drops the slots that are no longer in use.
+     */
+    private void compact(SlotOrder order) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (order.isInUse(slots[i])) {
+                slots[kept++] = slots[i];
+            }
+        }
+        size = kept;
+    }
+}
@@ -0,0 +1,220 @@
+package bobbot.tasklist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Gives every task of a list a slot number that stays the same while other tasks are added
+ * and removed, and finds the current position of a slot.
+ *
+ * <p>Indexes of a {@link TaskList} refer to tasks by slot, so that inserting or deleting a
+ * task only touches the entries of that task. Slots are kept in list order in blocks, and
+ * a slot's position is the start of its block plus its offset in the block, both kept per
+ * slot, so the positions of the other slots need not be renumbered. Slots of removed tasks
+ * are not reused, since indexes may still hold them, so once most of the slots handed out
+ * belong to removed tasks, {@link #isSparse()} tells the owner to number them afresh.
+ *
+ * <p>The starts of the blocks are brought up to date lazily. Once
+ * {@link #prepareForConcurrentReads()} has been called, reads change nothing until the next
+ * insert or remove, so several threads may read at once.
+ */
+final class SlotOrder {
+    private static final int MAX_BLOCK_LENGTH = 1024;
+    private static final int MIN_SPARSE_SLOT_COUNT = 1024;
+
+    /**
+     * A run of consecutive slots.
+     */
+    private static final class Block {
+        private int[] slots = new int[MAX_BLOCK_LENGTH];
+        private int size;
+        private int start;
+    }
+
+    private final ArrayList<Block> blocks = new ArrayList<>();
+    private Block[] blockOfSlot = new Block[16];
+    private int[] offsetOfSlot = new int[16];
+    private int firstStaleBlock;
+    private int nextSlot;
+    private int liveCount;
+
+    /**
+     * Creates slots for a list of the given size, numbered in list order.
+     *
+     * @param size the number of tasks in the list
+     */
+    SlotOrder(int size) {
+        for (int i = 0; i < size; i++) {
+            insert(i);
+        }
+    }
+
+    /**
+     * Creates the slot of a task inserted at the given position.
+     *
+     * @param position the 0-based position the task was inserted at
+     * @return the new slot
+     */
+    int insert(int position) {
+        int slot = nextSlot++;
+        if (blocks.isEmpty()) {
+            blocks.add(new Block());
+        }
+        int b = blockAt(position);
+        Block block = blocks.get(b);
+        if (block.size == MAX_BLOCK_LENGTH) {
+            split(b);
+            b = blockAt(position);
+            block = blocks.get(b);
+        }
+        int offset = position - block.start;
+        System.arraycopy(block.slots, offset, block.slots, offset + 1, block.size - offset);
+        block.slots[offset] = slot;
+        block.size++;
+        setBlockOf(slot, block);
+        updateOffsets(block, offset);
+        liveCount++;
+        markStale(b + 1);
+        return slot;
+    }
+
+    /**
+     * Removes the slot of a task removed from the given position.
+     *
+     * @param position the 0-based position the task was removed from
+     * @return the slot the task had
+     */
+    int remove(int position) {
+        int b = blockAt(position);
+        Block block = blocks.get(b);
+        int offset = position - block.start;
+        int slot = block.slots[offset];
+        System.arraycopy(block.slots, offset + 1, block.slots, offset, block.size - offset - 1);
+        block.size--;
+        blockOfSlot[slot] = null;
+        updateOffsets(block, offset);
+        liveCount--;
+        if (block.size == 0) {
+            blocks.remove(b);
+            markStale(b);
+        } else {
+            markStale(b + 1);
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the slot of the task at the given position.
+     *
+     * @param position the 0-based position of the task
+     * @return its slot
+     */
+    int slotAt(int position) {
+        Block block = blocks.get(blockAt(position));
+        return block.slots[position - block.start];
+    }
+
+    /**
+     * Returns the current position of a slot that is still in use.
+     *
+     * @param slot the slot to look for
+     * @return the 0-based position of the slot's task
+     */
+    int positionOf(int slot) {
+        refreshStarts();
+        return blockOfSlot[slot].start + offsetOfSlot[slot];
+    }
+
+    /**
+     * Checks whether a slot still belongs to a task in the list.
+     *
+     * @param slot the slot to check
+     * @return false if the slot's task was removed
+     */
+    boolean isInUse(int slot) {
+        return slot < blockOfSlot.length && blockOfSlot[slot] != null;
+    }
+
+    /**
+     * Checks whether most of the slots handed out belong to removed tasks, so that the slots
+     * should be numbered afresh to keep the tables indexed by slot from growing.
+     *
+     * @return true if more than half of the slots are no longer in use
+     */
+    boolean isSparse() {
+        return nextSlot > MIN_SPARSE_SLOT_COUNT && nextSlot > 2 * liveCount;
+    }
+
+    /**
+     * Brings the starts of the blocks up to date, so that reads do not have to.
+     */
+    void prepareForConcurrentReads() {
+        refreshStarts();
+    }
+
+    private int blockAt(int position) {
+        refreshStarts();
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (blocks.get(mid).start <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private void split(int b) {
+        Block block = blocks.get(b);
+        Block tail = new Block();
+        int half = block.size / 2;
+        tail.size = block.size - half;
+        System.arraycopy(block.slots, half, tail.slots, 0, tail.size);
+        block.size = half;
+        for (int i = 0; i < tail.size; i++) {
+            blockOfSlot[tail.slots[i]] = tail;
+            offsetOfSlot[tail.slots[i]] = i;
+        }
+        blocks.add(b + 1, tail);
+        markStale(b + 1);
+    }
+
+    /**
+     * Recomputes the starts of the blocks from the first one whose start may be out of date.
+     */
+    private void refreshStarts() {
+        if (firstStaleBlock >= blocks.size()) {
+            return;
+        }
+        for (int i = firstStaleBlock; i < blocks.size(); i++) {
+            Block previous = i == 0 ? null : blocks.get(i - 1);
+            blocks.get(i).start = previous == null ? 0 : previous.start + previous.size;
+        }
+        firstStaleBlock = blocks.size();
+    }
+
+    private void markStale(int b) {
+        firstStaleBlock = Math.min(firstStaleBlock, b);
+    }
+
+    private void setBlockOf(int slot, Block block) {
+        if (slot >= blockOfSlot.length) {
+            int length = Math.max(slot + 1, blockOfSlot.length * 2);
+            blockOfSlot = Arrays.copyOf(blockOfSlot, length);
+            offsetOfSlot = Arrays.copyOf(offsetOfSlot, length);
+        }
+        blockOfSlot[slot] = block;
+    }
+
+    /**
+     * Records the offsets of the slots of a block from the given offset on, after they moved.
+     */
+    private void updateOffsets(Block block, int from) {
+        for (int i = from; i < block.size; i++) {
+            offsetOfSlot[block.slots[i]] = i;
+        }
+    }
+}
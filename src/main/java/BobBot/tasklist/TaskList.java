@@ -1,24 +1,58 @@
 package bobbot.tasklist;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
 
 import bobbot.exception.BobException;
 import bobbot.task.Task;
 
 /**
  * Manages a collection of tasks with operations to add, delete, and retrieve tasks.
- * Provides a wrapper around ArrayList with additional validation and error handling
- * specific to task management operations.
+ * Validates task numbers and keeps the order of the tasks, and leaves keeping the tasks
+ * themselves to a task store behind it, of which there are three kinds:
+ * <ul>
+ *   <li>an array of Task objects, for a TaskList created from a list of tasks;</li>
+ *   <li>segments of a {@link TaskSource}, for a TaskList opened lazily over one, where tasks
+ *       stay in the source until they are asked for;</li>
+ *   <li>columns, for a TaskList created with {@link #ofColumns(List)}, which take far less
+ *       memory per task than objects.</li>
+ * </ul>
+ * Whatever the store, changes to a task's done flag should go through
+ * {@link #markTask(int, boolean)} so that they are kept. The columnar store hands out a new
+ * Task object on every call, so callers must not rely on the identity of the tasks they get.
+ *
+ * <p>{@link #findTasks(String)} and {@link #findSimilarTasks(String, int)} build an index of
+ * the descriptions' words the first time one of them is called, and
+ * {@link #findTasksDueBetween(LocalDate, LocalDate)} builds an index of the deadlines by due
+ * date. Every later add, insert and delete keeps the indexes that were built up to date.
+ *
+ * <p>A TaskList is not safe to change from several threads, nor while it is being read. After
+ * {@link #prepareForConcurrentReads()}, though, any number of threads may read it at once,
+ * including the searches above, until it is next changed, without taking any lock once the
+ * indexes they use are built. Callers that share a TaskList
+ * between threads, such as {@link bobbot.core.BobBot}, keep changes apart from reads with a
+ * read-write lock.
  */
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    private static final int SLOT_BYTES_PER_TASK = 12;
+    private static final int DESCRIPTION_INDEX_BYTES_PER_TASK = 48;
+    private static final int DUE_DATE_INDEX_BYTES_PER_TASK = 4;
+
+    private final TaskStore tasks;
+    private SlotOrder slots;
+    private volatile DescriptionIndex descriptionIndex;
+    private volatile DueDateIndex dueDateIndex;
+    private volatile boolean isSettled; // Whether nothing changed since the last prepareForConcurrentReads
 
     /**
      * Constructs an empty TaskList.
      * Initializes the internal task collection as an empty ArrayList.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this.tasks = new ArrayTaskStore(new ArrayList<>());
         assert tasks != null;
     }
 
@@ -30,10 +64,38 @@ public class TaskList {
      */
     public TaskList(ArrayList<Task> tasks) {
         assert tasks != null;
-        this.tasks = tasks;
+        this.tasks = new ArrayTaskStore(tasks);
         assert this.tasks != null;
     }
 
+    /**
+     * Constructs a TaskList that decodes the tasks of the given source on demand.
+     * Startup cost and heap usage then do not depend on how many tasks the source holds.
+     * Only the segments that are changed are copied onto the heap, and {@link #getSegments()}
+     * reports which ones they are.
+     *
+     * @param source the tasks to open lazily
+     */
+    public TaskList(TaskSource source) {
+        assert source != null;
+        this.tasks = new SegmentedTaskStore(source);
+    }
+
+    private TaskList(TaskStore tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * Creates a TaskList that keeps the given tasks in columns instead of as Task objects.
+     *
+     * @param tasks the initial tasks, which are copied into the columns
+     * @return the new TaskList
+     */
+    public static TaskList ofColumns(List<Task> tasks) {
+        assert tasks != null;
+        return new TaskList(new ColumnarTaskStore(tasks));
+    }
+
     /**
      * Adds a new task to the end of the task list.
      *
@@ -41,7 +103,26 @@ public class TaskList {
      */
     public void addTask(Task task) {
         assert task != null;
+        isSettled = false;
         tasks.add(task);
+        indexInsertedTask(tasks.size() - 1, task);
+    }
+
+    /**
+     * Inserts a task at the specified index, shifting later tasks back by one.
+     *
+     * @param index the 0-based index to insert the task at, at most the current size
+     * @param task the Task to be inserted
+     * @throws BobException if the index is out of bounds
+     */
+    public void insertTask(int index, Task task) throws BobException {
+        assert task != null;
+        if (index < 0 || index > tasks.size()) {
+            throw new BobException("BOBZ!!! That task number does not exist.");
+        }
+        isSettled = false;
+        tasks.add(index, task);
+        indexInsertedTask(index, task);
     }
 
     /**
@@ -57,7 +138,65 @@ public class TaskList {
 
         assert index >= 0 && index < tasks.size();
 
-        return tasks.remove(index);
+        isSettled = false;
+        Task removedTask = tasks.remove(index);
+        unindexRemovedTask(index, removedTask);
+        renumberSlotsIfSparse();
+        return removedTask;
+    }
+
+    /**
+     * Deletes the tasks at the specified indices. The list is compacted in one pass,
+     * so each remaining task is moved at most once however many tasks are deleted.
+     *
+     * @param indices the 0-based indices of the tasks to delete, in increasing order without repeats
+     * @return the Tasks that were removed, in the same order
+     * @throws BobException if any index is out of bounds
+     */
+    public List<Task> deleteTasks(int[] indices) throws BobException {
+        validateIndices(indices, 0);
+
+        isSettled = false;
+        List<Task> removedTasks = tasks.removeAll(indices);
+        for (int i = indices.length - 1; i >= 0; i--) {
+            unindexRemovedTask(indices[i], removedTasks.get(i));
+        }
+        renumberSlotsIfSparse();
+        return removedTasks;
+    }
+
+    /**
+     * Inserts tasks so that they end up at the specified indices, which undoes
+     * {@link #deleteTasks(int[])} when given the same indices and the tasks it returned.
+     *
+     * @param indices the 0-based indices the tasks end up at, in increasing order without repeats
+     * @param insertedTasks the Tasks to insert, in the same order
+     * @throws BobException if any index is out of bounds
+     */
+    public void insertTasks(int[] indices, List<Task> insertedTasks) throws BobException {
+        assert indices.length == insertedTasks.size();
+        validateIndices(indices, indices.length);
+
+        isSettled = false;
+        tasks.addAll(indices, insertedTasks);
+        for (int i = 0; i < indices.length; i++) {
+            indexInsertedTask(indices[i], insertedTasks.get(i));
+        }
+    }
+
+    /**
+     * Marks the task at the specified index as done or not done.
+     *
+     * @param index the 0-based index of the task to mark
+     * @param isDone whether the task should be marked as done
+     * @return the updated Task
+     * @throws BobException if the index is out of bounds
+     */
+    public Task markTask(int index, boolean isDone) throws BobException {
+        validateIndex(index);
+
+        isSettled = false;
+        return tasks.setDone(index, isDone);
     }
 
     /**
@@ -78,7 +217,7 @@ public class TaskList {
 
     /**
      * Retrieves the task at the specified index without bounds checking.
-     * Direct access to the underlying ArrayList's get method.
+     * Direct access to the underlying store's get method.
      *
      * @param index the 0-based index of the task to retrieve
      * @return the Task at the specified index
@@ -90,6 +229,129 @@ public class TaskList {
         return tasks.get(index);
     }
 
+    /**
+     * Retrieves the description of the task at the specified index without bounds checking.
+     * Cheaper than getting the whole task when only the description is needed.
+     *
+     * @param index the 0-based index of the task
+     * @return the description of the task at the specified index
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public String getDescription(int index) {
+        assert index >= 0 && index < tasks.size();
+
+        return tasks.getDescription(index);
+    }
+
+    /**
+     * Checks whether the description of the task at the specified index contains the keyword,
+     * ignoring case. Columnar TaskLists answer this without building a String per task.
+     *
+     * @param index the 0-based index of the task
+     * @param keyword the text to look for, already in lower case
+     * @return true if the lower-cased description contains the keyword
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public boolean descriptionContains(int index, String keyword) {
+        assert index >= 0 && index < tasks.size();
+        assert keyword != null;
+
+        return tasks.descriptionContains(index, keyword);
+    }
+
+    /**
+     * Finds the tasks whose description contains the keyword, ignoring case.
+     * A keyword without whitespace is looked up in the index of the descriptions' words,
+     * so only the matching tasks are visited. For any other keyword, the tasks that contain
+     * its longest word are looked up and then checked for the whole keyword.
+     *
+     * @param keyword the text to look for, already in lower case
+     * @return the 0-based indices of the matching tasks, in list order
+     */
+    public int[] findTasks(String keyword) {
+        assert keyword != null;
+
+        String token = DescriptionIndex.longestToken(keyword);
+        if (token.isEmpty()) {
+            return scanTasks(keyword);
+        }
+        int[] indices = getDescriptionIndex().find(token);
+        if (token.length() == keyword.length()) {
+            return indices;
+        }
+
+        int[] candidates = indices;
+        settleIfChanged();
+        int[] matches = ParallelScan.filter(candidates.length, i -> tasks.descriptionContains(candidates[i], keyword));
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = candidates[matches[i]];
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the tasks that have a word within the given edit distance of the keyword, ignoring
+     * case, to forgive typos. The words are looked up in the index of the descriptions' words.
+     *
+     * @param keyword the word to look for, already in lower case and without whitespace
+     * @param maxDistance the largest number of single character edits between the keyword and a word
+     * @return the 0-based indices of the matching tasks, closest matches first and otherwise in list order
+     */
+    public int[] findSimilarTasks(String keyword, int maxDistance) {
+        assert keyword != null;
+        assert maxDistance >= 0;
+
+        return getDescriptionIndex().findSimilar(keyword, maxDistance);
+    }
+
+    /**
+     * Finds the deadlines due on any day in the given range, from an index of the deadlines
+     * sorted by due date. Deadlines given as free-form text are never due in a range.
+     *
+     * @param from the first day of the range
+     * @param to the last day of the range, which is included
+     * @return the 0-based indices of the deadlines, earliest due first and otherwise in list order
+     */
+    public int[] findTasksDueBetween(LocalDate from, LocalDate to) {
+        assert from != null && to != null;
+
+        if (from.isAfter(to)) {
+            return new int[0];
+        }
+        return getDueDateIndex().findDueBetween(from, to);
+    }
+
+    /**
+     * Finds the tasks that the predicate accepts. Long lists are split into chunks that are
+     * tested in parallel, see {@link ParallelScan}, so the predicate may be called from several
+     * threads at once and must only read this TaskList.
+     *
+     * @param predicate the test for the 0-based index of each task
+     * @return the 0-based indices of the accepted tasks, in list order
+     */
+    public int[] filterTasks(IntPredicate predicate) {
+        assert predicate != null;
+
+        settleIfChanged();
+        return ParallelScan.filter(tasks.size(), predicate);
+    }
+
+    /**
+     * Builds one string per index in [0, count) and joins them in order. Long ranges are built
+     * in parallel chunks, see {@link ParallelScan}, so the formatter may be called from several
+     * threads at once and must only read this TaskList.
+     *
+     * @param count the number of strings to build, such as the size of this TaskList
+     * @param formatter builds the string for an index
+     * @return the strings joined in index order
+     */
+    public String joinTasks(int count, IntFunction<String> formatter) {
+        assert count >= 0 && formatter != null;
+
+        settleIfChanged();
+        return ParallelScan.join(count, formatter);
+    }
+
     /**
      * Returns the number of tasks in this TaskList.
      *
@@ -108,29 +370,202 @@ public class TaskList {
      * @return true if the TaskList is empty, false otherwise
      */
     public boolean isEmpty() {
-        boolean isEmpty = tasks.isEmpty();
+        boolean isEmpty = tasks.size() == 0;
         assert (isEmpty && tasks.size() == 0) || (!isEmpty && tasks.size() > 0);
 
         return isEmpty;
     }
 
     /**
-     * Returns the underlying ArrayList of tasks.
-     * Used primarily for storage operations and iteration.
+     * Returns the tasks in a new ArrayList, which later changes to this TaskList do not affect.
+     * Used primarily for storage operations and iteration. For a lazily opened or
+     * columnar TaskList this builds every task.
      *
-     * @return the ArrayList containing all tasks
+     * @return a new ArrayList containing all tasks
      */
     public ArrayList<Task> getTasks() {
         assert tasks != null;
 
-        return tasks;
+        return tasks.toArrayList();
+    }
+
+    /**
+     * Describes the tasks as segments for incremental saving. A TaskList opened over a
+     * {@link TaskSource} reports which source segments are still unchanged, so that only
+     * the changed ones need to be written. Any other TaskList reports all of its tasks as changed.
+     *
+     * @return the segments in list order
+     */
+    public List<TaskSegment> getSegments() {
+        return tasks.getSegments();
+    }
+
+    /**
+     * Estimates how many bytes of heap this TaskList keeps alive, counting its tasks and the
+     * indexes that were built. Tasks of a lazily opened TaskList that are still only on disk
+     * are not counted.
+     *
+     * @return the estimated size in bytes
+     */
+    public synchronized long estimateBytes() {
+        long bytes = tasks.estimateBytes();
+        if (slots != null) {
+            bytes += (long) tasks.size() * SLOT_BYTES_PER_TASK;
+        }
+        if (descriptionIndex != null) {
+            bytes += (long) tasks.size() * DESCRIPTION_INDEX_BYTES_PER_TASK;
+        }
+        if (dueDateIndex != null) {
+            bytes += (long) tasks.size() * DUE_DATE_INDEX_BYTES_PER_TASK;
+        }
+        return bytes;
+    }
+
+    /**
+     * Settles any state that reads would otherwise update lazily, so that every method that
+     * does not change this TaskList can then be called from several threads at once until it
+     * is next changed. The indexes that were not built yet are still built by the first search
+     * that needs them, while the other readers of that index wait.
+     */
+    public synchronized void prepareForConcurrentReads() {
+        tasks.prepareForConcurrentReads();
+        if (slots != null) {
+            slots.prepareForConcurrentReads();
+        }
+        isSettled = true;
+    }
+
+    /**
+     * Settles the state that reads would otherwise update lazily before a scan hands reads to
+     * other threads, unless nothing changed since it was last settled. Callers that settle it
+     * after every change, such as {@link bobbot.core.BobBot}, so never take the lock here.
+     */
+    private void settleIfChanged() {
+        if (!isSettled) {
+            prepareForConcurrentReads();
+        }
+    }
+
+    /**
+     * Returns the index of the descriptions' words, building it on first use. Searches may
+     * build it from several threads at once, so it is built under this TaskList's lock, which
+     * is only taken while it is not built yet.
+     */
+    private DescriptionIndex getDescriptionIndex() {
+        DescriptionIndex index = descriptionIndex;
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            if (descriptionIndex == null) {
+                descriptionIndex = new DescriptionIndex(tasks, getSlots());
+            }
+            return descriptionIndex;
+        }
+    }
+
+    /**
+     * Returns the index of the deadlines by due date, building it on first use under this
+     * TaskList's lock, as for the description index.
+     */
+    private DueDateIndex getDueDateIndex() {
+        DueDateIndex index = dueDateIndex;
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            if (dueDateIndex == null) {
+                dueDateIndex = new DueDateIndex(tasks, getSlots());
+            }
+            return dueDateIndex;
+        }
+    }
+
+    /**
+     * Returns the slots of the tasks, creating them on first use. Only called with this
+     * TaskList's lock held.
+     */
+    private SlotOrder getSlots() {
+        if (slots == null) {
+            slots = new SlotOrder(tasks.size());
+            slots.prepareForConcurrentReads();
+        }
+        return slots;
+    }
+
+    /**
+     * Gives a newly added task a slot and adds it to the indexes that were built so far.
+     */
+    private void indexInsertedTask(int index, Task task) {
+        if (slots == null) {
+            return;
+        }
+        int slot = slots.insert(index);
+        if (descriptionIndex != null) {
+            descriptionIndex.inserted(slot, task.getDescription());
+        }
+        if (dueDateIndex != null) {
+            dueDateIndex.inserted(slot, task);
+        }
+    }
+
+    /**
+     * Drops a removed task from its slot and from the indexes that were built so far.
+     */
+    private void unindexRemovedTask(int index, Task removedTask) {
+        if (slots != null) {
+            slots.remove(index);
+        }
+        if (descriptionIndex != null) {
+            descriptionIndex.removed(removedTask.getDescription());
+        }
+        if (dueDateIndex != null) {
+            dueDateIndex.removed(removedTask);
+        }
+    }
+
+    /**
+     * Numbers the slots afresh and rebuilds the indexes that were built, once most slots
+     * belong to removed tasks. Slots are never reused, so without this the tables indexed by
+     * slot would keep growing as tasks are added and deleted. Each rebuild follows at least
+     * as many deletes as there are tasks left, so its cost is spread over them.
+     */
+    private void renumberSlotsIfSparse() {
+        if (slots == null || !slots.isSparse()) {
+            return;
+        }
+        slots = new SlotOrder(tasks.size());
+        if (descriptionIndex != null) {
+            descriptionIndex = new DescriptionIndex(tasks, slots);
+        }
+        if (dueDateIndex != null) {
+            dueDateIndex = new DueDateIndex(tasks, slots);
+        }
+    }
+
+    private int[] scanTasks(String keyword) {
+        settleIfChanged();
+        return ParallelScan.filter(tasks.size(), i -> tasks.descriptionContains(i, keyword));
     }
 
     private void validateIndex(int index) throws BobException {
         assert tasks != null;
-        
+
         if (index < 0 || index >= tasks.size()) {
             throw new BobException("BOBZ!!! That task number does not exist.");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks that the indices are increasing and below the list size plus the given extra count.
+     */
+    private void validateIndices(int[] indices, int extraCount) throws BobException {
+        int previous = -1;
+        for (int index : indices) {
+            if (index <= previous || index >= tasks.size() + extraCount) {
+                throw new BobException("BOBZ!!! That task number does not exist.");
+            }
+            previous = index;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package bobbot.tasklist;
+
+import java.util.List;
+
+import bobbot.task.Task;
+
+/**
+ * A run of consecutive tasks in a {@link TaskList}, as reported for incremental saving.
+ * An unchanged segment still matches a segment of the list's {@link TaskSource} and
+ * does not need to be written again. A changed segment carries its current tasks.
+ */
+public final class TaskSegment {
+    private final int sourceSegment;
+    private final List<Task> tasks;
+    private final int size;
+
+    private TaskSegment(int sourceSegment, List<Task> tasks, int size) {
+        this.sourceSegment = sourceSegment;
+        this.tasks = tasks;
+        this.size = size;
+    }
+
+    static TaskSegment unchanged(int sourceSegment, int size) {
+        return new TaskSegment(sourceSegment, null, size);
+    }
+
+    static TaskSegment changed(List<Task> tasks) {
+        return new TaskSegment(-1, tasks, tasks.size());
+    }
+
+    /**
+     * Returns whether this segment was changed since the list was opened.
+     *
+     * @return true if the segment must be written again
+     */
+    public boolean isChanged() {
+        return tasks != null;
+    }
+
+    /**
+     * Returns the source segment this unchanged segment still matches.
+     *
+     * @return the 0-based source segment number, or -1 if this segment was changed
+     */
+    public int getSourceSegment() {
+        return sourceSegment;
+    }
+
+    /**
+     * Returns the current tasks of this changed segment.
+     *
+     * @return the tasks in list order, or null if this segment is unchanged
+     */
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Returns the number of tasks in this segment.
+     *
+     * @return the number of tasks
+     */
+    public int size() {
+        return size;
+    }
+}
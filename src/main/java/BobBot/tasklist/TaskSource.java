@@ -0,0 +1,53 @@
+package bobbot.tasklist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import bobbot.task.Task;
+
+/**
+ * Read-only view of tasks that are kept outside the heap, such as in a task file on disk,
+ * split into consecutive segments. Lets a {@link TaskList} decode tasks only when they
+ * are needed, and lets it report which segments it has changed since it was opened.
+ */
+public interface TaskSource {
+    /**
+     * Returns the number of segments in this source.
+     *
+     * @return the number of segments
+     */
+    int segmentCount();
+
+    /**
+     * Returns the number of tasks in the given segment.
+     *
+     * @param segment the 0-based segment number
+     * @return the number of tasks in that segment
+     */
+    int segmentLength(int segment);
+
+    /**
+     * Loads a task from the given segment. Repeated calls may return different
+     * but equal Task objects, so callers must not rely on identity.
+     *
+     * @param segment the 0-based segment number
+     * @param offset the 0-based position of the task within the segment
+     * @return the task at that position
+     */
+    Task load(int segment, int offset);
+
+    /**
+     * Loads every task of the given segment.
+     *
+     * @param segment the 0-based segment number
+     * @return a new list holding the segment's tasks in order
+     */
+    default List<Task> loadSegment(int segment) {
+        int length = segmentLength(segment);
+        List<Task> tasks = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            tasks.add(load(segment, i));
+        }
+        return tasks;
+    }
+}
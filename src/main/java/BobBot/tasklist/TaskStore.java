@@ -0,0 +1,112 @@
+package bobbot.tasklist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import bobbot.task.Task;
+
+/**
+ * Backing storage of a {@link TaskList}.
+ * Indices are 0-based and have already been validated by the TaskList.
+ */
+interface TaskStore {
+    int size();
+
+    Task get(int index);
+
+    /**
+     * Returns the description of the task at the given position, which stores that do not
+     * keep Task objects can answer without building the whole task.
+     *
+     * @param index the 0-based position of the task
+     * @return the task's description
+     */
+    default String getDescription(int index) {
+        return get(index).getDescription();
+    }
+
+    /**
+     * Checks whether the description of the task at the given position, in lower case,
+     * contains the given keyword.
+     *
+     * @param index the 0-based position of the task
+     * @param keyword the lower-case text to look for
+     * @return true if the keyword occurs in the lower-cased description
+     */
+    default boolean descriptionContains(int index, String keyword) {
+        return getDescription(index).toLowerCase().contains(keyword);
+    }
+
+    /**
+     * Settles any state that reads would otherwise update lazily, so that get,
+     * getDescription and descriptionContains can then be called from several threads at once
+     * until the store is next changed.
+     */
+    default void prepareForConcurrentReads() {
+    }
+
+    void add(Task task);
+
+    void add(int index, Task task);
+
+    Task remove(int index);
+
+    /**
+     * Removes the tasks at the given positions.
+     *
+     * @param indices the 0-based positions to remove, in increasing order without repeats
+     * @return the removed tasks, in the same order
+     */
+    default List<Task> removeAll(int[] indices) {
+        Task[] removed = new Task[indices.length];
+        for (int i = indices.length - 1; i >= 0; i--) {
+            removed[i] = remove(indices[i]);
+        }
+        return Arrays.asList(removed);
+    }
+
+    /**
+     * Inserts tasks so that they end up at the given positions.
+     *
+     * @param indices the 0-based positions the tasks end up at, in increasing order without repeats
+     * @param tasks the tasks to insert, in the same order
+     */
+    default void addAll(int[] indices, List<Task> tasks) {
+        for (int i = 0; i < indices.length; i++) {
+            add(indices[i], tasks.get(i));
+        }
+    }
+
+    /**
+     * Marks the task at the given position as done or not done, making sure the
+     * change is not lost if the store hands out fresh Task objects later.
+     *
+     * @param index the 0-based position of the task
+     * @param isDone whether the task is done
+     * @return the updated task
+     */
+    Task setDone(int index, boolean isDone);
+
+    /**
+     * Estimates how many bytes of heap the store keeps alive for its tasks. Tasks that are
+     * still only in a source on disk are not counted.
+     *
+     * @return the estimated size in bytes
+     */
+    long estimateBytes();
+
+    /**
+     * Returns the tasks in a new ArrayList, which later changes to the store do not affect.
+     *
+     * @return the tasks in list order
+     */
+    ArrayList<Task> toArrayList();
+
+    /**
+     * Describes the tasks as segments, telling apart those changed since the store was opened.
+     *
+     * @return the segments in list order
+     */
+    List<TaskSegment> getSegments();
+}
@@ -1,49 +1,68 @@
 package bobbot.undo;
 
+import java.util.Arrays;
+import java.util.List;
+
 import bobbot.task.Task;
 
 /**
  * Represents an action that can be undone in BobBot.
  * Stores the type of action and the necessary data to reverse it.
+ * An action may have changed several tasks at once, such as deleting a range of tasks,
+ * in which case it is undone as a whole.
+ *
+ * <p>Only what is needed to reverse the action is kept: the indices of the tasks, as runs
+ * of consecutive indices, and the tasks themselves only if they were deleted. Added and
+ * marked tasks are still in the list and are found again by index.
  */
 public class Undo {
-    
+
     /**
      * Enumeration of action types that can be undone.
      */
     public enum ActionType {
         ADD_TASK, DELETE_TASK, MARK_TASK, UNMARK_TASK
     }
-    
+
+    private static final int OBJECT_OVERHEAD_BYTES = 16;
+    private static final int REFERENCE_BYTES = 8;
+    private static final int TASK_OVERHEAD_BYTES = 64;
+
     private final ActionType actionType;
-    private final Task task;
-    private final int index; // Used for delete operations to restore at correct position
-    
+    private final List<Task> tasks;
+    private final int[] runs; // First and last index of each run of consecutive indices
+    private final int size;
+
     /**
-     * Creates an UndoableAction for add/mark/unmark operations.
+     * Creates an UndoableAction for an add, mark or unmark operation on the tasks at the given
+     * indices, which are still in the list afterwards.
      *
-     * @param actionType the type of action performed
-     * @param task the task that was affected
+     * @param actionType the type of action performed, other than DELETE_TASK
+     * @param indices the indices of the tasks, in increasing order
      */
-    public Undo(ActionType actionType, Task task) {
-        this.actionType = actionType;
-        this.task = task;
-        this.index = -1; // Not needed for add/mark/unmark
+    public Undo(ActionType actionType, int[] indices) {
+        this(actionType, List.of(), indices);
+        assert actionType != ActionType.DELETE_TASK : "Deleted tasks must be kept to undo bobz";
     }
-    
+
     /**
-     * Creates an UndoableAction for delete operations.
+     * Creates an UndoableAction for the deletion of the given tasks.
      *
-     * @param actionType the type of action performed (should be DELETE_TASK)
-     * @param task the task that was deleted
-     * @param index the original index where the task was located
+     * @param deletedTasks the tasks that were deleted
+     * @param indices the indices where the tasks were located, in increasing order
      */
-    public Undo(ActionType actionType, Task task, int index) {
+    public Undo(List<Task> deletedTasks, int[] indices) {
+        this(ActionType.DELETE_TASK, deletedTasks, indices);
+        assert deletedTasks.size() == indices.length;
+    }
+
+    private Undo(ActionType actionType, List<Task> tasks, int[] indices) {
         this.actionType = actionType;
-        this.task = task;
-        this.index = index;
+        this.tasks = List.copyOf(tasks);
+        this.runs = runsOf(indices);
+        this.size = indices.length;
     }
-    
+
     /**
      * Gets the type of action that was performed.
      *
@@ -52,22 +71,80 @@ public class Undo {
     public ActionType getActionType() {
         return actionType;
     }
-    
+
     /**
-     * Gets the task that was affected by the action.
+     * Gets the deleted tasks of a DELETE_TASK action.
      *
-     * @return the Task object
+     * @return the Task objects, in the order of their indices, or an empty list for other actions
      */
-    public Task getTask() {
-        return task;
+    public List<Task> getTasks() {
+        return tasks;
     }
-    
+
     /**
-     * Gets the index where the task was originally located (for delete operations).
+     * Gets the index where the task was located when the action was performed,
+     * or that of the first task if there were several.
      *
-     * @return the original index, or -1 if not applicable
+     * @return the original index
      */
     public int getIndex() {
-        return index;
+        assert size > 0;
+        return runs[0];
+    }
+
+    /**
+     * Gets the indices where the tasks were located when the action was performed.
+     *
+     * @return the original indices, in increasing order
+     */
+    public int[] getIndices() {
+        int[] indices = new int[size];
+        int next = 0;
+        for (int i = 0; i < runs.length; i += 2) {
+            for (int index = runs[i]; index <= runs[i + 1]; index++) {
+                indices[next++] = index;
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Gets the number of tasks affected by the action.
+     *
+     * @return the number of tasks
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Estimates how many bytes of memory this action keeps alive, counting the deleted tasks
+     * since nothing else refers to them anymore.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateBytes() {
+        long bytes = 3L * OBJECT_OVERHEAD_BYTES + (long) runs.length * Integer.BYTES;
+        for (Task task : tasks) {
+            bytes += REFERENCE_BYTES + TASK_OVERHEAD_BYTES + task.getDescription().length();
+        }
+        return bytes;
+    }
+
+    /**
+     * Packs increasing indices into the first and last index of each run of consecutive ones.
+     */
+    private static int[] runsOf(int[] indices) {
+        int[] runs = new int[2 * indices.length];
+        int count = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (count > 0 && runs[count - 1] == indices[i] - 1) {
+                runs[count - 1] = indices[i];
+            } else {
+                runs[count++] = indices[i];
+                runs[count++] = indices[i];
+            }
+        }
+        return Arrays.copyOf(runs, count);
     }
-}
\ No newline at end of file
+}
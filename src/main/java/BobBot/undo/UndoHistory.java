@@ -0,0 +1,135 @@
+package bobbot.undo;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Bounded history of the actions that can be undone, and of the undone actions that can be redone.
+ *
+ * <p>Both stacks are ring buffers, so recording an action and dropping the oldest one cost
+ * constant time however long the session runs. The history holds at most a given number of
+ * actions, and at most about a given number of bytes as estimated by
+ * {@link Undo#estimateBytes()}; the oldest actions are forgotten first. Recording a new
+ * action forgets the actions that could be redone, as usual.
+ */
+public class UndoHistory {
+    private final Deque<Undo> undoable = new ArrayDeque<>();
+    private final Deque<Undo> redoable = new ArrayDeque<>();
+    private final int maxDepth;
+    private final long maxBytes;
+    private long bytes;
+
+    /**
+     * Creates an empty history.
+     *
+     * @param maxDepth the most actions to remember, at least 1
+     * @param maxBytes about the most memory the remembered actions may keep alive
+     */
+    public UndoHistory(int maxDepth, long maxBytes) {
+        assert maxDepth >= 1;
+        this.maxDepth = maxDepth;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Creates a history with the same actions as another one, which is not changed by
+     * changes to the copy.
+     *
+     * @param other the history to copy
+     */
+    public UndoHistory(UndoHistory other) {
+        this(other.maxDepth, other.maxBytes);
+        undoable.addAll(other.undoable);
+        redoable.addAll(other.redoable);
+        bytes = other.bytes;
+    }
+
+    /**
+     * Remembers a new action, which can then be undone, and forgets the actions that could be redone.
+     *
+     * @param action how to undo the action
+     */
+    public void record(Undo action) {
+        for (Undo forgotten : redoable) {
+            bytes -= forgotten.estimateBytes();
+        }
+        redoable.clear();
+        push(undoable, action);
+    }
+
+    /**
+     * Takes the latest action that can be undone.
+     *
+     * @return how to undo the action, or null if there is none
+     */
+    public Undo takeUndoable() {
+        return take(undoable);
+    }
+
+    /**
+     * Remembers that an action was undone, so that it can be redone.
+     *
+     * @param reversal how to undo the undoing, which redoes the action
+     */
+    public void undone(Undo reversal) {
+        push(redoable, reversal);
+    }
+
+    /**
+     * Takes the latest undone action, to redo it.
+     *
+     * @return how to redo the action, or null if there is none
+     */
+    public Undo takeRedoable() {
+        return take(redoable);
+    }
+
+    /**
+     * Remembers that an action was redone, so that it can be undone again.
+     * Unlike {@link #record(Undo)}, the other actions that can be redone are kept.
+     *
+     * @param action how to undo the redone action
+     */
+    public void redone(Undo action) {
+        push(undoable, action);
+    }
+
+    /**
+     * Gets the number of actions that can be undone.
+     *
+     * @return the number of undoable actions
+     */
+    public int undoableCount() {
+        return undoable.size();
+    }
+
+    /**
+     * Estimates how many bytes of memory the remembered actions keep alive.
+     *
+     * @return the sum of {@link Undo#estimateBytes()} over both stacks
+     */
+    public long estimateBytes() {
+        return bytes;
+    }
+
+    private void push(Deque<Undo> stack, Undo action) {
+        stack.addLast(action);
+        bytes += action.estimateBytes();
+        while (undoable.size() + redoable.size() > 1
+                && (undoable.size() + redoable.size() > maxDepth || bytes > maxBytes)) {
+            // Forget the oldest undoable action first, then the furthest redoable one,
+            // but never the action just pushed
+            boolean isOnlyNewAction = stack == undoable && undoable.size() == 1;
+            Deque<Undo> oldest = undoable.isEmpty() || isOnlyNewAction ? redoable : undoable;
+            bytes -= oldest.pollFirst().estimateBytes();
+        }
+    }
+
+    private Undo take(Deque<Undo> stack) {
+        Undo action = stack.pollLast();
+        if (action != null) {
+            bytes -= action.estimateBytes();
+        }
+        return action;
+    }
+}
@@ -0,0 +1,81 @@
+package bobbot.metrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Map;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import bobbot.core.BobBot;
+
+public class BobBotMetricsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCommandsAndStorageAreRecorded() {
+        BobBot bobBot = new BobBot(tempDir.resolve("tasks.txt").toString());
+        bobBot.getResponse("todo read book");
+        bobBot.getResponse("todo sleep");
+        bobBot.getResponse("mark 9");
+        bobBot.getResponse("find book");
+        bobBot.getResponse("bye");
+
+        BobBotMetrics metrics = bobBot.getMetrics();
+        Map<String, LatencyStats> commands = metrics.getCommands();
+        assertEquals(2, commands.get("TODO").getCount());
+        assertEquals(0, commands.get("TODO").getErrorCount());
+        assertEquals(1, commands.get("MARK").getErrorCount());
+        assertEquals(1, commands.get("FIND").getCount());
+        assertFalse(commands.containsKey("DELETE"));
+        assertEquals(2, metrics.getTaskCount());
+        assertEquals(1, metrics.getLoads().getCount());
+        assertTrue(metrics.getJournalWrites().getCount() > 0);
+        assertTrue(metrics.getBytesWritten() > 0);
+        assertEquals(0, metrics.getSaveFailureCount());
+        bobBot.close();
+        assertEquals(0, metrics.getTaskCount());
+    }
+
+    @Test
+    public void testLatenciesRecordedFromSeveralThreadsAreAllCounted() throws Exception {
+        LatencyHistogram latencies = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 1; i <= 10000; i++) {
+                    latencies.record(i * 1000L);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        LatencyStats stats = new LatencyStats(latencies, 0);
+        assertEquals(40000, stats.getCount());
+        assertEquals(10000.0, stats.getMaxMicros());
+        assertEquals(5000.0, stats.getP50Micros(), 5000 * 0.02);
+        assertEquals(5000.0, stats.getMeanMicros(), 1.0);
+    }
+
+    @Test
+    public void testMetricsArePublishedUntilClosed() throws Exception {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        ObjectName name = new ObjectName("bobbot:type=BobBot,name=" + ObjectName.quote(filePath));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        BobBot bobBot = new BobBot(filePath);
+        bobBot.getResponse("todo read book");
+
+        assertEquals(1L, server.getAttribute(name, "TaskCount"));
+        TabularData commands = (TabularData) server.getAttribute(name, "Commands");
+        CompositeData todo = (CompositeData) commands.get(new Object[] {"TODO"}).get("value");
+        assertEquals(1L, todo.get("count"));
+        bobBot.close();
+        assertFalse(server.isRegistered(name));
+    }
+}
@@ -0,0 +1,84 @@
+package bobbot.core;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import bobbot.exception.BobException;
+
+public class BobBotRegistryTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testEvictedListIsSavedAndLoadedAgain() throws Exception {
+        BobBotRegistry registry = new BobBotRegistry(tempDir, 1);
+        registry.getResponse("alice", "todo read book");
+        registry.getResponse("alice", "mark 1");
+        assertEquals(1, registry.getLoadedCount());
+
+        // Over the bound, so using bob evicts alice but keeps bob, the list used last
+        registry.getResponse("bob", "todo sleep");
+        assertEquals(1, registry.getLoadedCount());
+        assertEquals(1, registry.getEvictionCount());
+
+        String list = registry.getResponse("alice", "list");
+        assertTrue(list.contains("1. [T][X] read book"));
+        assertFalse(list.contains("sleep"));
+        assertEquals(1, registry.getHitCount());
+        assertEquals(3, registry.getMissCount());
+        assertEquals(2, registry.getEvictionCount());
+        registry.close();
+    }
+
+    @Test
+    public void testListsStayLoadedWithinTheBound() throws Exception {
+        BobBotRegistry registry = new BobBotRegistry(tempDir, Long.MAX_VALUE);
+        registry.getResponse("alice", "todo read book");
+        registry.getResponse("bob", "todo sleep");
+        registry.getResponse("alice", "todo eat");
+
+        assertEquals(2, registry.getLoadedCount());
+        assertEquals(0, registry.getEvictionCount());
+        assertEquals(1, registry.getHitCount());
+        assertTrue(registry.getEstimatedBytes() > 0);
+        assertThrows(BobException.class, () -> registry.getResponse("../alice", "list"));
+        registry.close();
+    }
+
+    @Test
+    public void testCloseWaitsForRunningCommands() throws Exception {
+        BobBotRegistry registry = new BobBotRegistry(tempDir, Long.MAX_VALUE);
+        CountDownLatch isRunning = new CountDownLatch(1);
+        CountDownLatch mayFinish = new CountDownLatch(1);
+        Thread command = new Thread(() -> {
+            try {
+                registry.runBatch("alice", List.of("todo read book", "todo eat"), BobBot.BatchPolicy.ALL_OR_NOTHING,
+                        response -> {
+                            isRunning.countDown();
+                            try {
+                                mayFinish.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+            } catch (BobException e) {
+                throw new AssertionError(e);
+            }
+        });
+        command.start();
+        isRunning.await();
+
+        Thread closer = new Thread(registry::close);
+        closer.start();
+        closer.join(200);
+        assertTrue(closer.isAlive());
+        mayFinish.countDown();
+        closer.join();
+        command.join();
+
+        String list = new BobBot(tempDir.resolve("alice.txt").toString()).getResponse("list");
+        assertTrue(list.contains("2. [T][ ] eat"));
+    }
+}
@@ -0,0 +1,71 @@
+package bobbot.server;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import bobbot.core.BobBot;
+
+public class BobBotServerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCloseEndsOpenConnections() throws Exception {
+        BobBot bobBot = new BobBot(tempDir.resolve("tasks.txt").toString());
+        BobBotServer server = new BobBotServer(bobBot, 0);
+        Thread serving = new Thread(server::serve);
+        serving.start();
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(5000);
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer.write("todo read book\n");
+            writer.flush();
+            assertEquals("Got it bobz. I've added this task:", reader.readLine());
+            while (!reader.readLine().equals(".")) {
+                // Skip the rest of the reply
+            }
+
+            server.close();
+            assertNull(reader.readLine());
+        }
+        serving.join();
+        bobBot.close();
+    }
+
+    @Test
+    public void testBlankLinesAreAnswered() throws Exception {
+        BobBot bobBot = new BobBot(tempDir.resolve("tasks.txt").toString());
+        BobBotServer server = new BobBotServer(bobBot, 0);
+        Thread serving = new Thread(server::serve);
+        serving.start();
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(5000);
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer.write("\n   \nbye\n");
+            writer.flush();
+            assertEquals(bobBot.getInvalidCommandMessage(), reader.readLine());
+            assertEquals(".", reader.readLine());
+            assertEquals(bobBot.getInvalidCommandMessage(), reader.readLine());
+            assertEquals(".", reader.readLine());
+            assertEquals("Bye bobz. Hope to see you again soon bobz!", reader.readLine());
+            assertEquals(".", reader.readLine());
+            assertNull(reader.readLine());
+        }
+        server.close();
+        serving.join();
+        bobBot.close();
+    }
+}
@@ -0,0 +1,159 @@
+package bobbot.core;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BobBotTest {
+    @TempDir
+    Path tempDir;
+
+    private BobBot bobBotWithTodos(int count) {
+        BobBot bobBot = new BobBot(tempDir.resolve("tasks.txt").toString());
+        List<String> commands = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            commands.add("todo task " + i);
+        }
+        bobBot.runBatch(commands, BobBot.BatchPolicy.ALL_OR_NOTHING, response -> { });
+        return bobBot;
+    }
+
+    @Test
+    public void testListNextIsKeptPerSession() {
+        BobBot bobBot = bobBotWithTodos(250);
+        Session alice = new Session();
+        Session bob = new Session();
+
+        assertTrue(bobBot.getResponse("list", alice).contains("Showing items 1 to 100 of 250 bobz."));
+        assertEquals("There are no more items to list bobz.", bobBot.getResponse("list next", bob));
+        assertTrue(bobBot.getResponse("list 3", bob).contains("201. [T][ ] task 201"));
+
+        String secondPage = bobBot.getResponse("list next", alice);
+        assertTrue(secondPage.startsWith("Here are the items in your list bobz:\n101. [T][ ] task 101"));
+        assertEquals("There are no more items to list bobz.", bobBot.getResponse("list next", bob));
+
+        // A delete moves the tasks after it, so the place in the list is dropped
+        bobBot.getResponse("delete 1", bob);
+        assertEquals("There are no more items to list bobz.", bobBot.getResponse("list next", alice));
+        bobBot.close();
+    }
+
+    @Test
+    public void testListShowsOnePageAtATime() {
+        BobBot bobBot = bobBotWithTodos(250);
+
+        String firstPage = bobBot.getResponse("list");
+        assertTrue(firstPage.startsWith("Here are the items in your list bobz:\n1. [T][ ] task 1\n"));
+        assertTrue(firstPage.endsWith("100. [T][ ] task 100\nShowing items 1 to 100 of 250 bobz. "
+                + "Type 'list next' for more bobz."));
+        assertTrue(bobBot.getResponse("list next").contains("Showing items 101 to 200 of 250 bobz."));
+        String lastPage = bobBot.getResponse("list next");
+        assertTrue(lastPage.endsWith("250. [T][ ] task 250\nShowing items 201 to 250 of 250 bobz."));
+        assertEquals("There are no more items to list bobz.", bobBot.getResponse("list next"));
+
+        assertTrue(bobBot.getResponse("list 2").startsWith("Here are the items in your list bobz:\n101. "));
+        assertEquals("Here are the items in your list bobz:\n5. [T][ ] task 5\n6. [T][ ] task 6\n"
+                + "Showing items 5 to 6 of 250 bobz. Type 'list next' for more bobz.",
+                bobBot.getResponse("list --from 5 --limit 2"));
+        assertTrue(bobBot.getResponse("list next").startsWith("Here are the items in your list bobz:\n7. "));
+        assertEquals("BOBZ!!! There are only 250 items in the list bobz.", bobBot.getResponse("list 4"));
+        assertTrue(bobBot.getResponse("list 0").startsWith("BOBZ!!! Use 'list'"));
+        bobBot.close();
+    }
+
+    @Test
+    public void testFailedScriptChangesNothing() throws Exception {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        Path script = tempDir.resolve("chores.txt");
+        Files.write(script, List.of("# chores", "todo wash car", "delete 1", "mark 9", "todo sleep"));
+        BobBot bobBot = bobBotWithTodos(2);
+
+        String response = bobBot.getResponse("run " + script);
+        assertTrue(response.startsWith("BOBZ!!! The script " + script + " stopped at line 4: BOBZ!!!"));
+        assertTrue(response.endsWith("Nothing was changed bobz."));
+        assertTrue(bobBot.getResponse("list").endsWith("1. [T][ ] task 1\n2. [T][ ] task 2"));
+        assertEquals("Undone bobz! Removed task:\n  [T][ ] task 2", bobBot.getResponse("undo"));
+
+        BatchResult result = bobBot.runBatch(Files.readAllLines(script), BobBot.BatchPolicy.CONTINUE_ON_ERROR,
+                line -> { });
+        assertFalse(result.isRolledBack());
+        assertEquals(3, result.getSucceededCount());
+        assertEquals(1, result.getFailures().size());
+        bobBot.close();
+
+        BobBot reloaded = new BobBot(filePath);
+        assertEquals("Here are the items in your list bobz:\n1. [T][ ] wash car\n2. [T][ ] sleep",
+                reloaded.getResponse("list"));
+        reloaded.close();
+    }
+
+    @Test
+    public void testMarkAndDeleteRangesAndLists() {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        BobBot bobBot = bobBotWithTodos(12);
+
+        assertEquals("Nice bobz! I've marked these 4 tasks as done bobz:\n  [T][X] task 2\n  [T][X] task 3\n"
+                + "  [T][X] task 4\n  [T][X] task 7", bobBot.getResponse("mark 2-4, 7,3"));
+        assertTrue(bobBot.getResponse("unmark 3-3,4").startsWith("OK bobz, I've marked these 2 tasks as not done"));
+        assertEquals("BOBZ!!! That task number does not exist.", bobBot.getResponse("delete 10-13"));
+        assertEquals("BOBZ!!! The range 5-1 is backwards bobz.", bobBot.getResponse("mark 5-1"));
+
+        String deleted = bobBot.getResponse("delete 1,3-5,12");
+        assertTrue(deleted.startsWith("Noted bobz. I've removed these 5 tasks bobz:\n  [T][ ] task 1\n"));
+        assertTrue(deleted.endsWith("Now you have 7 tasks in the list bobz."));
+        assertTrue(bobBot.getResponse("delete done").startsWith("Noted bobz. I've removed these 2 tasks bobz:"));
+        assertEquals("BOBZ!!! None of your tasks are done yet bobz.", bobBot.getResponse("mark done"));
+        bobBot.close();
+
+        BobBot reloaded = new BobBot(filePath);
+        assertEquals("Here are the items in your list bobz:\n1. [T][ ] task 6\n2. [T][ ] task 8\n"
+                + "3. [T][ ] task 9\n4. [T][ ] task 10\n5. [T][ ] task 11", reloaded.getResponse("list"));
+        reloaded.close();
+    }
+
+    @Test
+    public void testUndoAndRedoAreSaved() {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        BobBot bobBot = bobBotWithTodos(6);
+        bobBot.getResponse("mark 2-3");
+        String before = bobBot.getResponse("list");
+
+        bobBot.getResponse("delete 1,3-5");
+        assertTrue(bobBot.getResponse("undo").startsWith("Undone bobz!"));
+        assertEquals(before, bobBot.getResponse("list"));
+        assertTrue(bobBot.getResponse("redo").startsWith("Redone bobz!"));
+        bobBot.getResponse("unmark 1");
+        assertEquals("Undone bobz! Reversed the last 2 commands.", bobBot.getResponse("undo 2"));
+        assertEquals(before, bobBot.getResponse("list"));
+        bobBot.getResponse("redo");
+        String after = bobBot.getResponse("list");
+        bobBot.close();
+
+        BobBot reloaded = new BobBot(filePath);
+        assertEquals(after, reloaded.getResponse("list"));
+        assertEquals("Here are the items in your list bobz:\n1. [T][X] task 2\n2. [T][ ] task 6", after);
+        reloaded.close();
+    }
+
+    @Test
+    public void testMarkThatChangesNothingIsNotUndone() {
+        BobBot bobBot = bobBotWithTodos(3);
+        bobBot.getResponse("mark 2");
+        bobBot.getResponse("mark 2");
+
+        bobBot.getResponse("undo");
+        assertTrue(bobBot.getResponse("list").contains("2. [T][ ] task 2"));
+        bobBot.close();
+    }
+
+    @Test
+    public void testBareDueAndRunShowHowToUseThem() {
+        BobBot bobBot = bobBotWithTodos(1);
+        assertTrue(bobBot.getResponse("due").startsWith("BOBZ!!! Use 'due today', 'due week'"));
+        assertEquals("BOBZ!!! Use 'run <file>' or 'run --continue <file>' bobz.", bobBot.getResponse("run"));
+        bobBot.close();
+    }
+}
@@ -0,0 +1,54 @@
+package bobbot.task;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+public class DateParserTest {
+    private static final String[] DATES = {
+        "2026-03-20", "Mar 20 2026", "2026-02-30", "2026-04-31", "2026-02-32", "2026-13-01", "0000-01-01",
+        "12345-01-01", "+2026-01-01", "2026-1-01", " 2026-01-01", "Feb 30 2026", "feb 03 2026", "Sep 03 2026",
+        "Sept 03 2026", "Mar 3 2026", "Mon", "tomorrow", "2pm", "", "2026-03-20 1200", "Dec 31 9999"
+    };
+    private static final String[] DATE_TIMES = {
+        "2026-03-20 1900", "20 Mar 2026 1900", "2026-02-30 1200", "2026-01-01 2400", "2026-01-01 2401",
+        "2026-01-01 2360", "30 Feb 2026 1200", "01 Jan 2026 2400", "2026-01-01 12:00", "1 Jan 2026 1200",
+        "01 jan 2026 1200", "Mon 2pm", "2pm", "2026-03-20", "   ", "00 Jan 2026 0000", "2026-00-10 0000"
+    };
+
+    @Test
+    public void testParseDateMatchesFormatters() {
+        for (String text : DATES) {
+            assertEquals(parseWithFormatters(text, false), DateParser.parseDate(text), text);
+            // a second call may be served from the cache
+            assertEquals(parseWithFormatters(text, false), DateParser.parseDate(text), text);
+        }
+        assertNull(DateParser.parseDate(null));
+    }
+
+    @Test
+    public void testParseDateTimeMatchesFormatters() {
+        for (String text : DATE_TIMES) {
+            assertEquals(parseWithFormatters(text, true), DateParser.parseDateTime(text), text);
+        }
+        assertEquals(LocalDateTime.of(2026, 1, 2, 0, 0), DateParser.parseDateTime("2026-01-01 2400"));
+        assertNull(DateParser.parseDateTime(null));
+    }
+
+    private static Object parseWithFormatters(String text, boolean hasTime) {
+        String[] patterns = hasTime
+                ? new String[] {"yyyy-MM-dd HHmm", "dd MMM yyyy HHmm"}
+                : new String[] {"yyyy-MM-dd", "MMM dd yyyy"};
+        for (String pattern : patterns) {
+            try {
+                DateTimeFormatter format = DateTimeFormatter.ofPattern(pattern);
+                return hasTime ? LocalDateTime.parse(text, format) : LocalDate.parse(text, format);
+            } catch (DateTimeParseException e) {
+                // try the next format
+            }
+        }
+        return null;
+    }
+}
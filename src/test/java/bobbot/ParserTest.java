@@ -13,6 +13,28 @@ public class ParserTest {
         Parser.Command invalidResult = Parser.parseCommand("invalid command");
         assertEquals(Parser.CommandType.INVALID, invalidResult.getType());
         
+        Parser.Command fuzzyResult = Parser.parseCommand("find~2 concrt");
+        assertEquals(Parser.CommandType.FUZZY_FIND, fuzzyResult.getType());
+        assertEquals("concrt", fuzzyResult.getArguments()[0]);
+        assertEquals("2", fuzzyResult.getArguments()[1]);
+        assertEquals(1, Parser.parseCommand("find~ concrt").getArguments().length);
+
+        Parser.Command listResult = Parser.parseCommand("list --from 5 --limit 3");
+        assertEquals(Parser.CommandType.LIST, listResult.getType());
+        assertEquals("--from 5 --limit 3", listResult.getArguments()[0]);
+        assertEquals(0, Parser.parseCommand("list").getArguments().length);
+
+        Parser.Command runResult = Parser.parseCommand("run --continue chores.txt");
+        assertEquals(Parser.CommandType.RUN, runResult.getType());
+        assertEquals("--continue chores.txt", runResult.getArguments()[0]);
+        assertEquals(Parser.CommandType.RUN, Parser.parseCommand("run").getType());
+        assertEquals(0, Parser.parseCommand("due").getArguments().length);
+        assertEquals("week", Parser.parseCommand("due  week").getArguments()[0]);
+
+        assertEquals("3", Parser.parseCommand("undo 3").getArguments()[0]);
+        assertEquals(Parser.CommandType.REDO, Parser.parseCommand("redo").getType());
+        assertEquals(0, Parser.parseCommand("redo").getArguments().length);
+
         Parser.Command byeResult = Parser.parseCommand("bye");
         assertEquals(Parser.CommandType.BYE, byeResult.getType());
     }
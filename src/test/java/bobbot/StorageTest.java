@@ -0,0 +1,230 @@
+package bobbot.storage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import bobbot.task.Deadline;
+import bobbot.task.Task;
+import bobbot.task.Todo;
+
+public class StorageTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testJournalReplay() throws Exception {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        storage.loadTasks();
+
+        Task read = new Todo("read book");
+        Task submit = new Deadline("submit report", "2026-03-20");
+        storage.appendAdd(read);
+        storage.appendAdd(submit);
+        storage.appendAdd(new Todo("sleep"));
+        storage.appendMark(1, true);
+        storage.appendDelete(0);
+        storage.appendInsert(0, read);
+        storage.flush();
+
+        ArrayList<Task> loaded = new Storage(filePath).loadTasks();
+        assertEquals(3, loaded.size());
+        assertEquals("[T][ ] read book", loaded.get(0).toString());
+        assertEquals("[D][X] submit report (by: Mar 20 2026)", loaded.get(1).toString());
+        assertEquals("[T][ ] sleep", loaded.get(2).toString());
+    }
+
+    @Test
+    public void testJournalWithoutSnapshotLoadsQuietly() throws Exception {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        storage.loadTasks();
+        storage.appendAdd(new Todo("read book"));
+        storage.flush();
+
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        ArrayList<Task> loaded;
+        try {
+            loaded = new Storage(filePath).loadTasks();
+        } finally {
+            System.setOut(out);
+        }
+        assertEquals(1, loaded.size());
+        assertEquals("", printed.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSnapshotResetsJournal() throws Exception {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        ArrayList<Task> tasks = storage.loadTasks();
+
+        tasks.add(new Todo("eat"));
+        storage.appendAdd(tasks.get(0));
+        storage.saveTasks(tasks);
+        tasks.get(0).markAsDone();
+        storage.appendMark(0, true);
+        storage.close();
+
+        ArrayList<Task> loaded = new Storage(filePath).loadTasks();
+        assertEquals(1, loaded.size());
+        assertEquals("[T][X] eat", loaded.get(0).toString());
+    }
+
+    @Test
+    public void testBatchIsWrittenOnlyWhenCommitted() throws Exception {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        storage.loadTasks();
+
+        storage.beginBatch();
+        storage.appendAdd(new Todo("dropped"));
+        storage.discardBatch();
+        storage.beginBatch();
+        storage.appendAdd(new Todo("read book"));
+        storage.appendAdd(new Todo("sleep"));
+        storage.appendMark(1, true);
+        storage.commitBatch();
+        storage.flush();
+
+        ArrayList<Task> loaded = new Storage(filePath).loadTasks();
+        assertEquals(2, loaded.size());
+        assertEquals("[T][ ] read book", loaded.get(0).toString());
+        assertEquals("[T][X] sleep", loaded.get(1).toString());
+    }
+
+    @Test
+    public void testJournalReplaysChangesOfSeveralTasks() throws Exception {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        storage.loadTasks();
+
+        for (int i = 1; i <= 10; i++) {
+            storage.appendAdd(new Todo("task " + i));
+        }
+        storage.appendMarkAll(new int[] {0, 1, 2, 5}, true);
+        storage.appendDeleteAll(new int[] {1, 2, 3, 7});
+        storage.flush();
+
+        ArrayList<Task> loaded = new Storage(filePath).loadTasks();
+        assertEquals(6, loaded.size());
+        assertEquals("[T][X] task 1", loaded.get(0).toString());
+        assertEquals("[T][ ] task 5", loaded.get(1).toString());
+        assertEquals("[T][X] task 6", loaded.get(2).toString());
+        assertEquals("[T][ ] task 10", loaded.get(5).toString());
+
+        assertEquals("0-2,5,7-8", Storage.formatIndices(new int[] {0, 1, 2, 5, 7, 8}));
+        assertArrayEquals(new int[] {0, 1, 2, 5, 7, 8}, Storage.parseIndices("0-2,5,7-8"));
+    }
+
+    @Test
+    public void testJournalReplaysInsertOfSeveralTasks() throws Exception {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        storage.loadTasks();
+
+        for (int i = 1; i <= 6; i++) {
+            storage.appendAdd(new Todo("task " + i));
+        }
+        storage.appendDeleteAll(new int[] {1, 2, 4});
+        storage.appendInsertAll(new int[] {1, 2, 4}, List.of(new Todo("task 2"), new Todo("task 3"),
+                new Deadline("task 5", "2026-03-20")));
+        storage.flush();
+
+        List<String> journal = Files.readAllLines(tempDir.resolve("tasks.txt.journal"));
+        assertTrue(journal.get(journal.size() - 1).startsWith("B|1-2,4|"));
+        ArrayList<Task> loaded = new Storage(filePath).loadTasks();
+        assertEquals(6, loaded.size());
+        assertEquals("[T][ ] task 2", loaded.get(1).toString());
+        assertEquals("[T][ ] task 3", loaded.get(2).toString());
+        assertEquals("[T][ ] task 4", loaded.get(3).toString());
+        assertEquals(new Deadline("task 5", "2026-03-20").toString(), loaded.get(4).toString());
+        assertEquals("[T][ ] task 6", loaded.get(5).toString());
+    }
+
+    @Test
+    public void testMigratesDisplayFormatToSegments() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        Files.writeString(file, "1. [T][ ] sleep early\n"
+                + "2. [D][X] write post (by: Mon)\n"
+                + "3. [E][ ] go concert (from: 20 Mar 2026 1900 to: 20 Mar 2026 2300)\n");
+
+        ArrayList<Task> loaded = new Storage(file.toString()).loadTasks();
+        assertEquals(3, loaded.size());
+        assertEquals("BOBM", new String(Files.readAllBytes(file), 0, 4));
+
+        ArrayList<Task> reloaded = new Storage(file.toString()).loadTasks();
+        assertEquals(3, reloaded.size());
+        for (int i = 0; i < loaded.size(); i++) {
+            assertEquals(loaded.get(i).toString(), reloaded.get(i).toString());
+        }
+        assertEquals("[D][X] write post (by: Mon)", reloaded.get(1).toString());
+        assertEquals("[E][ ] go concert (from: 20 Mar 2026 1900 to: 20 Mar 2026 2300)", reloaded.get(2).toString());
+    }
+
+    @Test
+    public void testCompactionRewritesOnlyChangedSegments() throws Exception {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        ArrayList<Task> tasks = storage.loadTasks();
+        for (int i = 0; i < 20000; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        storage.saveTasks(tasks);
+        Path segmentDir = tempDir.resolve("tasks.txt.segments");
+        List<String> before = listFiles(segmentDir);
+        assertEquals(5, before.size());
+
+        // enough marks on the third task to trigger compaction
+        for (int i = 0; i < 20000; i++) {
+            storage.appendMark(3, i % 2 == 0);
+        }
+        storage.close();
+
+        List<String> after = listFiles(segmentDir);
+        assertEquals(5, after.size());
+        after.removeAll(before);
+        assertEquals(1, after.size());
+
+        ArrayList<Task> loaded = new Storage(filePath).loadTasks();
+        assertEquals(20000, loaded.size());
+        assertEquals("[T][ ] task 3", loaded.get(3).toString());
+        assertEquals("[T][ ] task 19999", loaded.get(19999).toString());
+    }
+
+    private static List<String> listFiles(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testNothingIsWrittenAfterAFailedWrite() throws Exception {
+        List<String> written = new ArrayList<>();
+        JournalWriter writer = new JournalWriter((records, isForced) -> {
+            if (records.contains("fail")) {
+                throw new IOException("disk full");
+            }
+            written.addAll(records);
+        }, "test-journal");
+
+        writer.submit("first");
+        writer.flush();
+        writer.submit("fail");
+        assertThrows(IOException.class, writer::flush);
+        assertThrows(IOException.class, () -> writer.submit("after"));
+        assertEquals(List.of("first"), written);
+        assertThrows(IOException.class, writer::close);
+    }
+}
@@ -0,0 +1,23 @@
+package bobbot.task;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringPoolTest {
+    @Test
+    public void testTasksShareEqualStrings() {
+        long hitCount = StringPool.getHitCount();
+        long bytesSaved = StringPool.getBytesSaved();
+
+        Task first = new Todo(new String("eat lunch"));
+        Task second = new Todo(new String("eat lunch"));
+        assertSame(first.getDescription(), second.getDescription());
+
+        Deadline deadline = new Deadline("pay rent", new String("Mon"));
+        Deadline other = new Deadline(new String("pay rent"), null, new String("Mon"));
+        assertSame(deadline.getOriginalInput(), other.getOriginalInput());
+
+        assertTrue(StringPool.getHitCount() >= hitCount + 3);
+        assertTrue(StringPool.getBytesSaved() > bytesSaved);
+        assertNull(StringPool.intern(null));
+    }
+}
@@ -4,7 +4,13 @@ import static org.junit.jupiter.api.Assertions.*;
 import bobbot.tasklist.TaskList;
 import bobbot.task.Todo;
 import bobbot.task.Task;
+import bobbot.task.Deadline;
+import bobbot.task.Event;
 import bobbot.exception.BobException;
+import bobbot.tasklist.TaskSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 public class TaskListTest {
     @Test
@@ -38,4 +44,167 @@ public class TaskListTest {
             taskList.getTask(0);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLazyTaskList() throws BobException {
+        TaskSource source = new TaskSource() {
+            @Override
+            public int segmentCount() {
+                return 4;
+            }
+
+            @Override
+            public int segmentLength(int segment) {
+                return 250;
+            }
+
+            @Override
+            public Task load(int segment, int offset) {
+                return new Todo("task " + (segment * 250 + offset));
+            }
+        };
+        TaskList taskList = new TaskList(source);
+        assertEquals(1000, taskList.size());
+        assertEquals("task 42", taskList.getTask(42).getDescription());
+
+        // marks survive the source handing out fresh objects
+        taskList.markTask(7, true);
+        assertEquals("[T][X] task 7", taskList.get(7).toString());
+
+        taskList.addTask(new Todo("new task"));
+        Task deleted = taskList.deleteTask(0);
+        assertEquals("task 0", deleted.getDescription());
+        assertEquals("[T][X] task 7", taskList.get(6).toString());
+        assertEquals("new task", taskList.get(999).getDescription());
+
+        taskList.insertTask(0, deleted);
+        assertEquals(1001, taskList.size());
+        assertEquals("task 0", taskList.get(0).getDescription());
+        assertEquals("task 1", taskList.get(1).getDescription());
+
+        // only the first segment and the short last one it appended to were touched
+        List<TaskSegment> segments = taskList.getSegments();
+        assertEquals(4, segments.size());
+        assertTrue(segments.get(0).isChanged());
+        assertEquals(1, segments.get(1).getSourceSegment());
+        assertEquals(2, segments.get(2).getSourceSegment());
+        assertTrue(segments.get(3).isChanged());
+        assertEquals(251, segments.get(3).size());
+    }
+
+    @Test
+    public void testColumnarTaskList() throws BobException {
+        List<Task> tasks = List.of(new Todo("read book"), new Deadline("return book", "2026-03-20"),
+                new Deadline("pay rent", "Mon"), new Event("project meeting", "2026-03-20 1400", "2pm"));
+        TaskList taskList = TaskList.ofColumns(tasks);
+        assertEquals(4, taskList.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), taskList.get(i).toString());
+        }
+        assertEquals("pay rent", taskList.getDescription(2));
+        assertTrue(taskList.descriptionContains(3, "project m"));
+        assertFalse(taskList.descriptionContains(3, "meetings"));
+
+        taskList.markTask(1, true);
+        taskList.markTask(3, true);
+        taskList.insertTask(0, new Todo("wake up"));
+        assertEquals("[D][X] return book (by: Mar 20 2026)", taskList.get(2).toString());
+        assertEquals("[E][X] project meeting (from: 20 Mar 2026 1400 to: 2pm)", taskList.get(4).toString());
+
+        Task deleted = taskList.deleteTask(2);
+        assertEquals("[D][X] return book (by: Mar 20 2026)", deleted.toString());
+        assertEquals("[D][ ] pay rent (by: Mon)", taskList.get(2).toString());
+        assertEquals("[E][X] project meeting (from: 20 Mar 2026 1400 to: 2pm)", taskList.get(3).toString());
+        assertEquals(4, taskList.getTasks().size());
+    }
+
+    @Test
+    public void testFindTasksFollowsChanges() throws BobException {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("read Book"));
+        taskList.addTask(new Todo("return book"));
+        taskList.addTask(new Todo("buy notebook"));
+
+        assertArrayEquals(new int[] {0, 1, 2}, taskList.findTasks("book"));
+        assertArrayEquals(new int[] {1}, taskList.findTasks("return book"));
+
+        // changes after the index is built are seen by later searches
+        taskList.deleteTask(0);
+        taskList.insertTask(1, new Todo("booking"));
+        taskList.addTask(new Todo("cook"));
+        assertArrayEquals(new int[] {0, 1, 2}, taskList.findTasks("book"));
+        assertArrayEquals(new int[] {1}, taskList.findTasks("booking"));
+        assertArrayEquals(new int[] {3}, taskList.findTasks("cook"));
+        assertArrayEquals(new int[0], taskList.findTasks("read"));
+
+        // substrings of words and keywords spanning several words
+        assertArrayEquals(new int[] {1}, taskList.findTasks("ookin"));
+        assertArrayEquals(new int[] {2}, taskList.findTasks("y noteb"));
+        assertArrayEquals(new int[0], taskList.findTasks("ookx"));
+    }
+
+    @Test
+    public void testFindSimilarTasksRanksByDistance() throws BobException {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("buy concert tickets"));
+        taskList.addTask(new Todo("Concrete work"));
+        taskList.addTask(new Todo("concern"));
+        taskList.addTask(new Todo("read book"));
+
+        assertArrayEquals(new int[] {0}, taskList.findSimilarTasks("concrt", 1));
+        assertArrayEquals(new int[] {0, 1, 2}, taskList.findSimilarTasks("concrt", 2));
+        assertArrayEquals(new int[] {1, 0, 2}, taskList.findSimilarTasks("concrete", 3));
+
+        taskList.deleteTask(0);
+        taskList.addTask(new Todo("concert"));
+        assertArrayEquals(new int[] {3}, taskList.findSimilarTasks("concrt", 1));
+        assertArrayEquals(new int[0], taskList.findSimilarTasks("xyz", 1));
+    }
+
+    @Test
+    public void testFindTasksDueBetween() throws BobException {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Deadline("pay rent", "2026-03-20"));
+        taskList.addTask(new Deadline("submit essay", "2026-03-18"));
+        taskList.addTask(new Deadline("call mum", "Mon"));
+        taskList.addTask(new Todo("read book"));
+
+        LocalDate from = LocalDate.of(2026, 3, 18);
+        LocalDate to = LocalDate.of(2026, 3, 20);
+        assertArrayEquals(new int[] {1, 0}, taskList.findTasksDueBetween(from, to));
+        assertArrayEquals(new int[] {1}, taskList.findTasksDueBetween(from, from));
+
+        taskList.deleteTask(1);
+        taskList.insertTask(0, new Deadline("book flight", "Mar 19 2026"));
+        taskList.addTask(new Deadline("pay bills", "2026-03-20"));
+        assertArrayEquals(new int[] {0, 1, 4}, taskList.findTasksDueBetween(from, to));
+        assertArrayEquals(new int[0], taskList.findTasksDueBetween(to, from));
+    }
+
+    @Test
+    public void testDeleteAndInsertSeveralTasks() throws BobException {
+        List<Task> tasks = List.of(new Todo("read book"), new Todo("return book"), new Deadline("pay rent", "2026-03-20"),
+                new Todo("buy milk"), new Todo("book flight"), new Todo("sleep"));
+        for (TaskList taskList : List.of(new TaskList(new ArrayList<>(tasks)), TaskList.ofColumns(tasks))) {
+            taskList.markTask(3, true);
+            assertArrayEquals(new int[] {0, 1, 4}, taskList.findTasks("book"));
+
+            List<Task> deleted = taskList.deleteTasks(new int[] {0, 2, 4});
+            assertEquals(3, deleted.size());
+            assertEquals("[D][ ] pay rent (by: Mar 20 2026)", deleted.get(1).toString());
+            assertEquals(3, taskList.size());
+            assertEquals("[T][X] buy milk", taskList.get(1).toString());
+            assertArrayEquals(new int[] {0}, taskList.findTasks("book"));
+            assertThrows(BobException.class, () -> taskList.deleteTasks(new int[] {1, 3}));
+            assertThrows(BobException.class, () -> taskList.deleteTasks(new int[] {1, 1}));
+
+            taskList.insertTasks(new int[] {0, 2, 4}, deleted);
+            for (int i = 0; i < tasks.size(); i++) {
+                assertEquals(tasks.get(i).getDescription(), taskList.getDescription(i));
+            }
+            assertArrayEquals(new int[] {0, 1, 4}, taskList.findTasks("book"));
+            assertEquals("[T][X] buy milk", taskList.get(3).toString());
+            taskList.markTask(3, false);
+        }
+    }
+}